@@ -0,0 +1,44 @@
+package org.horizon.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 基准测试入口，按多个线程数依次运行匹配的基准测试，每个线程数输出一个json结果文件；
+ * java -Dhorizon.bench.threads=1,4,16 -jar benchmarks.jar [正则，默认全部]
+ */
+public class BenchmarkRunner {
+
+    public static final String THREADS_PROPERTY = "horizon.bench.threads";
+    public static final String DEFAULT_THREADS = "1,4,16";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "org\\.horizon\\.benchmark\\..*";
+        for (String threads : System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(include)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-" + threadCount + "t.json");
+            //L2连接配置传递给fork出的jvm
+            List<String> jvmArgs = new ArrayList<>();
+            for (String property : new String[]{BenchmarkSupport.L2_PROPERTY, BenchmarkSupport.NODES_PROPERTY, BenchmarkSupport.PASSWORD_PROPERTY}) {
+                String value = System.getProperty(property);
+                if (value != null) {
+                    jvmArgs.add("-D" + property + "=" + value);
+                }
+            }
+            builder.jvmArgsAppend(jvmArgs.toArray(new String[0]));
+            new Runner(builder.build()).run();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.horizon.benchmark;
+
+import org.horizon.enums.CacheTypeEnum;
+import org.horizon.factory.HorizonCacheFactory;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 基准测试公共配置，默认使用jvm内L2(memory)，不依赖网络；测试redis时通过系统属性指定：
+ * -Dhorizon.bench.l2=redis -Dhorizon.bench.nodes=127.0.0.1:6379 -Dhorizon.bench.password=xxx
+ */
+public class BenchmarkSupport {
+
+    public static final String L2_PROPERTY = "horizon.bench.l2";
+    public static final String NODES_PROPERTY = "horizon.bench.nodes";
+    public static final String PASSWORD_PROPERTY = "horizon.bench.password";
+    public static final String DEFAULT_NODES = "127.0.0.1:6379";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 创建缓存工厂，不启动，调用方注册分类配置后再调用start
+     */
+    public static HorizonCacheFactory createFactory() {
+        HorizonCacheFactory factory = new HorizonCacheFactory();
+        String l2CacheProvider = System.getProperty(L2_PROPERTY, CacheTypeEnum.MEMORY.getType());
+        factory.setL2CacheProvider(l2CacheProvider);
+        if (CacheTypeEnum.REDIS.getType().equals(l2CacheProvider)) {
+            factory.setNodes(System.getProperty(NODES_PROPERTY, DEFAULT_NODES));
+        }
+        String password = System.getProperty(PASSWORD_PROPERTY);
+        if (password != null && !password.isEmpty()) {
+            factory.setPassword(password);
+        }
+        //基准测试进程不需要注册MBean
+        factory.setJmxEnabled(false);
+        return factory;
+    }
+
+    /**
+     * 生成指定长度的字符串值
+     */
+    public static String payload(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.toString();
+    }
+}
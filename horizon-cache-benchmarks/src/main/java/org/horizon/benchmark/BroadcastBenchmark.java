@@ -0,0 +1,75 @@
+package org.horizon.benchmark;
+
+import org.horizon.broadcast.CacheBroadcastCodec;
+import org.horizon.broadcast.CacheBroadcastMessage;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.factory.HorizonCacheFactory;
+import org.horizon.serialize.CacheValueEnvelope;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播消息接收基准测试，模拟订阅线程收到其他节点的消息：解码后交给工作线程更新L1，
+ * 工作队列满时订阅线程阻塞，因此吞吐量反映的是L1更新的持续处理能力
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    private static final String CATEGORY = "bench-broadcast";
+
+    @Param({"invalidate", "push", "refetch"})
+    private String mode;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private HorizonCacheFactory factory;
+    private byte[] message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        factory = BenchmarkSupport.createFactory();
+        factory.start();
+
+        List<String> keys = new ArrayList<>(batchSize);
+        List<byte[]> values = new ArrayList<>(batchSize);
+        byte[] value = CacheValueEnvelope.encode(factory.getL2CacheManager().getSerializer(),
+                new CacheValue(BenchmarkSupport.payload(128), 60000));
+        for (int i = 0; i < batchSize; i++) {
+            keys.add("key-" + i);
+            values.add(value);
+        }
+        CacheBroadcastMessage broadcastMessage = batchSize == 1
+                ? new CacheBroadcastMessage(CATEGORY, keys.get(0))
+                : new CacheBroadcastMessage(CATEGORY, keys);
+        //其他节点发出的消息，本节点不会忽略
+        broadcastMessage.setNodeId(UUID.randomUUID().toString());
+        broadcastMessage.setMode(mode);
+        if ("push".equals(mode)) {
+            broadcastMessage.setValues(values);
+        }
+        broadcastMessage.setTimestamp(System.currentTimeMillis());
+        message = CacheBroadcastCodec.encode(broadcastMessage);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.stop();
+    }
+
+    @Benchmark
+    public void onMessage() {
+        factory.onBroadcastMessage(message);
+    }
+}
@@ -0,0 +1,67 @@
+package org.horizon.benchmark;
+
+import org.horizon.broadcast.CacheBroadcastCodec;
+import org.horizon.broadcast.CacheBroadcastMessage;
+import org.horizon.serialize.impl.JavaSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播消息编解码基准测试，对比二进制编码与java序列化的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastCodecBenchmark {
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private final JavaSerializer javaSerializer = new JavaSerializer();
+    private CacheBroadcastMessage message;
+    private byte[] codecBytes;
+    private byte[] javaBytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add("key-" + i);
+        }
+        message = batchSize == 1 ? new CacheBroadcastMessage("user", keys.get(0)) : new CacheBroadcastMessage("user", keys);
+        message.setNodeId(UUID.randomUUID().toString());
+        message.setMode("invalidate");
+        message.setTimestamp(System.currentTimeMillis());
+        codecBytes = CacheBroadcastCodec.encode(message);
+        javaBytes = javaSerializer.serialize(message);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return CacheBroadcastCodec.encode(message);
+    }
+
+    @Benchmark
+    public CacheBroadcastMessage codecDecode() {
+        return CacheBroadcastCodec.decode(codecBytes);
+    }
+
+    @Benchmark
+    public byte[] javaEncode() {
+        return javaSerializer.serialize(message);
+    }
+
+    @Benchmark
+    public CacheBroadcastMessage javaDecode() {
+        return javaSerializer.deserialize(javaBytes);
+    }
+}
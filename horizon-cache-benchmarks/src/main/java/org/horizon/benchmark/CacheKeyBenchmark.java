@@ -0,0 +1,44 @@
+package org.horizon.benchmark;
+
+import org.horizon.utils.CacheUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 缓存key拼接与解析基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    @Param({"8", "64"})
+    private int keySize;
+
+    private String category;
+    private String key;
+    private String finalKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        category = "user";
+        key = BenchmarkSupport.payload(keySize);
+        finalKey = CacheUtil.generateKey(category, key);
+    }
+
+    @Benchmark
+    public String generateKey() {
+        return CacheUtil.generateKey(category, key);
+    }
+
+    @Benchmark
+    public String parseKey() {
+        return CacheUtil.parseKey(category, finalKey);
+    }
+}
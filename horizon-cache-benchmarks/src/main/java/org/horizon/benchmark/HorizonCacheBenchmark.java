@@ -0,0 +1,110 @@
+package org.horizon.benchmark;
+
+import org.horizon.HorizonCacheHelper;
+import org.horizon.factory.HorizonCacheFactory;
+import org.horizon.utils.CacheUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion HorizonCache读写路径基准测试：L1命中、L1未命中L2命中、全部未命中、写入和删除；
+ * L1未命中L2命中在每次读取前删除该key的本地L1缓存(包含在测量时间内，本地删除的开销远小于L2读取)，读取的key均已预先写入L2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HorizonCacheBenchmark {
+
+    private static final String L1_CATEGORY = "bench-l1";
+    private static final String L2_CATEGORY = "bench-l2";
+    private static final String MISS_CATEGORY = "bench-miss";
+    private static final String WRITE_CATEGORY = "bench-write";
+
+    @Param({"1000"})
+    private int keyCount;
+
+    @Param({"128"})
+    private int valueSize;
+
+    private HorizonCacheFactory factory;
+    private HorizonCacheHelper.HorizonCache l1Cache;
+    private HorizonCacheHelper.HorizonCache l2Cache;
+    private HorizonCacheHelper.HorizonCache missCache;
+    private HorizonCacheHelper.HorizonCache writeCache;
+    private String[] keys;
+    private String value;
+    //全部未命中使用递增的key，保证每次都查询L2
+    private final AtomicLong missSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        factory = BenchmarkSupport.createFactory();
+        factory.start();
+
+        l1Cache = HorizonCacheHelper.getCache(L1_CATEGORY);
+        l2Cache = HorizonCacheHelper.getCache(L2_CATEGORY);
+        missCache = HorizonCacheHelper.getCache(MISS_CATEGORY);
+        writeCache = HorizonCacheHelper.getCache(WRITE_CATEGORY);
+
+        keys = new String[keyCount];
+        value = BenchmarkSupport.payload(valueSize);
+        Map<String, Object> values = new HashMap<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "key-" + i;
+            values.put(keys[i], value);
+        }
+        l1Cache.setAll(values);
+        l2Cache.setAll(values);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        l1Cache.deleteAll(Arrays.asList(keys));
+        l2Cache.deleteAll(Arrays.asList(keys));
+        writeCache.deleteAll(Arrays.asList(keys));
+        factory.stop();
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    public Object getL1Hit() {
+        return l1Cache.get(randomKey());
+    }
+
+    @Benchmark
+    public Object getL2Hit() {
+        String key = randomKey();
+        //只删除本节点L1，不删除L2也不广播，保证每次读取都落到L2
+        factory.getL1CacheManager().getCache(L2_CATEGORY).delete(CacheUtil.generateKey(L2_CATEGORY, key));
+        return l2Cache.get(key);
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return missCache.get("miss-" + missSequence.incrementAndGet());
+    }
+
+    @Benchmark
+    public void set() {
+        writeCache.set(randomKey(), value);
+    }
+
+    @Benchmark
+    public void delete() {
+        writeCache.delete(randomKey());
+    }
+}
@@ -0,0 +1,78 @@
+package org.horizon.benchmark;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.serialize.Serializer;
+import org.horizon.serialize.impl.CompactSerializer;
+import org.horizon.serialize.impl.CompressionSerializer;
+import org.horizon.serialize.impl.JavaSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 序列化基准测试，对比不同序列化方式和值大小下CacheValue的序列化与反序列化耗时，
+ * 值为字符串和Map两种
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"java", "compact", "java-compress"})
+    private String serializerType;
+
+    @Param({"16", "256", "4096", "65536"})
+    private int valueSize;
+
+    @Param({"string", "map"})
+    private String valueType;
+
+    private Serializer serializer;
+    private CacheValue cacheValue;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (serializerType) {
+            case "compact":
+                serializer = new CompactSerializer();
+                break;
+            case "java-compress":
+                serializer = new CompressionSerializer(new JavaSerializer(), 1024, Deflater.BEST_SPEED);
+                break;
+            default:
+                serializer = new JavaSerializer();
+        }
+        Object value;
+        if ("map".equals(valueType)) {
+            //每个条目约32字节
+            Map<String, Object> map = new HashMap<>();
+            for (int i = 0; i < Math.max(1, valueSize / 32); i++) {
+                map.put("field-" + i, BenchmarkSupport.payload(16));
+            }
+            value = map;
+        } else {
+            value = BenchmarkSupport.payload(valueSize);
+        }
+        cacheValue = new CacheValue(value, 60000);
+        bytes = serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -1,13 +1,26 @@
 package org.horizon;
 
+import org.horizon.bloom.BloomFilterManager;
 import org.horizon.broadcast.CacheBroadcastMessage;
+import org.horizon.cache.Cache;
+import org.horizon.cache.L2Cache;
+import org.horizon.cache.WriteBehindQueue;
 import org.horizon.caffeine.CacheValue;
+import org.horizon.factory.CacheCategoryConfig;
 import org.horizon.factory.HorizonCacheFactory;
+import org.horizon.hotkey.HotKeyCache;
+import org.horizon.metrics.CategoryMetrics;
 import org.horizon.utils.CacheUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * @author zhaoxun
@@ -19,6 +32,11 @@ public class HorizonCacheHelper {
 
     private static final ConcurrentHashMap<String, HorizonCache> cacheMap = new ConcurrentHashMap<>();
 
+    /**
+     * 正在加载中的缓存key，同一个jvm内同一个key同时只允许一个线程回源加载，其他线程等待加载结果
+     */
+    private static final ConcurrentHashMap<String, CompletableFuture<CacheValue>> loadingMap = new ConcurrentHashMap<>();
+
     /**
      * 获取缓存对象
      *
@@ -40,6 +58,27 @@ public class HorizonCacheHelper {
         });
     }
 
+    /**
+     * 获取缓存对象，同时注册分类配置(L1容量、过期、刷新等)；
+     * 分类配置需要在首次读写该分类之前注册，L1缓存创建后再注册的L1配置不会生效
+     *
+     * @param categoryName 缓存分类名称
+     * @param survivalTime 缓存存活时间，单位毫秒，-1表示永久存活
+     * @param config       分类配置，分类名称为空时使用categoryName
+     * @return 缓存对象
+     */
+    public static HorizonCache getCache(String categoryName, long survivalTime, CacheCategoryConfig config) {
+        if (config != null) {
+            if (config.getCategory() == null || config.getCategory().isEmpty()) {
+                config.setCategory(categoryName);
+            } else if (!config.getCategory().equals(categoryName)) {
+                throw new IllegalArgumentException("category config name " + config.getCategory() + " not match " + categoryName);
+            }
+            HorizonCacheFactory.getInstance().addCategoryConfig(config);
+        }
+        return getCache(categoryName, survivalTime);
+    }
+
     /**
      * 获取缓存对象
      *
@@ -56,6 +95,14 @@ public class HorizonCacheHelper {
          * 缓存存活时间，单位毫秒，-1表示永久存活
          */
         private long survivalTime;
+        /**
+         * 注册的回源加载方法
+         */
+        private volatile Function<String, ?> loader;
+        /**
+         * 分类统计，首次使用时从缓存工厂获取
+         */
+        private volatile CategoryMetrics metrics;
 
         public HorizonCache(String category, long survivalTime) {
             this.category = category;
@@ -67,6 +114,49 @@ public class HorizonCacheHelper {
             this.survivalTime = -1;
         }
 
+        private CategoryMetrics metrics() {
+            CategoryMetrics categoryMetrics = metrics;
+            if (categoryMetrics == null) {
+                categoryMetrics = HorizonCacheFactory.getInstance().getMetrics().category(category);
+                metrics = categoryMetrics;
+            }
+            return categoryMetrics;
+        }
+
+        /**
+         * 注册回源加载方法，注册后get(key)等同于get(key, loader)，
+         * 开启了refreshAfterWrite的分类在L1刷新且L2不存在时也会通过它重新加载
+         *
+         * @param loader 回源加载方法，入参为缓存key，返回null表示数据不存在
+         */
+        public <T> void setLoader(Function<String, T> loader) {
+            this.loader = loader;
+            HorizonCacheFactory.getInstance().registerRefreshLoader(category, key -> refresh(key, loader));
+        }
+
+        /**
+         * L1刷新时回源加载，加载结果写入L2并广播，L1由刷新流程写入
+         *
+         * @param key    缓存key
+         * @param loader 回源加载方法
+         * @return 加载结果，null表示数据不存在
+         */
+        private <T> CacheValue refresh(String key, Function<String, T> loader) {
+            T value = loader.apply(key);
+            if (value == null) {
+                return null;
+            }
+            String finalKey = CacheUtil.generateKey(category, key);
+            CacheValue cacheValue = new CacheValue(value, survivalTime);
+            addBloom(Collections.singletonList(finalKey));
+            if (!offerWriteBehind(key, finalKey, cacheValue)) {
+                HorizonCacheFactory.getInstance().getL2CacheManager().getCache().set(finalKey, cacheValue);
+                HorizonCacheFactory.getInstance().broadcast(category, Collections.singletonMap(key, cacheValue));
+            }
+            log.debug("HorizonCache, refresh load, key:{}, value:{}", finalKey, cacheValue);
+            return cacheValue;
+        }
+
         /**
          * 设置缓存
          *
@@ -79,11 +169,17 @@ public class HorizonCacheHelper {
             //存入L1缓存
             HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, cacheValue);
             log.debug("HorizonCache, set l1-cache, key:{}, value:{}", finalKey, cacheValue);
+            addBloom(Collections.singletonList(finalKey));
+            //开启异步写时交给队列批量写入L2并广播
+            if (offerWriteBehind(key, finalKey, cacheValue)) {
+                log.debug("HorizonCache, write behind l2-cache, key:{}, value:{}", finalKey, cacheValue);
+                return;
+            }
             //存入L2缓存
             HorizonCacheFactory.getInstance().getL2CacheManager().getCache().set(finalKey, cacheValue);
             log.debug("HorizonCache, set l2-cache, key:{}, value:{}", finalKey, cacheValue);
-            //广播,通知其他服务去redis获取最新的值，并更新自己的本地L1缓存
-            HorizonCacheFactory.getInstance().broadcast(new CacheBroadcastMessage(category, key));
+            //广播,通知其他服务更新自己的本地L1缓存，具体方式由广播模式决定
+            HorizonCacheFactory.getInstance().broadcast(category, Collections.singletonMap(key, cacheValue));
         }
 
         /**
@@ -93,10 +189,23 @@ public class HorizonCacheHelper {
          * @return 缓存value
          */
         public <T> T get(String key) {
+            if (loader != null) {
+                return get(key, (Function<String, T>) loader);
+            }
+            long start = System.nanoTime();
+            try {
+                return getWithoutLoader(key);
+            } finally {
+                metrics().getGetLatency().recordSince(start);
+            }
+        }
+
+        private <T> T getWithoutLoader(String key) {
             String finalKey = CacheUtil.generateKey(category, key);
 
             //先看本地L1缓存
             CacheValue l1CacheValue = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).get(finalKey);
+            metrics().recordL1(l1CacheValue != null);
             if (l1CacheValue != null) {
                 //先看下是否还有效
                 if (l1CacheValue.isValid()) {
@@ -106,8 +215,11 @@ public class HorizonCacheHelper {
                 return null;
             }
 
-            //再看远程redis的L2缓存
-            CacheValue l2CacheValue = HorizonCacheFactory.getInstance().getL2CacheManager().getCache().get(finalKey);
+            //再看远程redis的L2缓存，尚未异步写入L2的数据以队列中的为准，布隆过滤器判定一定不存在的key不查询L2
+            CacheValue l2CacheValue = getWriteBehindPending(finalKey);
+            if (l2CacheValue == null) {
+                l2CacheValue = getL2(finalKey);
+            }
             log.debug("HorizonCache, get l2-cache, key:{}, value:{}", finalKey, l2CacheValue);
             if (l2CacheValue != null) {
                 //L2缓存在存入redis的时候已经设置了过期时间，所以这里查出值说明还没到过期时间，故不用像L1缓存一样判断是否还有效
@@ -122,6 +234,243 @@ public class HorizonCacheHelper {
             }
         }
 
+        /**
+         * 获取缓存，L1和L2均未命中时通过loader回源加载，加载结果会写入L1和L2并广播一次
+         * <p>
+         * 同一个jvm内同一个key同时只有一个线程查询L2并执行loader，其他线程等待该线程的加载结果，避免缓存击穿；
+         * L1中只有本方法回源确认数据不存在后写入的空值标记在空值标记过期前视为命中，
+         * 广播刷新、get、getAll写入的空值标记只表示L2未命中，在这里视为未命中，以loader的结果为准
+         *
+         * @param key    缓存key
+         * @param loader 回源加载方法，入参为缓存key，返回null表示数据不存在
+         * @return 缓存value
+         */
+        public <T> T get(String key, Function<String, T> loader) {
+            long start = System.nanoTime();
+            try {
+                return getWithLoader(key, loader);
+            } finally {
+                metrics().getGetLatency().recordSince(start);
+            }
+        }
+
+        private <T> T getWithLoader(String key, Function<String, T> loader) {
+            String finalKey = CacheUtil.generateKey(category, key);
+
+            //先看本地L1缓存
+            CacheValue l1CacheValue = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).get(finalKey);
+            //回源确认不存在的空值标记同样视为命中，在标记过期前不再回源
+            if (isLoaderHit(l1CacheValue)) {
+                metrics().recordL1(true);
+                log.debug("HorizonCache, get l1-cache, key:{}, value:{}", finalKey, l1CacheValue);
+                return (T) l1CacheValue.getValue();
+            }
+            metrics().recordL1(false);
+
+            CompletableFuture<CacheValue> future = new CompletableFuture<>();
+            CompletableFuture<CacheValue> loadingFuture = loadingMap.putIfAbsent(finalKey, future);
+            if (loadingFuture != null) {
+                //已有线程在加载，等待其结果
+                log.debug("HorizonCache, wait loading, key:{}", finalKey);
+                try {
+                    return (T) loadingFuture.join().getValue();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException("HorizonCache load error, key: " + finalKey, e.getCause());
+                }
+            }
+            try {
+                CacheValue cacheValue = load(key, finalKey, loader);
+                future.complete(cacheValue);
+                return (T) cacheValue.getValue();
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                loadingMap.remove(finalKey, future);
+            }
+        }
+
+        /**
+         * 判断L1中的缓存值在get(key, loader)中能否直接返回：未过期的真实数据，或回源确认不存在后写入的空值标记
+         *
+         * @param cacheValue L1中的缓存值
+         * @return true:命中，false:需要回源
+         */
+        private static boolean isLoaderHit(CacheValue cacheValue) {
+            return cacheValue != null && cacheValue.isValid() && (cacheValue.getValue() != null || cacheValue.isAbsent());
+        }
+
+        /**
+         * 回源加载，依次检查L1、L2，都未命中再执行loader
+         *
+         * @param key      缓存key
+         * @param finalKey 最终缓存key
+         * @param loader   回源加载方法
+         * @return 加载结果
+         */
+        private <T> CacheValue load(String key, String finalKey, Function<String, T> loader) {
+            //再次检查L1缓存，上一个加载线程可能刚刚完成
+            CacheValue l1CacheValue = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).get(finalKey);
+            if (isLoaderHit(l1CacheValue)) {
+                return l1CacheValue;
+            }
+
+            //再看远程redis的L2缓存，尚未异步写入L2的数据以队列中的为准，布隆过滤器判定一定不存在的key直接回源
+            CacheValue l2CacheValue = getWriteBehindPending(finalKey);
+            if (l2CacheValue == null) {
+                l2CacheValue = getL2(finalKey);
+            }
+            log.debug("HorizonCache, get l2-cache, key:{}, value:{}", finalKey, l2CacheValue);
+            if (l2CacheValue != null && l2CacheValue.getValue() != null) {
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, l2CacheValue);
+                log.debug("HorizonCache, lazy set l1-cache, key:{}, value:{}", finalKey, l2CacheValue);
+                return l2CacheValue;
+            }
+
+            //开启了分布式租约时，集群内只有抢到租约的节点回源加载
+            CacheCategoryConfig config = HorizonCacheFactory.getInstance().getCategoryConfig(category);
+            if (!config.isLoadLeaseEnabled()) {
+                return loadAndSet(key, finalKey, loader);
+            }
+            L2Cache l2Cache = HorizonCacheFactory.getInstance().getL2CacheManager().getCache();
+            String token = l2Cache.tryAcquireLease(finalKey, config.getLoadLeaseTime());
+            if (token != null) {
+                boolean released = false;
+                try {
+                    //抢到租约后再检查一次L2，上一个租约持有者可能刚刚加载完成
+                    CacheValue leaseCacheValue = HorizonCacheFactory.getInstance().getL2CacheManager().getCache().get(finalKey);
+                    if (leaseCacheValue != null && leaseCacheValue.getValue() != null) {
+                        HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, leaseCacheValue);
+                        return leaseCacheValue;
+                    }
+                    CacheValue cacheValue = loadAndSet(key, finalKey, loader);
+                    if (cacheValue.getValue() == null) {
+                        //数据不存在，租约替换为不存在标记，等待中的节点立即返回，标记有效期内其他节点也不再回源
+                        l2Cache.releaseLeaseAbsent(finalKey, token, getAbsentTime(config));
+                        released = true;
+                    }
+                    return cacheValue;
+                } finally {
+                    if (!released) {
+                        l2Cache.releaseLease(finalKey, token);
+                    }
+                }
+            }
+            //未抢到租约，L1中有已过期的旧值则直接返回旧值，等待持有租约的节点加载完成后通过广播更新
+            if (l1CacheValue != null && l1CacheValue.getValue() != null) {
+                log.debug("HorizonCache, lease held by other node, serve stale l1-cache, key:{}", finalKey);
+                return l1CacheValue;
+            }
+            //否则轮询L2等待加载结果
+            CacheValue leaseCacheValue = waitLeaseLoad(finalKey, config);
+            if (leaseCacheValue != null && leaseCacheValue.getValue() == null) {
+                log.debug("HorizonCache, lease holder load absent, key:{}", finalKey);
+                return setAbsent(finalKey);
+            }
+            if (leaseCacheValue != null) {
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, leaseCacheValue);
+                log.debug("HorizonCache, lease wait set l1-cache, key:{}, value:{}", finalKey, leaseCacheValue);
+                return leaseCacheValue;
+            }
+            //等待超时，自行回源加载
+            log.debug("HorizonCache, lease wait timeout, load by self, key:{}", finalKey);
+            return loadAndSet(key, finalKey, loader);
+        }
+
+        /**
+         * 轮询L2等待持有租约的节点加载完成
+         *
+         * @param finalKey 最终缓存key
+         * @param config   缓存分类配置
+         * @return 加载结果，租约持有者确认数据不存在时返回value为null的CacheValue，超时返回null
+         */
+        private CacheValue waitLeaseLoad(String finalKey, CacheCategoryConfig config) {
+            L2Cache l2Cache = HorizonCacheFactory.getInstance().getL2CacheManager().getCache();
+            long deadline = System.currentTimeMillis() + config.getLoadLeaseWaitTime();
+            while (true) {
+                if (l2Cache.isLeaseAbsent(finalKey)) {
+                    return new CacheValue(null);
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    return null;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(config.getLoadLeasePollInterval());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                CacheValue l2CacheValue = l2Cache.get(finalKey);
+                if (l2CacheValue != null && l2CacheValue.getValue() != null) {
+                    return l2CacheValue;
+                }
+            }
+        }
+
+        /**
+         * 租约不存在标记的有效期，单位毫秒：与空值标记过期时间一致，未开启空值标记时只覆盖当前等待的节点
+         */
+        private long getAbsentTime(CacheCategoryConfig config) {
+            long negativeTtl = HorizonCacheFactory.getInstance().getL1CacheManager().getNegativeTtl(category);
+            return negativeTtl > 0 ? negativeTtl * 1000 : config.getLoadLeaseWaitTime();
+        }
+
+        /**
+         * 回源确认数据不存在时在L1设置空值标记，标记的有效期与空值标记过期时间一致，未开启空值标记(过期时间小于等于0)时不写入；
+         * 标记带有absent标识，与L2未命中时写入的空值标记区分
+         *
+         * @param finalKey 最终缓存key
+         * @return 空值标记
+         */
+        private CacheValue setAbsent(String finalKey) {
+            long negativeTtl = HorizonCacheFactory.getInstance().getL1CacheManager().getNegativeTtl(category);
+            CacheValue nullCacheValue = new CacheValue(null, Math.max(negativeTtl, 0) * 1000);
+            nullCacheValue.setAbsent(true);
+            if (negativeTtl > 0) {
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, nullCacheValue);
+            }
+            return nullCacheValue;
+        }
+
+        /**
+         * 执行loader回源加载，并写入L1、L2后广播
+         *
+         * @param key      缓存key
+         * @param finalKey 最终缓存key
+         * @param loader   回源加载方法
+         * @return 加载结果
+         */
+        private <T> CacheValue loadAndSet(String key, String finalKey, Function<String, T> loader) {
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = loader.apply(key);
+            } catch (RuntimeException e) {
+                metrics().recordLoad(start, true);
+                throw e;
+            }
+            metrics().recordLoad(start, false);
+            log.debug("HorizonCache, load value, key:{}, value:{}", finalKey, value);
+            if (value == null) {
+                //数据不存在，只在L1设置空值标记防穿透，不写L2也不广播
+                return setAbsent(finalKey);
+            }
+            CacheValue cacheValue = new CacheValue(value, survivalTime);
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, cacheValue);
+            addBloom(Collections.singletonList(finalKey));
+            if (offerWriteBehind(key, finalKey, cacheValue)) {
+                log.debug("HorizonCache, load set l1-cache and write behind l2-cache, key:{}, value:{}", finalKey, cacheValue);
+                return cacheValue;
+            }
+            HorizonCacheFactory.getInstance().getL2CacheManager().getCache().set(finalKey, cacheValue);
+            log.debug("HorizonCache, load set l1-cache and l2-cache, key:{}, value:{}", finalKey, cacheValue);
+            HorizonCacheFactory.getInstance().broadcast(category, Collections.singletonMap(key, cacheValue));
+            return cacheValue;
+        }
+
         /**
          * 删除缓存
          *
@@ -134,6 +483,12 @@ public class HorizonCacheHelper {
             HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).delete(finalKey);
             log.debug("HorizonCache, delete l1-cache, key:{}", finalKey);
 
+            //开启异步写时交给队列批量删除L2并广播
+            if (offerWriteBehind(key, finalKey, null)) {
+                log.debug("HorizonCache, write behind delete l2-cache, key:{}", finalKey);
+                return;
+            }
+
             //删除L2缓存
             HorizonCacheFactory.getInstance().getL2CacheManager().getCache().delete(finalKey);
             log.debug("HorizonCache, delete l2-cache, key:{}", finalKey);
@@ -142,6 +497,337 @@ public class HorizonCacheHelper {
             HorizonCacheFactory.getInstance().broadcast(new CacheBroadcastMessage(category, key));
         }
 
+        /**
+         * 批量设置缓存，L2通过pipeline一次提交，并只发送一条广播
+         *
+         * @param values 缓存key和缓存value
+         */
+        public void setAll(Map<String, ?> values) {
+            if (values == null || values.isEmpty()) {
+                return;
+            }
+            Map<String, CacheValue> cacheValues = new HashMap<>(values.size());
+            Map<String, CacheValue> broadcastValues = new HashMap<>(values.size());
+            for (Map.Entry<String, ?> entry : values.entrySet()) {
+                CacheValue cacheValue = new CacheValue(entry.getValue(), survivalTime);
+                cacheValues.put(CacheUtil.generateKey(category, entry.getKey()), cacheValue);
+                broadcastValues.put(entry.getKey(), cacheValue);
+            }
+            //存入L1缓存
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).setAll(cacheValues);
+            log.debug("HorizonCache, set all l1-cache, keys:{}", cacheValues.keySet());
+            addBloom(cacheValues.keySet());
+            //开启异步写时交给队列批量写入L2并广播，队列放不下的部分同步写入
+            if (isWriteBehind()) {
+                Iterator<Map.Entry<String, CacheValue>> iterator = broadcastValues.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, CacheValue> entry = iterator.next();
+                    String finalKey = CacheUtil.generateKey(category, entry.getKey());
+                    if (offerWriteBehind(entry.getKey(), finalKey, entry.getValue())) {
+                        cacheValues.remove(finalKey);
+                        iterator.remove();
+                    }
+                }
+                if (cacheValues.isEmpty()) {
+                    return;
+                }
+            }
+            //存入L2缓存
+            HorizonCacheFactory.getInstance().getL2CacheManager().getCache().setAll(cacheValues);
+            log.debug("HorizonCache, set all l2-cache, keys:{}", cacheValues.keySet());
+            //广播,一条消息携带全部key
+            HorizonCacheFactory.getInstance().broadcast(category, broadcastValues);
+        }
+
+        /**
+         * 批量获取缓存，L1通过getAllPresent一次获取，未命中的key再通过一次L2批量请求获取
+         *
+         * @param keys 缓存key集合
+         * @return 命中的缓存key和缓存value，value为null的key不返回
+         */
+        public <T> Map<String, T> getAll(Collection<String> keys) {
+            Map<String, T> result = new HashMap<>();
+            if (keys == null || keys.isEmpty()) {
+                return result;
+            }
+            Map<String, String> finalKeyMap = new LinkedHashMap<>(keys.size());
+            for (String key : keys) {
+                finalKeyMap.put(CacheUtil.generateKey(category, key), key);
+            }
+
+            //先看本地L1缓存
+            Map<String, CacheValue> l1CacheValues = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).getAll(finalKeyMap.keySet());
+            List<String> missKeys = new ArrayList<>();
+            for (Map.Entry<String, String> entry : finalKeyMap.entrySet()) {
+                CacheValue l1CacheValue = l1CacheValues.get(entry.getKey());
+                if (l1CacheValue == null) {
+                    missKeys.add(entry.getKey());
+                } else if (l1CacheValue.isValid() && l1CacheValue.getValue() != null) {
+                    result.put(entry.getValue(), (T) l1CacheValue.getValue());
+                }
+            }
+            metrics().recordL1(finalKeyMap.size() - missKeys.size(), missKeys.size());
+            log.debug("HorizonCache, get all l1-cache, hit:{}, miss:{}", finalKeyMap.size() - missKeys.size(), missKeys.size());
+            if (missKeys.isEmpty()) {
+                return result;
+            }
+            List<String> l1MissKeys = new ArrayList<>(missKeys);
+
+            //再看远程redis的L2缓存，只查询L1未命中的key，尚未异步写入L2的数据以队列中的为准
+            Map<String, CacheValue> l2CacheValues = new HashMap<>();
+            if (isWriteBehind()) {
+                Iterator<String> iterator = missKeys.iterator();
+                while (iterator.hasNext()) {
+                    String finalKey = iterator.next();
+                    CacheValue pendingValue = getWriteBehindPending(finalKey);
+                    if (pendingValue != null) {
+                        l2CacheValues.put(finalKey, pendingValue);
+                        iterator.remove();
+                    }
+                }
+            }
+            //布隆过滤器判定一定不存在的key不查询L2
+            int queryCount = missKeys.size();
+            missKeys.removeIf(finalKey -> !mightContain(finalKey));
+            metrics().recordL2Skip(queryCount - missKeys.size());
+            if (!missKeys.isEmpty()) {
+                l2CacheValues.putAll(HorizonCacheFactory.getInstance().getL2CacheManager().getCache().getAll(missKeys));
+            }
+            log.debug("HorizonCache, get all l2-cache, keys:{}, hit:{}", missKeys, l2CacheValues.size());
+            Map<String, CacheValue> lazyCacheValues = new HashMap<>(l1MissKeys.size());
+            for (String finalKey : l1MissKeys) {
+                CacheValue l2CacheValue = l2CacheValues.get(finalKey);
+                if (l2CacheValue != null) {
+                    lazyCacheValues.put(finalKey, l2CacheValue);
+                    if (l2CacheValue.getValue() != null) {
+                        result.put(finalKeyMap.get(finalKey), (T) l2CacheValue.getValue());
+                    }
+                } else {
+                    lazyCacheValues.put(finalKey, new CacheValue(null));
+                }
+            }
+            metrics().recordL2(l2CacheValues.size(), l1MissKeys.size() - l2CacheValues.size() - (queryCount - missKeys.size()));
+            //返回值前先给L1缓存赋值
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).setAll(lazyCacheValues);
+            log.debug("HorizonCache, lazy set all l1-cache, keys:{}", lazyCacheValues.keySet());
+            return result;
+        }
+
+        /**
+         * 批量删除缓存，L2一次请求删除，并只发送一条广播
+         *
+         * @param keys 缓存key集合
+         */
+        public void deleteAll(Collection<String> keys) {
+            if (keys == null || keys.isEmpty()) {
+                return;
+            }
+            List<String> finalKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                finalKeys.add(CacheUtil.generateKey(category, key));
+            }
+
+            //删除L1缓存
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).deleteAll(finalKeys);
+            log.debug("HorizonCache, delete all l1-cache, keys:{}", finalKeys);
+
+            //开启异步写时交给队列批量删除L2并广播，队列放不下的部分同步删除
+            if (isWriteBehind()) {
+                List<String> syncKeys = new ArrayList<>();
+                finalKeys.clear();
+                for (String key : keys) {
+                    String finalKey = CacheUtil.generateKey(category, key);
+                    if (!offerWriteBehind(key, finalKey, null)) {
+                        syncKeys.add(key);
+                        finalKeys.add(finalKey);
+                    }
+                }
+                if (syncKeys.isEmpty()) {
+                    return;
+                }
+                keys = syncKeys;
+            }
+
+            //删除L2缓存
+            HorizonCacheFactory.getInstance().getL2CacheManager().getCache().deleteAll(finalKeys);
+            log.debug("HorizonCache, delete all l2-cache, keys:{}", finalKeys);
+
+            //广播,一条消息携带全部key
+            HorizonCacheFactory.getInstance().broadcast(new CacheBroadcastMessage(category, keys));
+        }
+
+        /**
+         * 异步获取缓存，L1命中时直接返回已完成的结果，否则在异步线程池中读取L2
+         *
+         * @param key 缓存key
+         * @return 缓存value
+         */
+        public <T> CompletableFuture<T> getAsync(String key) {
+            String finalKey = CacheUtil.generateKey(category, key);
+
+            //先看本地L1缓存
+            CacheValue l1CacheValue = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).get(finalKey);
+            metrics().recordL1(l1CacheValue != null);
+            if (l1CacheValue != null) {
+                log.debug("HorizonCache, get async l1-cache, key:{}, value:{}", finalKey, l1CacheValue);
+                return CompletableFuture.completedFuture(l1CacheValue.isValid() ? (T) l1CacheValue.getValue() : null);
+            }
+
+            //尚未异步写入L2的数据以队列中的为准
+            CacheValue pendingValue = getWriteBehindPending(finalKey);
+            if (pendingValue != null) {
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, pendingValue);
+                log.debug("HorizonCache, get async write behind pending, key:{}, value:{}", finalKey, pendingValue);
+                return CompletableFuture.completedFuture((T) pendingValue.getValue());
+            }
+
+            //布隆过滤器判定一定不存在的key不查询L2
+            if (!mightContain(finalKey)) {
+                metrics().recordL2Skip(1);
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, new CacheValue(null));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            //再看远程redis的L2缓存
+            Executor executor = HorizonCacheFactory.getInstance().getAsyncExecutor();
+            return HorizonCacheFactory.getInstance().getL2CacheManager().getCache().getAsync(finalKey, executor).thenApply(l2CacheValue -> {
+                metrics().recordL2(l2CacheValue != null);
+                log.debug("HorizonCache, get async l2-cache, key:{}, value:{}", finalKey, l2CacheValue);
+                CacheValue cacheValue = l2CacheValue != null ? l2CacheValue : new CacheValue(null);
+                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, cacheValue);
+                return (T) cacheValue.getValue();
+            });
+        }
+
+        /**
+         * 异步设置缓存，L1同步写入，L2在异步线程池中写入，写入完成后广播
+         *
+         * @param key   缓存key
+         * @param value 缓存value
+         * @return 设置结果
+         */
+        public CompletableFuture<Void> setAsync(String key, Object value) {
+            String finalKey = CacheUtil.generateKey(category, key);
+            CacheValue cacheValue = new CacheValue(value, survivalTime);
+            //存入L1缓存
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).set(finalKey, cacheValue);
+            log.debug("HorizonCache, set async l1-cache, key:{}, value:{}", finalKey, cacheValue);
+            //开启异步写时交给队列批量写入L2并广播
+            if (offerWriteBehind(key, finalKey, cacheValue)) {
+                addBloom(Collections.singletonList(finalKey));
+                log.debug("HorizonCache, set async write behind l2-cache, key:{}, value:{}", finalKey, cacheValue);
+                return CompletableFuture.completedFuture(null);
+            }
+            //存入L2缓存后广播
+            Executor executor = HorizonCacheFactory.getInstance().getAsyncExecutor();
+            return HorizonCacheFactory.getInstance().getL2CacheManager().getCache().setAsync(finalKey, cacheValue, executor).thenRun(() -> {
+                log.debug("HorizonCache, set async l2-cache, key:{}, value:{}", finalKey, cacheValue);
+                addBloom(Collections.singletonList(finalKey));
+                HorizonCacheFactory.getInstance().broadcast(category, Collections.singletonMap(key, cacheValue));
+            });
+        }
+
+        /**
+         * 异步删除缓存，L1同步删除，L2在异步线程池中删除，删除完成后广播
+         *
+         * @param key 缓存key
+         * @return 删除结果
+         */
+        public CompletableFuture<Void> deleteAsync(String key) {
+            String finalKey = CacheUtil.generateKey(category, key);
+            //删除L1缓存
+            HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).delete(finalKey);
+            log.debug("HorizonCache, delete async l1-cache, key:{}", finalKey);
+            //开启异步写时交给队列批量删除L2并广播
+            if (offerWriteBehind(key, finalKey, null)) {
+                log.debug("HorizonCache, delete async write behind l2-cache, key:{}", finalKey);
+                return CompletableFuture.completedFuture(null);
+            }
+            //删除L2缓存后广播
+            Executor executor = HorizonCacheFactory.getInstance().getAsyncExecutor();
+            return HorizonCacheFactory.getInstance().getL2CacheManager().getCache().deleteAsync(finalKey, executor).thenRun(() -> {
+                log.debug("HorizonCache, delete async l2-cache, key:{}", finalKey);
+                HorizonCacheFactory.getInstance().broadcast(new CacheBroadcastMessage(category, key));
+            });
+        }
+
+        /**
+         * 当前分类是否开启了L2异步写
+         */
+        private boolean isWriteBehind() {
+            return HorizonCacheFactory.getInstance().getCategoryConfig(category).isWriteBehind();
+        }
+
+        /**
+         * 开启异步写时把L2写入交给队列
+         *
+         * @param key        业务key
+         * @param finalKey   最终缓存key
+         * @param cacheValue 缓存值，null表示删除
+         * @return true:已交给队列，false:未开启异步写或队列已满，需要同步写入
+         */
+        private boolean offerWriteBehind(String key, String finalKey, CacheValue cacheValue) {
+            if (!isWriteBehind()) {
+                return false;
+            }
+            WriteBehindQueue writeBehindQueue = HorizonCacheFactory.getInstance().getWriteBehindQueue();
+            return writeBehindQueue != null && writeBehindQueue.offer(category, key, finalKey, cacheValue);
+        }
+
+        /**
+         * 读取L2并记录命中情况，布隆过滤器判定一定不存在的key不查询L2
+         *
+         * @param finalKey 最终缓存key
+         * @return L2中的缓存值，不存在返回null
+         */
+        private CacheValue getL2(String finalKey) {
+            if (!mightContain(finalKey)) {
+                metrics().recordL2Skip(1);
+                return null;
+            }
+            CacheValue l2CacheValue = HorizonCacheFactory.getInstance().getL2CacheManager().getCache().get(finalKey);
+            metrics().recordL2(l2CacheValue != null);
+            return l2CacheValue;
+        }
+
+        /**
+         * 布隆过滤器判断key是否可能存在于L2，分类未开启布隆过滤器时总是返回true
+         *
+         * @param finalKey 最终缓存key
+         * @return false表示L2中一定不存在
+         */
+        private boolean mightContain(String finalKey) {
+            BloomFilterManager bloomFilterManager = HorizonCacheFactory.getInstance().getBloomFilterManager();
+            return bloomFilterManager == null || bloomFilterManager.mightContain(category, finalKey);
+        }
+
+        /**
+         * 写入的key加入布隆过滤器，分类未开启时不做处理
+         *
+         * @param finalKeys 最终缓存key
+         */
+        private void addBloom(Collection<String> finalKeys) {
+            BloomFilterManager bloomFilterManager = HorizonCacheFactory.getInstance().getBloomFilterManager();
+            if (bloomFilterManager != null) {
+                bloomFilterManager.add(category, finalKeys);
+            }
+        }
+
+        /**
+         * 获取尚未异步写入L2的数据
+         *
+         * @param finalKey 最终缓存key
+         * @return 等待写入的缓存值，等待删除时返回空值，不存在返回null
+         */
+        private CacheValue getWriteBehindPending(String finalKey) {
+            WriteBehindQueue writeBehindQueue = HorizonCacheFactory.getInstance().getWriteBehindQueue();
+            WriteBehindQueue.PendingWrite pendingWrite = writeBehindQueue != null ? writeBehindQueue.getPending(finalKey) : null;
+            if (pendingWrite == null) {
+                return null;
+            }
+            return pendingWrite.getCacheValue() != null ? pendingWrite.getCacheValue() : new CacheValue(null);
+        }
+
         /**
          * 判断缓存是否存在
          *
@@ -159,5 +845,21 @@ public class HorizonCacheHelper {
             exists = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category).exists(finalKey);
             return exists;
         }
+
+        /**
+         * 获取当前类别的热点key，需要在类别配置中开启热点key探测
+         *
+         * @return 按估算访问频率从高到低排列的缓存key和频率，未开启探测时返回空
+         */
+        public LinkedHashMap<String, Integer> getHotKeys() {
+            LinkedHashMap<String, Integer> hotKeys = new LinkedHashMap<>();
+            Cache cache = HorizonCacheFactory.getInstance().getL1CacheManager().getCache(category);
+            if (cache instanceof HotKeyCache) {
+                for (Map.Entry<String, Integer> entry : ((HotKeyCache) cache).getHotKeys().entrySet()) {
+                    hotKeys.put(CacheUtil.parseKey(category, entry.getKey()), entry.getValue());
+                }
+            }
+            return hotKeys;
+        }
     }
 }
@@ -0,0 +1,123 @@
+package org.horizon.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 单个分类的本地布隆过滤器，位的编号与redis bitmap的offset一致，可以直接合并从redis读取的bitmap；
+ * 位数和哈希次数只由预期条目数和误判率决定，所有节点的配置必须一致
+ */
+public class BloomFilter {
+
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLongArray words;
+
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        //按64位对齐，redis bitmap最大512MB
+        this.numBits = Math.min(Math.max((bits + 63) / 64 * 64, 64), 512L * 1024 * 1024 * 8);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.words = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * 计算key对应的所有位编号，使用两个64位哈希组合出numHashes个哈希
+     *
+     * @param key 缓存key
+     * @return 位编号
+     */
+    public long[] offsets(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash1 = hash(bytes, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(bytes, 0xC2B2AE3D27D4EB4FL) | 1;
+        long[] offsets = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            offsets[i] = ((hash1 + i * hash2) & Long.MAX_VALUE) % numBits;
+        }
+        return offsets;
+    }
+
+    /**
+     * 设置位
+     *
+     * @param offsets 位编号
+     */
+    public void put(long[] offsets) {
+        for (long offset : offsets) {
+            int index = (int) (offset >>> 6);
+            long mask = 1L << (offset & 63);
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    /**
+     * 判断key是否可能存在，返回false表示一定不存在
+     *
+     * @param key 缓存key
+     * @return 是否可能存在
+     */
+    public boolean mightContain(String key) {
+        for (long offset : offsets(key)) {
+            if ((words.get((int) (offset >>> 6)) & (1L << (offset & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 合并redis bitmap，redis中每个字节的最高位是offset较小的位
+     *
+     * @param bitmap redis bitmap
+     */
+    public void merge(byte[] bitmap) {
+        int length = (int) Math.min(bitmap.length, numBits / 8);
+        for (int i = 0; i < length; i += 8) {
+            long mask = 0;
+            for (int j = 0; j < 8 && i + j < length; j++) {
+                int b = bitmap[i + j] & 0xFF;
+                if (b != 0) {
+                    mask |= (long) (Integer.reverse(b) >>> 24) << (j * 8);
+                }
+            }
+            if (mask != 0) {
+                int index = i / 8;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word | mask) != word && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+    }
+
+    private static long hash(byte[] bytes, long seed) {
+        long hash = seed ^ bytes.length;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,236 @@
+package org.horizon.bloom;
+
+import org.horizon.cache.L2Cache;
+import org.horizon.factory.CacheCategoryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 分类布隆过滤器管理，集群共享的过滤器以bitmap存放在redis，各节点在本地保存一份副本：
+ * 写入缓存时同时设置本地和redis的位，其他节点通过广播和定期同步合并redis bitmap获得新的位；
+ * 分类首次开启时redis中没有完整的bitmap，由一个节点通过SCAN遍历L2重建，重建完成前过滤器不生效
+ */
+public class BloomFilterManager {
+    private static final Logger log = LoggerFactory.getLogger(BloomFilterManager.class);
+
+    private static final String KEY_PREFIX = "horizon-bloom:";
+    //重建完成标记key后缀
+    private static final String READY_SUFFIX = ":ready";
+    private static final byte[] READY_VALUE = "1".getBytes(StandardCharsets.UTF_8);
+    //重建时每次SCAN的数量
+    private static final int SCAN_COUNT = 1000;
+
+    private final L2Cache l2Cache;
+    private final Map<String, CacheCategoryConfig> categoryConfigs;
+    //默认预期条目数
+    private final long expectedInsertions;
+    //默认误判率
+    private final double fpp;
+    //同步redis bitmap的间隔，单位秒
+    private final long syncInterval;
+    //重建租约时长，单位毫秒，重建节点宕机后其他节点可以重新重建
+    private final long rebuildLeaseTime;
+
+    private final ConcurrentHashMap<String, Filter> filters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public BloomFilterManager(L2Cache l2Cache, Map<String, CacheCategoryConfig> categoryConfigs, long expectedInsertions,
+                              double fpp, long syncInterval, long rebuildLeaseTime) {
+        this.l2Cache = l2Cache;
+        this.categoryConfigs = categoryConfigs;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.syncInterval = syncInterval;
+        this.rebuildLeaseTime = rebuildLeaseTime;
+    }
+
+    /**
+     * 启动定期同步线程
+     */
+    public void start() {
+        for (CacheCategoryConfig config : categoryConfigs.values()) {
+            if (config.isBloomFilter()) {
+                getFilter(config.getCategory());
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bloomFilterSyncThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncAll, 0, syncInterval, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取分类的过滤器，分类未开启布隆过滤器时返回null
+     */
+    private Filter getFilter(String category) {
+        Filter filter = filters.get(category);
+        if (filter != null) {
+            return filter;
+        }
+        CacheCategoryConfig config = categoryConfigs.get(category);
+        if (config == null || !config.isBloomFilter()) {
+            return null;
+        }
+        long insertions = config.getBloomExpectedInsertions() > 0 ? config.getBloomExpectedInsertions() : expectedInsertions;
+        double categoryFpp = config.getBloomFpp() > 0 ? config.getBloomFpp() : fpp;
+        return filters.computeIfAbsent(category, k -> new Filter(KEY_PREFIX + category, new BloomFilter(insertions, categoryFpp)));
+    }
+
+    /**
+     * 判断key是否可能存在，分类未开启或过滤器尚未完成重建时总是返回true
+     *
+     * @param category 分类
+     * @param finalKey 最终缓存key
+     * @return false表示L2中一定不存在
+     */
+    public boolean mightContain(String category, String finalKey) {
+        Filter filter = getFilter(category);
+        return filter == null || !filter.ready || filter.bloomFilter.mightContain(finalKey);
+    }
+
+    /**
+     * 写入缓存时调用，设置本地和redis的位
+     *
+     * @param category  分类
+     * @param finalKeys 最终缓存key
+     */
+    public void add(String category, Collection<String> finalKeys) {
+        Filter filter = getFilter(category);
+        if (filter == null || finalKeys.isEmpty()) {
+            return;
+        }
+        try {
+            l2Cache.setBits(filter.redisKey, putLocal(filter, finalKeys));
+        } catch (Exception e) {
+            log.error("BloomFilterManager add error, category:{}, error:{}", category, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 设置本地的位
+     *
+     * @return 所有key对应的位编号，用于设置redis的位
+     */
+    private long[] putLocal(Filter filter, Collection<String> finalKeys) {
+        long[] offsets = new long[finalKeys.size() * filter.bloomFilter.getNumHashes()];
+        int i = 0;
+        for (String finalKey : finalKeys) {
+            long[] keyOffsets = filter.bloomFilter.offsets(finalKey);
+            filter.bloomFilter.put(keyOffsets);
+            System.arraycopy(keyOffsets, 0, offsets, i, keyOffsets.length);
+            i += keyOffsets.length;
+        }
+        return offsets;
+    }
+
+    /**
+     * 收到其他节点的广播时调用，只设置本地的位，redis的位已由写入节点设置
+     *
+     * @param category  分类
+     * @param finalKeys 最终缓存key
+     */
+    public void addLocal(String category, Collection<String> finalKeys) {
+        Filter filter = getFilter(category);
+        if (filter == null) {
+            return;
+        }
+        for (String finalKey : finalKeys) {
+            filter.bloomFilter.put(filter.bloomFilter.offsets(finalKey));
+        }
+    }
+
+    private void syncAll() {
+        for (Map.Entry<String, Filter> entry : filters.entrySet()) {
+            try {
+                sync(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.error("BloomFilterManager sync error, category:{}, error:{}", entry.getKey(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 合并redis bitmap到本地；redis中没有重建完成标记时尝试抢占租约重建
+     */
+    private void sync(String category, Filter filter) {
+        if (l2Cache.getBytes(filter.redisKey + READY_SUFFIX) == null) {
+            String token = l2Cache.tryAcquireLease(filter.redisKey, rebuildLeaseTime);
+            if (token == null) {
+                log.debug("BloomFilterManager rebuild held by other node, category:{}", category);
+                return;
+            }
+            try {
+                rebuild(category, filter);
+            } finally {
+                l2Cache.releaseLease(filter.redisKey, token);
+            }
+        }
+        byte[] bitmap = l2Cache.getBytes(filter.redisKey);
+        if (bitmap != null) {
+            filter.bloomFilter.merge(bitmap);
+        }
+        if (!filter.ready) {
+            filter.ready = true;
+            log.info("BloomFilterManager filter ready, category:{}, bits:{}, hashes:{}", category,
+                    filter.bloomFilter.getNumBits(), filter.bloomFilter.getNumHashes());
+        }
+    }
+
+    /**
+     * 通过SCAN遍历分类在L2中的所有key重建redis bitmap，只会增加位，已删除key的位保留(只影响误判率)
+     *
+     * @param category 分类
+     */
+    public void rebuild(String category) {
+        Filter filter = getFilter(category);
+        if (filter == null) {
+            throw new RuntimeException("bloom filter not enabled for category: " + category);
+        }
+        rebuild(category, filter);
+    }
+
+    private void rebuild(String category, Filter filter) {
+        long start = System.currentTimeMillis();
+        long[] count = new long[1];
+        //遍历或设置位失败时直接抛出异常，不设置重建完成标记，下次同步时重新重建
+        l2Cache.scan(category + ":*", SCAN_COUNT, keys -> {
+            l2Cache.setBits(filter.redisKey, putLocal(filter, keys));
+            count[0] += keys.size();
+        });
+        l2Cache.setBytes(filter.redisKey + READY_SUFFIX, READY_VALUE);
+        log.info("BloomFilterManager rebuild finished, category:{}, keys:{}, cost:{}ms", category, count[0],
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 单个分类的过滤器
+     */
+    private static class Filter {
+        private final String redisKey;
+        private final BloomFilter bloomFilter;
+        //redis bitmap已完成重建并合并到本地后才生效
+        private volatile boolean ready;
+
+        Filter(String redisKey, BloomFilter bloomFilter) {
+            this.redisKey = redisKey;
+            this.bloomFilter = bloomFilter;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.horizon.broadcast;
+
+import org.horizon.metrics.CacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播消息异步分发器，订阅线程只负责解码后投递，消息按key拆分后根据key的hash分配到固定的工作线程处理，
+ * 保证同一个key的更新有序；队列中尚未处理的同一个key只保留最新的一条，队列满时阻塞订阅线程形成背压
+ */
+public class BroadcastDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(BroadcastDispatcher.class);
+
+    //实际处理消息的方法
+    private final Consumer<CacheBroadcastMessage> handler;
+    private final Stripe[] stripes;
+    private volatile boolean running = true;
+
+    //分发统计，与缓存工厂的统计共用，通过JMX导出
+    private final CacheMetrics metrics;
+
+    public BroadcastDispatcher(Consumer<CacheBroadcastMessage> handler, int threads, int queueCapacity) {
+        this(handler, threads, queueCapacity, new CacheMetrics());
+    }
+
+    public BroadcastDispatcher(Consumer<CacheBroadcastMessage> handler, int threads, int queueCapacity, CacheMetrics metrics) {
+        this.handler = handler;
+        this.metrics = metrics;
+        this.stripes = new Stripe[threads > 0 ? threads : 4];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i, queueCapacity > 0 ? queueCapacity : 10000);
+        }
+    }
+
+    /**
+     * 启动工作线程
+     */
+    public void start() {
+        metrics.setBroadcastQueueSize(this::getQueueSize);
+        for (Stripe stripe : stripes) {
+            stripe.thread.start();
+        }
+    }
+
+    /**
+     * 停止工作线程，工作线程处理完队列中剩余的消息后退出；调用前应先停止订阅，不再投递新消息
+     */
+    public void stop() {
+        running = false;
+        for (Stripe stripe : stripes) {
+            stripe.wakeUp();
+        }
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.thread.join(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 投递广播消息，按key拆分到对应的工作线程
+     *
+     * @param message 广播消息
+     */
+    public void dispatch(CacheBroadcastMessage message) {
+        List<String> keys = message.allKeys();
+        List<byte[]> values = message.getValues();
+        for (int i = 0; i < keys.size(); i++) {
+            Task task = new Task(message, keys.get(i), values != null && i < values.size() ? values.get(i) : null);
+            stripes[(task.id.hashCode() & 0x7fffffff) % stripes.length].offer(task);
+        }
+    }
+
+    /**
+     * 当前所有队列中等待处理的key数
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public long getEnqueuedCount() {
+        return metrics.getBroadcastEnqueued();
+    }
+
+    public long getCollapsedCount() {
+        return metrics.getBroadcastCollapsed();
+    }
+
+    public long getProcessedCount() {
+        return metrics.getBroadcastProcessed();
+    }
+
+    public long getBlockedCount() {
+        return metrics.getBroadcastBlocked();
+    }
+
+    public long getBlockedNanos() {
+        return metrics.getBroadcastBlockedNanos();
+    }
+
+    /**
+     * 单个工作线程及其队列
+     */
+    private class Stripe implements Runnable {
+        private final int capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final Thread thread;
+        //等待处理的消息，key为分类和业务key
+        private LinkedHashMap<String, Task> pending = new LinkedHashMap<>();
+
+        Stripe(int index, int capacity) {
+            this.capacity = capacity;
+            this.thread = new Thread(this, "broadcastWorkerThread-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void offer(Task task) {
+            lock.lock();
+            try {
+                if (pending.containsKey(task.id)) {
+                    //队列中已有该key，只保留最新一条并移动到队尾
+                    pending.remove(task.id);
+                    pending.put(task.id, task);
+                    metrics.recordBroadcastCollapsed();
+                    return;
+                }
+                if (pending.size() >= capacity) {
+                    long start = System.nanoTime();
+                    while (pending.size() >= capacity && running) {
+                        try {
+                            notFull.await(100, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                    metrics.recordBroadcastBlocked(System.nanoTime() - start);
+                }
+                pending.put(task.id, task);
+                metrics.recordBroadcastEnqueued();
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 唤醒等待中的工作线程和订阅线程
+         */
+        void wakeUp() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Collection<Task> tasks;
+                lock.lock();
+                try {
+                    while (pending.isEmpty() && running) {
+                        notEmpty.await();
+                    }
+                    if (pending.isEmpty()) {
+                        //已停止且队列已处理完
+                        break;
+                    }
+                    tasks = pending.values();
+                    pending = new LinkedHashMap<>();
+                    notFull.signalAll();
+                } catch (InterruptedException e) {
+                    continue;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    handle(tasks);
+                } catch (Exception e) {
+                    log.error("broadcast worker handle error:{}", e.getMessage(), e);
+                }
+                metrics.recordBroadcastProcessed(tasks.size());
+            }
+        }
+
+        /**
+         * 把同一分类、同一广播模式的key合并为一条消息处理，refetch模式下只需一次批量读取
+         */
+        private void handle(Collection<Task> tasks) {
+            Map<String, List<Task>> groups = new LinkedHashMap<>();
+            for (Task task : tasks) {
+                String group = task.mode + ":" + task.category;
+                List<Task> groupTasks = groups.get(group);
+                if (groupTasks == null) {
+                    groupTasks = new ArrayList<>();
+                    groups.put(group, groupTasks);
+                }
+                groupTasks.add(task);
+            }
+            for (List<Task> groupTasks : groups.values()) {
+                List<String> keys = new ArrayList<>(groupTasks.size());
+                List<byte[]> values = null;
+                for (Task task : groupTasks) {
+                    keys.add(task.key);
+                    if (task.value != null && values == null) {
+                        values = new ArrayList<>(groupTasks.size());
+                    }
+                }
+                if (values != null) {
+                    for (Task task : groupTasks) {
+                        values.add(task.value);
+                    }
+                }
+                Task first = groupTasks.get(0);
+                CacheBroadcastMessage message = new CacheBroadcastMessage(first.category, keys);
+                message.setNodeId(first.nodeId);
+                message.setMode(first.mode);
+                message.setValues(values);
+                //单个分组处理失败不影响同一批次中的其他分组
+                try {
+                    handler.accept(message);
+                } catch (Exception e) {
+                    log.error("broadcast worker handle error, category:{}, mode:{}, keys:{}, error:{}",
+                            first.category, first.mode, keys.size(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个key的处理任务
+     */
+    private static class Task {
+        private final String id;
+        private final String nodeId;
+        private final String mode;
+        private final String category;
+        private final String key;
+        private final byte[] value;
+
+        Task(CacheBroadcastMessage message, String key, byte[] value) {
+            this.id = message.getCategory() + ":" + key;
+            this.nodeId = message.getNodeId();
+            this.mode = message.getMode();
+            this.category = message.getCategory();
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
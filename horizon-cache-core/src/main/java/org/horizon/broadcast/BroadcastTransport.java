@@ -0,0 +1,49 @@
+package org.horizon.broadcast;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播传输，负责发送和订阅编码后的广播消息，由L2缓存管理器提供：
+ * redis通过pub/sub在节点间传输，memory在同一个jvm内直接投递
+ */
+public interface BroadcastTransport {
+
+    /**
+     * 发送广播消息
+     *
+     * @param channel 频道
+     * @param message 编码后的消息
+     */
+    void publish(String channel, byte[] message);
+
+    /**
+     * 开始订阅，不阻塞调用线程；断线重连由实现负责
+     *
+     * @param channel  频道
+     * @param listener 消息回调
+     */
+    void subscribe(String channel, Listener listener);
+
+    /**
+     * 取消订阅并释放资源
+     */
+    void close();
+
+    /**
+     * 订阅回调
+     */
+    interface Listener {
+
+        /**
+         * 收到消息，在订阅线程中执行
+         *
+         * @param message 编码后的消息
+         */
+        void onMessage(byte[] message);
+
+        /**
+         * 订阅成功，断线重连后会再次回调
+         */
+        void onSubscribe();
+    }
+}
@@ -0,0 +1,240 @@
+package org.horizon.broadcast;
+
+import org.horizon.enums.BroadcastFormatEnum;
+import org.horizon.enums.BroadcastModeEnum;
+import org.horizon.enums.SerializerTypeEnum;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播消息的二进制编解码，替代java序列化，格式如下(整数均为大端)：
+ * <pre>
+ * magic(1) | version(1) | mode(1) | flags(1) | nodeId(str) | category(str) | keyCount(4) | key(str)... | value(bytes)... | timestamp(8)
+ * str   = length(2) + utf8字节，length为0xFFFF表示null
+ * bytes = length(4) + 字节，length为-1表示null
+ * </pre>
+ * mode使用固定编号：1=invalidate，2=push，3=refetch，0表示null，新增模式只能追加编号；
+ * flags的最低位表示是否携带缓存值，携带时value与key按下标一一对应；第二位表示末尾是否携带发送时间戳；
+ * 解码时首字节不是magic的消息按java序列化格式处理。
+ * 注意旧版本节点只能解码java序列化格式，不能解码本格式：滚动升级期间发送端必须使用BroadcastFormatEnum.JAVA，
+ * 所有节点都升级到能解码本格式的版本后，再把发送格式切换为BroadcastFormatEnum.BINARY
+ */
+public class CacheBroadcastCodec {
+
+    public static final byte MAGIC = (byte) 0xB7;
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_VALUES = 1;
+    private static final int FLAG_TIMESTAMP = 2;
+    private static final int NULL_STRING = 0xFFFF;
+
+    //广播模式的固定编号，不依赖枚举的声明顺序
+    private static final byte MODE_NULL = 0;
+    private static final byte MODE_INVALIDATE = 1;
+    private static final byte MODE_PUSH = 2;
+    private static final byte MODE_REFETCH = 3;
+
+    private CacheBroadcastCodec() {
+    }
+
+    /**
+     * 按指定格式编码广播消息
+     *
+     * @param message 广播消息
+     * @param format  发送格式，JAVA为java序列化，BINARY为本类的二进制格式
+     * @return 编码后的字节
+     */
+    public static byte[] encode(CacheBroadcastMessage message, BroadcastFormatEnum format) {
+        if (format == BroadcastFormatEnum.BINARY) {
+            return encode(message);
+        }
+        return SerializerTypeEnum.JAVA.getSerializer().serialize(message);
+    }
+
+    /**
+     * 按二进制格式编码广播消息
+     *
+     * @param message 广播消息
+     * @return 编码后的字节
+     */
+    public static byte[] encode(CacheBroadcastMessage message) {
+        byte[] nodeId = toBytes(message.getNodeId());
+        byte[] category = toBytes(message.getCategory());
+        List<String> keys = message.allKeys();
+        List<byte[]> values = message.getValues();
+
+        //先计算长度，一次分配最终大小的数组
+        int size = 4 + 2 + length(nodeId) + 2 + length(category) + 4;
+        byte[][] keyBytes = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            keyBytes[i] = toBytes(keys.get(i));
+            size += 2 + length(keyBytes[i]);
+        }
+        if (values != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                size += 4 + length(i < values.size() ? values.get(i) : null);
+            }
+        }
+        if (message.getTimestamp() > 0) {
+            size += 8;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(modeToByte(message.getMode()));
+        buffer.put((byte) ((values != null ? FLAG_VALUES : 0) | (message.getTimestamp() > 0 ? FLAG_TIMESTAMP : 0)));
+        putString(buffer, nodeId);
+        putString(buffer, category);
+        buffer.putInt(keyBytes.length);
+        for (byte[] key : keyBytes) {
+            putString(buffer, key);
+        }
+        if (values != null) {
+            for (int i = 0; i < keyBytes.length; i++) {
+                byte[] value = i < values.size() ? values.get(i) : null;
+                if (value == null) {
+                    buffer.putInt(-1);
+                } else {
+                    buffer.putInt(value.length);
+                    buffer.put(value);
+                }
+            }
+        }
+        if (message.getTimestamp() > 0) {
+            buffer.putLong(message.getTimestamp());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 解码广播消息
+     *
+     * @param bytes 编码后的字节
+     * @return 广播消息
+     */
+    public static CacheBroadcastMessage decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Cannot decode empty broadcast message");
+        }
+        if (bytes[0] != MAGIC) {
+            //兼容旧版本节点发送的java序列化消息
+            return SerializerTypeEnum.JAVA.getSerializer().deserialize(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported broadcast message version: " + version);
+        }
+        String mode = byteToMode(buffer.get());
+        int flags = buffer.get();
+
+        CacheBroadcastMessage message = new CacheBroadcastMessage();
+        message.setMode(mode);
+        message.setNodeId(getString(buffer));
+        message.setCategory(getString(buffer));
+        int keyCount = buffer.getInt();
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(getString(buffer));
+        }
+        if (keyCount == 1) {
+            message.setKey(keys.get(0));
+        } else {
+            message.setKeys(keys);
+        }
+        if ((flags & FLAG_VALUES) != 0) {
+            List<byte[]> values = new ArrayList<>(keyCount);
+            for (int i = 0; i < keyCount; i++) {
+                int length = buffer.getInt();
+                if (length < 0) {
+                    values.add(null);
+                } else {
+                    byte[] value = new byte[length];
+                    buffer.get(value);
+                    values.add(value);
+                }
+            }
+            message.setValues(values);
+        }
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            message.setTimestamp(buffer.getLong());
+        }
+        return message;
+    }
+
+    private static byte modeToByte(String mode) {
+        if (mode == null) {
+            return MODE_NULL;
+        }
+        BroadcastModeEnum modeEnum = BroadcastModeEnum.match(mode);
+        if (modeEnum == null) {
+            throw new IllegalArgumentException("Unsupported broadcast mode: " + mode);
+        }
+        switch (modeEnum) {
+            case INVALIDATE:
+                return MODE_INVALIDATE;
+            case PUSH:
+                return MODE_PUSH;
+            case REFETCH:
+                return MODE_REFETCH;
+            default:
+                throw new IllegalArgumentException("Unsupported broadcast mode: " + mode);
+        }
+    }
+
+    private static String byteToMode(byte b) {
+        switch (b) {
+            case MODE_NULL:
+                return null;
+            case MODE_INVALIDATE:
+                return BroadcastModeEnum.INVALIDATE.getType();
+            case MODE_PUSH:
+                return BroadcastModeEnum.PUSH.getType();
+            case MODE_REFETCH:
+                return BroadcastModeEnum.REFETCH.getType();
+            default:
+                throw new IllegalArgumentException("Unsupported broadcast mode code: " + b);
+        }
+    }
+
+    private static byte[] toBytes(String s) {
+        if (s == null) {
+            return null;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("broadcast message string too long: " + bytes.length);
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+        } else {
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        String s = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+}
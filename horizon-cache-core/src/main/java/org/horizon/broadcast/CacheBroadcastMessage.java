@@ -1,6 +1,10 @@
 package org.horizon.broadcast;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author DMC007
@@ -10,8 +14,28 @@ import java.io.Serializable;
 public class CacheBroadcastMessage implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 发送消息的节点id，用于忽略本节点发出的消息
+     */
+    private String nodeId;
+    /**
+     * 广播模式，参考BroadcastModeEnum
+     */
+    private String mode;
     private String category;
     private String key;
+    /**
+     * 批量操作时的业务key集合，与key二选一
+     */
+    private List<String> keys;
+    /**
+     * PUSH模式下序列化后的缓存值，与allKeys()按下标一一对应，元素为null表示该key只做失效处理
+     */
+    private List<byte[]> values;
+    /**
+     * 发送时间戳，单位毫秒，用于统计广播延迟；旧版本节点发送的消息为0
+     */
+    private long timestamp;
 
     public CacheBroadcastMessage() {
     }
@@ -21,6 +45,27 @@ public class CacheBroadcastMessage implements Serializable {
         this.key = key;
     }
 
+    public CacheBroadcastMessage(String category, Collection<String> keys) {
+        this.category = category;
+        this.keys = new ArrayList<>(keys);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
     public String getCategory() {
         return category;
     }
@@ -36,4 +81,40 @@ public class CacheBroadcastMessage implements Serializable {
     public void setKey(String key) {
         this.key = key;
     }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<String> keys) {
+        this.keys = keys;
+    }
+
+    public List<byte[]> getValues() {
+        return values;
+    }
+
+    public void setValues(List<byte[]> values) {
+        this.values = values;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * 获取消息涉及的全部业务key，兼容单key和批量消息
+     *
+     * @return 业务key集合
+     */
+    public List<String> allKeys() {
+        if (keys != null) {
+            return keys;
+        }
+        return key == null ? Collections.<String>emptyList() : Collections.singletonList(key);
+    }
 }
@@ -0,0 +1,197 @@
+package org.horizon.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 合并发送的广播发布者，按刷新间隔或key数量把多条广播合并为一条多key消息发送；
+ * 同一个key在一个刷新周期内只保留最后一次的值，待发送key数达到队列容量时由调用线程同步刷新
+ */
+public class CoalescingBroadcastPublisher {
+    private static final Logger log = LoggerFactory.getLogger(CoalescingBroadcastPublisher.class);
+
+    //实际发送消息的方法
+    private final Consumer<CacheBroadcastMessage> publisher;
+    //刷新间隔，单位毫秒
+    private final long flushInterval;
+    //单条消息最多携带的key数，待发送key数达到该值时立即触发刷新
+    private final int batchSize;
+    //待发送key的最大数量
+    private final int queueCapacity;
+
+    //待发送的消息，key为分类和广播模式，value为业务key和push模式下的缓存值
+    private Map<PendingGroup, LinkedHashMap<String, byte[]>> pending = new LinkedHashMap<>();
+    private int pendingCount = 0;
+
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    //保证多个线程同时刷新时消息按提交顺序发送
+    private final Object flushLock = new Object();
+
+    public CoalescingBroadcastPublisher(Consumer<CacheBroadcastMessage> publisher, long flushInterval, int batchSize, int queueCapacity) {
+        this.publisher = publisher;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize > 0 ? batchSize : 500;
+        this.queueCapacity = Math.max(queueCapacity, this.batchSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "broadcastPublisherThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 启动定时刷新
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时刷新，并发送剩余的消息
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushInterval + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 提交广播消息，合并到待发送队列中
+     *
+     * @param message 广播消息
+     */
+    public void offer(CacheBroadcastMessage message) {
+        List<String> keys = message.allKeys();
+        List<byte[]> values = message.getValues();
+        boolean full;
+        boolean reachBatch;
+        synchronized (this) {
+            LinkedHashMap<String, byte[]> group = pending.get(new PendingGroup(message));
+            if (group == null) {
+                group = new LinkedHashMap<>();
+                pending.put(new PendingGroup(message), group);
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] value = values != null && i < values.size() ? values.get(i) : null;
+                //重复的key只保留最后一次的值，并移动到队尾保证发送顺序
+                if (group.remove(keys.get(i)) == null) {
+                    pendingCount++;
+                }
+                group.put(keys.get(i), value);
+            }
+            full = pendingCount >= queueCapacity;
+            reachBatch = pendingCount >= batchSize;
+        }
+        if (full) {
+            //队列已满，调用线程同步刷新
+            flush();
+        } else if (reachBatch && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (Exception e) {
+                flushScheduled.set(false);
+                flush();
+            }
+        }
+    }
+
+    /**
+     * 发送待发送队列中的全部消息
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<PendingGroup, LinkedHashMap<String, byte[]>> flushing;
+            synchronized (this) {
+                flushScheduled.set(false);
+                if (pendingCount == 0) {
+                    return;
+                }
+                flushing = pending;
+                pending = new LinkedHashMap<>();
+                pendingCount = 0;
+            }
+            for (Map.Entry<PendingGroup, LinkedHashMap<String, byte[]>> entry : flushing.entrySet()) {
+                publish(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 按批次大小拆分后发送同一分组的消息
+     *
+     * @param pendingGroup 消息分组
+     * @param group        业务key和缓存值
+     */
+    private void publish(PendingGroup pendingGroup, LinkedHashMap<String, byte[]> group) {
+        List<String> keys = new ArrayList<>(group.keySet());
+        List<byte[]> values = new ArrayList<>(group.values());
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, keys.size());
+            CacheBroadcastMessage message = new CacheBroadcastMessage(pendingGroup.category, keys.subList(from, to));
+            message.setNodeId(pendingGroup.nodeId);
+            message.setMode(pendingGroup.mode);
+            List<byte[]> batchValues = values.subList(from, to);
+            for (byte[] value : batchValues) {
+                if (value != null) {
+                    message.setValues(new ArrayList<>(batchValues));
+                    break;
+                }
+            }
+            publisher.accept(message);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("broadcast publisher flush error:{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 可合并为一条消息的分组
+     */
+    private static class PendingGroup {
+        private final String nodeId;
+        private final String mode;
+        private final String category;
+
+        PendingGroup(CacheBroadcastMessage message) {
+            this.nodeId = message.getNodeId();
+            this.mode = message.getMode();
+            this.category = message.getCategory();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PendingGroup)) {
+                return false;
+            }
+            PendingGroup that = (PendingGroup) o;
+            return Objects.equals(nodeId, that.nodeId) && Objects.equals(mode, that.mode) && Objects.equals(category, that.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nodeId, mode, category);
+        }
+    }
+}
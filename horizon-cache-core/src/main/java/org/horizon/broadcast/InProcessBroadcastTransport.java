@@ -0,0 +1,69 @@
+package org.horizon.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion jvm内的广播传输，发送时在发送线程中直接回调同一命名空间下订阅了该频道的所有监听者(包括自己)，
+ * 不经过网络和序列化以外的任何中转；配合memory L2可以在单进程内模拟多个节点
+ */
+public class InProcessBroadcastTransport implements BroadcastTransport {
+    private static final Logger log = LoggerFactory.getLogger(InProcessBroadcastTransport.class);
+
+    //key为命名空间和频道
+    private static final ConcurrentHashMap<String, CopyOnWriteArrayList<Listener>> LISTENERS = new ConcurrentHashMap<>();
+
+    private final String namespace;
+    private String subscribedChannel;
+    private Listener listener;
+
+    public InProcessBroadcastTransport(String namespace) {
+        this.namespace = namespace;
+    }
+
+    private String key(String channel) {
+        return namespace + ":" + channel;
+    }
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        CopyOnWriteArrayList<Listener> listeners = LISTENERS.get(key(channel));
+        if (listeners == null) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onMessage(message);
+            } catch (Exception e) {
+                log.error("InProcessBroadcastTransport deliver error:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Listener listener) {
+        this.subscribedChannel = channel;
+        this.listener = listener;
+        LISTENERS.computeIfAbsent(key(channel), k -> new CopyOnWriteArrayList<>()).add(listener);
+        listener.onSubscribe();
+        log.info("horizon-cache factory subscribe in-process channel: {}", key(channel));
+    }
+
+    @Override
+    public void close() {
+        if (listener == null) {
+            return;
+        }
+        CopyOnWriteArrayList<Listener> listeners = LISTENERS.get(key(subscribedChannel));
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+        listener = null;
+        log.info("horizon-cache factory unsubscribe in-process channel: {}", key(subscribedChannel));
+    }
+}
@@ -2,6 +2,11 @@ package org.horizon.cache;
 
 import org.horizon.caffeine.CacheValue;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * @author zhaoxun
  * @date 2025/12/4
@@ -15,4 +20,60 @@ public interface Cache {
     void delete(String key);
 
     Boolean exists(String key);
+
+    /**
+     * 批量获取缓存，只返回命中的key
+     *
+     * @param keys 缓存key集合
+     * @return 命中的缓存key和缓存值
+     */
+    Map<String, CacheValue> getAll(Collection<String> keys);
+
+    /**
+     * 批量设置缓存
+     *
+     * @param cacheValues 缓存key和缓存值
+     */
+    void setAll(Map<String, CacheValue> cacheValues);
+
+    /**
+     * 批量删除缓存
+     *
+     * @param keys 缓存key集合
+     */
+    void deleteAll(Collection<String> keys);
+
+    /**
+     * 异步获取缓存，默认在executor中执行同步方法，需要网络IO的实现可覆盖为批量发送
+     *
+     * @param key      缓存key
+     * @param executor 执行IO的线程池
+     * @return 缓存值
+     */
+    default CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> get(key), executor);
+    }
+
+    /**
+     * 异步设置缓存
+     *
+     * @param key        缓存key
+     * @param cacheValue 缓存值
+     * @param executor   执行IO的线程池
+     * @return 设置结果
+     */
+    default CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        return CompletableFuture.runAsync(() -> set(key, cacheValue), executor);
+    }
+
+    /**
+     * 异步删除缓存
+     *
+     * @param key      缓存key
+     * @param executor 执行IO的线程池
+     * @return 删除结果
+     */
+    default CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        return CompletableFuture.runAsync(() -> delete(key), executor);
+    }
 }
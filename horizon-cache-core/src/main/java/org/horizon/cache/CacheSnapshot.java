@@ -0,0 +1,296 @@
+package org.horizon.cache;
+
+import org.horizon.caffeine.CacheManager;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.caffeine.CaffeineCache;
+import org.horizon.serialize.CacheValueEnvelope;
+import org.horizon.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L1热点数据快照，停止时按caffeine淘汰策略把各分类最热的数据写入本地文件，启动时流式读取并并行加载回L1；
+ * 停机期间可能错过了失效广播，加载前通过GETRANGE只读取L2中CacheValueEnvelope的头部，
+ * 失效时间戳(每次写入都会变化，相当于版本号)与快照一致的数据才会加载；
+ * 只在L1中该key不存在时写入，写入后再校验一次头部，校验与写入之间到达的更新(此时L1中还没有该key，失效广播不起作用)
+ * 会在第二次校验时发现并删除刚写入的数据
+ */
+public class CacheSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    private static final int MAGIC = 0x48435331;
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+    //writeUTF允许的最大编码长度
+    private static final int MAX_UTF_LENGTH = 65535;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * 写入快照，先写临时文件再替换，避免停止过程中断留下不完整的快照
+     *
+     * @param file                  快照文件
+     * @param l1CacheManager        L1缓存管理器
+     * @param serializer            序列化方式
+     * @param maxEntriesPerCategory 每个分类最多写入的条目数
+     * @return 写入的条目数
+     */
+    public static int write(File file, CacheManager l1CacheManager, Serializer serializer, int maxEntriesPerCategory) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create snapshot directory: " + parent);
+        }
+        File tmpFile = new File(file.getPath() + ".tmp");
+        int count = 0;
+        try {
+            count = writeRecords(tmpFile, l1CacheManager, serializer, maxEntriesPerCategory);
+        } catch (IOException | RuntimeException e) {
+            if (!tmpFile.delete()) {
+                log.warn("CacheSnapshot failed to delete tmp file:{}", tmpFile);
+            }
+            throw e;
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    private static int writeRecords(File tmpFile, CacheManager l1CacheManager, Serializer serializer, int maxEntriesPerCategory) throws IOException {
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            for (Map.Entry<String, Cache> entry : l1CacheManager.getCaches().entrySet()) {
+                CaffeineCache cache = CacheManager.unwrap(entry.getValue(), CaffeineCache.class);
+                if (cache == null || utfLength(entry.getKey()) > MAX_UTF_LENGTH) {
+                    continue;
+                }
+                for (Map.Entry<String, CacheValue> hot : cache.hottest(maxEntriesPerCategory).entrySet()) {
+                    CacheValue cacheValue = hot.getValue();
+                    //空值标记和已过期的数据不写入
+                    if (cacheValue.getValue() == null || !cacheValue.isValid()) {
+                        continue;
+                    }
+                    //writeUTF无法写入编码后超过64KB的key，跳过该条，不影响其他数据
+                    if (utfLength(hot.getKey()) > MAX_UTF_LENGTH) {
+                        log.debug("CacheSnapshot skip key too long, category:{}", entry.getKey());
+                        continue;
+                    }
+                    byte[] bytes;
+                    try {
+                        bytes = CacheValueEnvelope.encode(serializer, cacheValue);
+                    } catch (Exception e) {
+                        log.debug("CacheSnapshot skip key:{}, error:{}", hot.getKey(), e.getMessage());
+                        continue;
+                    }
+                    out.writeByte(RECORD);
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(hot.getKey());
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    count++;
+                }
+            }
+            out.writeByte(END);
+        }
+        return count;
+    }
+
+    /**
+     * 计算writeUTF使用的modified UTF-8编码长度
+     */
+    private static int utfLength(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 加载快照，按批提交给多个线程并行校验和写入L1，读取文件的线程在待处理批次过多时等待，内存占用有上限；
+     * 加载完成后删除快照文件
+     *
+     * @param file           快照文件
+     * @param l1CacheManager L1缓存管理器
+     * @param l2Cache        L2缓存，用于校验数据是否已变化
+     * @param serializer     序列化方式
+     * @param threads        并行加载的线程数
+     * @param batchSize      每批校验的条目数
+     * @return 加载到L1的条目数
+     */
+    public static int load(File file, CacheManager l1CacheManager, L2Cache l2Cache, Serializer serializer, int threads, int batchSize) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        threads = Math.max(threads, 1);
+        batchSize = Math.max(batchSize, 1);
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "snapshotLoadThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //最多同时存在2倍线程数的待处理批次
+        Semaphore permits = new Semaphore(threads * 2);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                log.warn("CacheSnapshot ignore invalid snapshot file:{}", file);
+                return 0;
+            }
+            List<Record> batch = new ArrayList<>(batchSize);
+            while (in.readByte() == RECORD) {
+                String category = in.readUTF();
+                String finalKey = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                batch.add(new Record(category, finalKey, bytes));
+                if (batch.size() >= batchSize) {
+                    submit(executor, permits, batch, l1CacheManager, l2Cache, serializer, loaded, stale);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, permits, batch, l1CacheManager, l2Cache, serializer, loaded, stale);
+            }
+        } catch (EOFException e) {
+            log.warn("CacheSnapshot snapshot file truncated:{}", file);
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!file.delete()) {
+                log.warn("CacheSnapshot failed to delete snapshot file:{}", file);
+            }
+        }
+        log.info("CacheSnapshot load finished, loaded:{}, stale:{}", loaded.get(), stale.get());
+        return loaded.get();
+    }
+
+    private static void submit(ExecutorService executor, Semaphore permits, List<Record> batch, CacheManager l1CacheManager,
+                               L2Cache l2Cache, Serializer serializer, AtomicInteger loaded, AtomicInteger stale) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                loadBatch(batch, l1CacheManager, l2Cache, serializer, loaded, stale);
+            } catch (Exception e) {
+                log.error("CacheSnapshot load batch error:{}", e.getMessage(), e);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private static void loadBatch(List<Record> batch, CacheManager l1CacheManager, L2Cache l2Cache, Serializer serializer,
+                                  AtomicInteger loaded, AtomicInteger stale) {
+        List<String> keys = new ArrayList<>(batch.size());
+        for (Record record : batch) {
+            keys.add(record.finalKey);
+        }
+        Map<String, byte[]> headers = l2Cache.getHeaders(keys, CacheValueEnvelope.HEADER_LENGTH);
+        Map<String, Map<String, CacheValue>> categoryValues = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Record record : batch) {
+            byte[] header = headers.get(record.finalKey);
+            long expirationTime = CacheValueEnvelope.readExpirationTime(record.bytes);
+            //L2中不存在、已被重新写入或快照数据已过期时不加载
+            if (!CacheValueEnvelope.isEnvelope(header) || CacheValueEnvelope.readExpirationTime(header) != expirationTime || expirationTime <= now) {
+                stale.incrementAndGet();
+                continue;
+            }
+            Map<String, CacheValue> values = categoryValues.get(record.category);
+            if (values == null) {
+                values = new HashMap<>();
+                categoryValues.put(record.category, values);
+            }
+            values.put(record.finalKey, CacheValueEnvelope.decode(serializer, record.bytes));
+        }
+        for (Map.Entry<String, Map<String, CacheValue>> entry : categoryValues.entrySet()) {
+            loaded.addAndGet(install(l1CacheManager.getCache(entry.getKey()), entry.getValue(), l2Cache, stale));
+        }
+    }
+
+    /**
+     * 只在L1中不存在时写入，写入后重新校验L2头部，已变化的数据删除
+     *
+     * @return 最终保留在L1中的条目数
+     */
+    private static int install(Cache cache, Map<String, CacheValue> values, L2Cache l2Cache, AtomicInteger stale) {
+        CaffeineCache caffeineCache = CacheManager.unwrap(cache, CaffeineCache.class);
+        Map<String, CacheValue> installed = new HashMap<>();
+        for (Map.Entry<String, CacheValue> entry : values.entrySet()) {
+            CacheValue cacheValue = entry.getValue();
+            if (caffeineCache == null) {
+                //非caffeine缓存没有原子的putIfAbsent，不存在时写入，依靠下面的重新校验兜底
+                if (cache.get(entry.getKey()) == null) {
+                    cache.set(entry.getKey(), cacheValue);
+                    installed.put(entry.getKey(), cacheValue);
+                }
+            } else if (caffeineCache.computeIfAbsent(entry.getKey(), k -> cacheValue) == cacheValue) {
+                installed.put(entry.getKey(), cacheValue);
+            }
+        }
+        if (installed.isEmpty()) {
+            return 0;
+        }
+        Map<String, byte[]> headers = l2Cache.getHeaders(installed.keySet(), CacheValueEnvelope.HEADER_LENGTH);
+        int count = 0;
+        for (Map.Entry<String, CacheValue> entry : installed.entrySet()) {
+            byte[] header = headers.get(entry.getKey());
+            if (CacheValueEnvelope.isEnvelope(header) && CacheValueEnvelope.readExpirationTime(header) == entry.getValue().getExpirationTime()) {
+                count++;
+                continue;
+            }
+            //写入前L2已被更新或删除，只删除本次写入的值，不影响之后的写入
+            if (caffeineCache != null) {
+                caffeineCache.delete(entry.getKey(), entry.getValue());
+            } else {
+                cache.delete(entry.getKey());
+            }
+            stale.incrementAndGet();
+        }
+        return count;
+    }
+
+    /**
+     * 快照中的单条数据
+     */
+    private static class Record {
+        private final String category;
+        private final String finalKey;
+        private final byte[] bytes;
+
+        Record(String category, String finalKey, byte[] bytes) {
+            this.category = category;
+            this.finalKey = finalKey;
+            this.bytes = bytes;
+        }
+    }
+}
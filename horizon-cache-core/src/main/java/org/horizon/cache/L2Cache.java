@@ -0,0 +1,113 @@
+package org.horizon.cache;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.metrics.CacheMetrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L2缓存，在Cache的基础上提供租约、原始字节、bitmap和遍历等操作，
+ * 供回源租约、布隆过滤器和快照校验使用；所有节点共享同一份L2数据。
+ * 与Cache的读写方法出错时只记录日志不同，setBits、getBytes、setBytes和scan出错时抛出异常：
+ * 布隆过滤器需要区分"不存在"和"读取失败"、"遍历完成"和"遍历中断"，调用方必须捕获异常
+ */
+public interface L2Cache extends Cache {
+
+    /**
+     * 设置统计，未设置时不记录
+     *
+     * @param metrics 缓存统计
+     */
+    void setMetrics(CacheMetrics metrics);
+
+    /**
+     * 批量写入和删除，尽量在一次往返中提交；与setAll/deleteAll只记录日志不同，任一命令失败时返回false，由调用方决定是否重试
+     *
+     * @param cacheValues 需要写入的缓存key和缓存值
+     * @param deleteKeys  需要删除的缓存key
+     * @return 是否全部成功
+     */
+    boolean writeAll(Map<String, CacheValue> cacheValues, Collection<String> deleteKeys);
+
+    /**
+     * 批量读取缓存值的前length个字节，用于只读取CacheValueEnvelope头部校验数据是否变化
+     *
+     * @param keys   缓存key
+     * @param length 读取的字节数
+     * @return 存在的key及其前length个字节，不存在的key不返回
+     */
+    Map<String, byte[]> getHeaders(Collection<String> keys, int length);
+
+    /**
+     * 尝试获取回源租约，同一个key同时只有一个持有者；租约存放在独立的horizon-lease:前缀下，不与缓存数据共用key空间
+     *
+     * @param key       缓存key
+     * @param leaseTime 租约时长，单位毫秒
+     * @return 租约凭证，null表示租约已被其他节点持有
+     */
+    String tryAcquireLease(String key, long leaseTime);
+
+    /**
+     * 释放回源租约，租约已过期或已被他人持有时不做处理
+     *
+     * @param key   缓存key
+     * @param token 租约凭证
+     */
+    void releaseLease(String key, String token);
+
+    /**
+     * 租约持有者回源结果为不存在时调用，把租约替换为短期的不存在标记，只有持有者才能替换；
+     * 标记有效期内其他节点无法获取租约，等待中的节点通过isLeaseAbsent立即得知数据不存在
+     *
+     * @param key        缓存key
+     * @param token      租约凭证
+     * @param absentTime 不存在标记的有效期，单位毫秒
+     */
+    void releaseLeaseAbsent(String key, String token, long absentTime);
+
+    /**
+     * 判断租约是否为不存在标记
+     *
+     * @param key 缓存key
+     * @return true表示租约持有者已确认数据不存在
+     */
+    boolean isLeaseAbsent(String key);
+
+    /**
+     * 把bitmap的多个位设置为1，位的编号与redis bitmap一致(每个字节的最高位是offset较小的位)
+     *
+     * @param key     bitmap的key
+     * @param offsets 位编号
+     */
+    void setBits(String key, long[] offsets);
+
+    /**
+     * 读取原始字节，不做反序列化
+     *
+     * @param key key
+     * @return 原始字节，不存在返回null
+     */
+    byte[] getBytes(String key);
+
+    /**
+     * 写入原始字节，不做序列化
+     *
+     * @param key   key
+     * @param bytes 原始字节
+     */
+    void setBytes(String key, byte[] bytes);
+
+    /**
+     * 遍历匹配的key
+     *
+     * @param pattern  匹配模式，支持*和?
+     * @param count    每批的数量
+     * @param consumer 每批key的处理方法
+     */
+    void scan(String pattern, int count, Consumer<List<String>> consumer);
+}
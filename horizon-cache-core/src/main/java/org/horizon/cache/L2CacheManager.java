@@ -0,0 +1,43 @@
+package org.horizon.cache;
+
+import org.horizon.broadcast.BroadcastTransport;
+import org.horizon.serialize.Serializer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L2缓存管理器，负责L2缓存和广播传输的创建与释放，参考CacheTypeEnum中的L2提供者
+ */
+public interface L2CacheManager {
+
+    /**
+     * 启动L2缓存
+     */
+    void start();
+
+    /**
+     * 停止L2缓存
+     */
+    void stop();
+
+    /**
+     * 获取缓存操作对象实例
+     *
+     * @return 缓存操作对象实例
+     */
+    L2Cache getCache();
+
+    /**
+     * 获取L2缓存使用的序列化方式
+     *
+     * @return 序列化实例
+     */
+    Serializer getSerializer();
+
+    /**
+     * 创建节点间的广播传输
+     *
+     * @return 广播传输
+     */
+    BroadcastTransport createBroadcastTransport();
+}
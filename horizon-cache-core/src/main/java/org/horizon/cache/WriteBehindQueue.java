@@ -0,0 +1,269 @@
+package org.horizon.cache;
+
+import org.horizon.caffeine.CacheValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L2异步写队列，写入先进入队列，同一个key只保留最后一次写入，由后台线程定时通过pipeline批量写入L2；
+ * 队列满时由调用方同步写入；写入L2失败的数据保留在队列中按指数退避重试，只广播成功写入的数据，
+ * 超过最大重试次数的数据丢弃并记录错误日志
+ */
+public class WriteBehindQueue {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    //失败重试的最大退避时间，单位毫秒
+    private static final long MAX_RETRY_DELAY = 30000;
+
+    //L2缓存
+    private final L2Cache l2Cache;
+    //写入L2完成后的回调，入参为分类名称和业务key对应的缓存值，缓存值为null表示删除
+    private final BiConsumer<String, Map<String, CacheValue>> flushListener;
+    //刷新间隔，单位毫秒
+    private final long flushInterval;
+    //单次pipeline最多写入的key数
+    private final int batchSize;
+    //队列最多容纳的key数
+    private final int capacity;
+    //写入失败后的最大重试次数
+    private final int maxRetries;
+
+    //等待写入L2的数据，key为最终缓存key
+    private final ConcurrentHashMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    //等待写入的key数，与pending同步增减，用于原子地判断容量
+    private final AtomicInteger count = new AtomicInteger();
+    //连续失败的刷新次数，以及下次允许刷新的时间，只在flush中访问
+    private int failures;
+    private long retryTime;
+    private final ScheduledExecutorService scheduler;
+
+    public WriteBehindQueue(L2Cache l2Cache, BiConsumer<String, Map<String, CacheValue>> flushListener, long flushInterval, int batchSize, int capacity,
+                            int maxRetries) {
+        this.l2Cache = l2Cache;
+        this.flushListener = flushListener;
+        this.flushInterval = flushInterval > 0 ? flushInterval : 100;
+        this.batchSize = batchSize > 0 ? batchSize : 500;
+        this.capacity = capacity > 0 ? capacity : 10000;
+        this.maxRetries = Math.max(maxRetries, 0);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "writeBehindFlushThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 启动定时刷新
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("write behind flush error:{}", e.getMessage(), e);
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时刷新，并把剩余数据写入L2，忽略退避时间再尝试一次
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushInterval + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            retryTime = 0;
+            flush();
+        }
+        if (!pending.isEmpty()) {
+            log.error("write behind stop, keys not written to l2:{}", pending.size());
+        }
+    }
+
+    /**
+     * 提交写入
+     *
+     * @param category   分类名称
+     * @param key        业务key
+     * @param finalKey   最终缓存key
+     * @param cacheValue 缓存值，null表示删除
+     * @return false表示队列已满，需要调用方同步写入
+     */
+    public boolean offer(String category, String key, String finalKey, CacheValue cacheValue) {
+        PendingWrite pendingWrite = new PendingWrite(category, key, cacheValue, 0);
+        while (true) {
+            //队列中已有该key时直接覆盖，不占用新的容量
+            if (pending.computeIfPresent(finalKey, (k, previous) -> pendingWrite) != null) {
+                return true;
+            }
+            //先占用容量再写入，并发写入时也不会超过容量
+            if (count.incrementAndGet() > capacity) {
+                count.decrementAndGet();
+                return false;
+            }
+            if (pending.putIfAbsent(finalKey, pendingWrite) == null) {
+                return true;
+            }
+            //其他线程同时写入了该key，归还容量后重新覆盖
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * 获取尚未写入L2的数据，用于保证本节点读取时不会读到L2中的旧值
+     *
+     * @param finalKey 最终缓存key
+     * @return 等待写入的数据，不存在返回null
+     */
+    public PendingWrite getPending(String finalKey) {
+        return pending.get(finalKey);
+    }
+
+    /**
+     * 当前等待写入的key数
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * 把队列中的数据批量写入L2后广播，上次写入失败时等待退避时间后再重试
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() || System.currentTimeMillis() < retryTime) {
+            return;
+        }
+        List<Map.Entry<String, PendingWrite>> entries = new ArrayList<>(pending.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            if (!flush(entries.subList(from, Math.min(from + batchSize, entries.size())))) {
+                //L2写入失败，剩余批次等到退避时间后再写入
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写入一个批次
+     *
+     * @return 是否写入成功
+     */
+    private boolean flush(List<Map.Entry<String, PendingWrite>> entries) {
+        Map<String, CacheValue> setValues = new HashMap<>();
+        List<String> deleteKeys = new ArrayList<>();
+        Map<String, Map<String, CacheValue>> categoryValues = new HashMap<>();
+        for (Map.Entry<String, PendingWrite> entry : entries) {
+            PendingWrite pendingWrite = entry.getValue();
+            if (pendingWrite.cacheValue != null) {
+                setValues.put(entry.getKey(), pendingWrite.cacheValue);
+            } else {
+                deleteKeys.add(entry.getKey());
+            }
+            Map<String, CacheValue> values = categoryValues.get(pendingWrite.category);
+            if (values == null) {
+                values = new HashMap<>();
+                categoryValues.put(pendingWrite.category, values);
+            }
+            values.put(pendingWrite.key, pendingWrite.cacheValue);
+        }
+        if (!l2Cache.writeAll(setValues, deleteKeys)) {
+            onFlushFailure(entries);
+            return false;
+        }
+        failures = 0;
+        retryTime = 0;
+        //写入L2后再移出队列，期间有新写入的key保留到下一次刷新
+        for (Map.Entry<String, PendingWrite> entry : entries) {
+            remove(entry.getKey(), entry.getValue());
+        }
+        log.debug("write behind flush, set keys:{}, delete keys:{}", setValues.size(), deleteKeys.size());
+        //只广播已成功写入L2的数据
+        for (Map.Entry<String, Map<String, CacheValue>> entry : categoryValues.entrySet()) {
+            flushListener.accept(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * 批次写入失败：数据保留在队列中并增加重试次数，超过最大重试次数的丢弃；期间有新写入的key以新数据为准，重试次数重新计算
+     */
+    private void onFlushFailure(List<Map.Entry<String, PendingWrite>> entries) {
+        failures++;
+        long delay = Math.min(flushInterval << Math.min(failures, 16), MAX_RETRY_DELAY);
+        retryTime = System.currentTimeMillis() + delay;
+        int dropped = 0;
+        for (Map.Entry<String, PendingWrite> entry : entries) {
+            PendingWrite pendingWrite = entry.getValue();
+            if (pendingWrite.attempts >= maxRetries) {
+                if (remove(entry.getKey(), pendingWrite)) {
+                    dropped++;
+                }
+            } else {
+                pending.replace(entry.getKey(), pendingWrite, pendingWrite.retry());
+            }
+        }
+        if (dropped > 0) {
+            log.error("write behind flush failed, keys:{}, dropped keys after {} retries:{}", entries.size(), maxRetries, dropped);
+        } else {
+            log.warn("write behind flush failed, keys:{}, retry after {}ms", entries.size(), delay);
+        }
+    }
+
+    private boolean remove(String finalKey, PendingWrite pendingWrite) {
+        if (pending.remove(finalKey, pendingWrite)) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 等待写入L2的数据
+     */
+    public static class PendingWrite {
+        private final String category;
+        private final String key;
+        private final CacheValue cacheValue;
+        //已经失败的写入次数
+        private final int attempts;
+
+        PendingWrite(String category, String key, CacheValue cacheValue, int attempts) {
+            this.category = category;
+            this.key = key;
+            this.cacheValue = cacheValue;
+            this.attempts = attempts;
+        }
+
+        private PendingWrite retry() {
+            return new PendingWrite(category, key, cacheValue, attempts + 1);
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return 缓存值，null表示删除
+         */
+        public CacheValue getCacheValue() {
+            return cacheValue;
+        }
+    }
+}
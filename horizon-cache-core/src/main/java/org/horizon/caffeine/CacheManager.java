@@ -1,16 +1,41 @@
 package org.horizon.caffeine;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import org.horizon.cache.Cache;
+import org.horizon.disk.DiskTieredCache;
+import org.horizon.disk.MappedDiskStore;
 import org.horizon.enums.CacheTypeEnum;
+import org.horizon.enums.WeigherTypeEnum;
+import org.horizon.factory.CacheCategoryConfig;
+import org.horizon.hotkey.HotKeyCache;
+import org.horizon.negative.NegativeCache;
+import org.horizon.offheap.OffHeapCache;
+import org.horizon.offheap.OffHeapStore;
+import org.horizon.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 /**
  * @author zhaoxun
  * @date 2025/12/4
  */
 public class CacheManager {
+    private static final Logger log = LoggerFactory.getLogger(CacheManager.class);
+
+    //共享内存预算中平均分配给各分类的比例，其余按命中次数分配
+    private static final double BASE_SHARE_RATIO = 0.2;
+    //磁盘层过期索引的清理间隔，单位秒
+    private static final long DISK_PURGE_INTERVAL = 60;
 
     private volatile ConcurrentHashMap<String, Cache> cacheMap = new ConcurrentHashMap<>();
     private volatile CacheTypeEnum cacheTypeEnum = CacheTypeEnum.CAFFEINE;
@@ -18,6 +43,49 @@ public class CacheManager {
     private int maxSize = 10000;
     //默认缓存过期时间间隔秒数(单位:秒)
     private long expireAfterWrite = 60 * 10;
+    //缓存分类级别配置，由缓存工厂设置
+    private Map<String, CacheCategoryConfig> categoryConfigs = Collections.emptyMap();
+    //开启refreshAfterWrite时的重新加载方法，入参为分类名称和缓存key
+    private BiFunction<String, String, CacheValue> reloader;
+
+    //所有分类L1缓存共享的内存预算，单位字节，小于等于0表示不开启；
+    //开启后未单独配置容量的分类按权重淘汰，预算按各分类的命中情况定期重新分配
+    private long maxWeight = -1;
+    //按权重淘汰时计算条目权重的方式
+    private WeigherTypeEnum weigherType = WeigherTypeEnum.ESTIMATE;
+    //L1需要序列化时使用的序列化方式(serialized权重计算、堆外缓存)
+    private Serializer serializer;
+    //重新分配内存预算的间隔，单位秒
+    private long rebalanceInterval = 60;
+    //共享内存预算的分类缓存
+    private final ConcurrentHashMap<String, CaffeineCache> budgetCaches = new ConcurrentHashMap<>();
+    //上次重新分配时各分类的命中次数
+    private final Map<String, Long> lastHitCounts = new HashMap<>();
+    private ScheduledExecutorService rebalanceScheduler;
+    //堆外缓存最大占用的内存，单位字节
+    private long offHeapMaxMemory = 256L * 1024 * 1024;
+    //堆外缓存单个slab的字节数
+    private int offHeapSlabSize = 16 * 1024 * 1024;
+    //所有分类共享的堆外存储
+    private OffHeapStore offHeapStore;
+    //L1与L2之间的本地磁盘层数据目录，为空表示不开启，只对caffeine生效
+    private String diskTierPath;
+    //本地磁盘层最大占用的磁盘空间，单位字节
+    private long diskTierMaxBytes = 1024L * 1024 * 1024;
+    //本地磁盘层单个segment文件的字节数
+    private int diskTierSegmentSize = 64 * 1024 * 1024;
+    //本地磁盘层有效数据占比低于该值的segment优先压缩
+    private double diskTierCompactRatio = 0.5;
+    //所有分类共享的本地磁盘层
+    private MappedDiskStore diskStore;
+    //定时清理磁盘层过期索引的线程，开启磁盘层时才创建
+    private ScheduledExecutorService diskPurgeScheduler;
+    //L2未命中时空值标记的过期时间，单位秒，小于等于0表示空值标记和真实数据一起存放在L1中
+    private long negativeTtl = 60;
+    //每个分类空值标记的最大条目数
+    private int negativeMaxSize = 10000;
+    //刷新各分类固定热点key的线程，有分类开启热点key探测时才创建
+    private ScheduledExecutorService hotKeyScheduler;
 
     public CacheManager(CacheTypeEnum cacheTypeEnum, int maxSize, long expireAfterWrite) {
         if (cacheTypeEnum != null) {
@@ -35,12 +103,69 @@ public class CacheManager {
      * 启动缓存服务
      */
     public void start() {
+        if (cacheTypeEnum == CacheTypeEnum.OFFHEAP) {
+            if (serializer == null) {
+                throw new RuntimeException("off-heap cache requires a serializer");
+            }
+            offHeapStore = new OffHeapStore(offHeapMaxMemory, offHeapSlabSize);
+        }
+        if (diskTierPath != null && !diskTierPath.isEmpty() && cacheTypeEnum == CacheTypeEnum.CAFFEINE) {
+            if (serializer == null) {
+                throw new RuntimeException("disk tier requires a serializer");
+            }
+            diskStore = new MappedDiskStore(diskTierPath, diskTierMaxBytes, diskTierSegmentSize, diskTierCompactRatio);
+            diskStore.start();
+            //过期数据只在读取时才会删除索引，定时清理未再读取的过期数据，释放的空间在segment压缩时回收
+            MappedDiskStore store = diskStore;
+            diskPurgeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "l1DiskPurgeThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            diskPurgeScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    int purged = store.purgeExpired();
+                    log.debug("L1 disk tier purge expired entries:{}", purged);
+                } catch (Exception e) {
+                    log.error("L1 disk tier purge error:{}", e.getMessage(), e);
+                }
+            }, DISK_PURGE_INTERVAL, DISK_PURGE_INTERVAL, TimeUnit.SECONDS);
+        }
+        if (maxWeight > 0 && cacheTypeEnum == CacheTypeEnum.CAFFEINE) {
+            rebalanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "l1BudgetRebalanceThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebalanceScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    rebalance();
+                } catch (Exception e) {
+                    log.error("L1 budget rebalance error:{}", e.getMessage(), e);
+                }
+            }, rebalanceInterval, rebalanceInterval, TimeUnit.SECONDS);
+        }
     }
 
     /**
      * 停止缓存服务
      */
     public void stop() {
+        if (rebalanceScheduler != null) {
+            rebalanceScheduler.shutdownNow();
+        }
+        if (hotKeyScheduler != null) {
+            hotKeyScheduler.shutdownNow();
+        }
+        if (offHeapStore != null) {
+            offHeapStore.clear();
+        }
+        if (diskPurgeScheduler != null) {
+            diskPurgeScheduler.shutdownNow();
+        }
+        if (diskStore != null) {
+            diskStore.stop();
+        }
     }
 
     /**
@@ -56,8 +181,11 @@ public class CacheManager {
                 cache = cacheMap.get(categoryName);
                 if (cache == null) {
                     try {
-                        cache = createCache(cacheTypeEnum);
+                        cache = wrapHotKey(wrapNegative(createCache(cacheTypeEnum, categoryName), categoryName), categoryName);
                         cacheMap.put(categoryName, cache);
+                        if (budgetCaches.containsKey(categoryName)) {
+                            admit(categoryName);
+                        }
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to create cache for category: " + categoryName);
                     }
@@ -72,13 +200,341 @@ public class CacheManager {
      * 创建本地缓存操作对象
      *
      * @param cacheTypeEnum 缓存组件类别
+     * @param categoryName  类别名称
      * @return 缓存操作对象实例
      */
-    private Cache createCache(CacheTypeEnum cacheTypeEnum) {
+    private Cache createCache(CacheTypeEnum cacheTypeEnum, String categoryName) {
         if (cacheTypeEnum == CacheTypeEnum.CAFFEINE) {
-            return new CaffeineCache(maxSize, expireAfterWrite, TimeUnit.SECONDS);
+            CacheCategoryConfig config = categoryConfigs.get(categoryName);
+            if (config == null && maxWeight <= 0 && diskStore == null) {
+                return new CaffeineCache(maxSize, expireAfterWrite, TimeUnit.SECONDS);
+            }
+            if (config == null) {
+                config = new CacheCategoryConfig(categoryName);
+            }
+            Caffeine<Object, Object> builder = Caffeine.newBuilder();
+            if (config.getL1InitialCapacity() > 0) {
+                builder.initialCapacity(config.getL1InitialCapacity());
+            }
+            boolean budget = false;
+            if (config.getL1MaximumWeight() > 0) {
+                builder.maximumWeight(config.getL1MaximumWeight()).weigher(newWeigher());
+            } else if (config.getL1MaxSize() <= 0 && maxWeight > 0) {
+                //共享内存预算，初始容量在创建后由admit分配
+                builder.maximumWeight(maxWeight).weigher(newWeigher());
+                budget = true;
+            } else {
+                builder.maximumSize(config.getL1MaxSize() > 0 ? config.getL1MaxSize() : maxSize);
+            }
+            if (config.getL1ExpireAfterWrite() > 0) {
+                builder.expireAfterWrite(config.getL1ExpireAfterWrite(), TimeUnit.SECONDS);
+            } else if (config.getL1ExpireAfterAccess() <= 0) {
+                builder.expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS);
+            }
+            if (config.getL1ExpireAfterAccess() > 0) {
+                builder.expireAfterAccess(config.getL1ExpireAfterAccess(), TimeUnit.SECONDS);
+            }
+            long categoryExpire = config.getL1ExpireAfterWrite() > 0 ? config.getL1ExpireAfterWrite() : expireAfterWrite;
+            if (diskStore != null) {
+                //因容量淘汰的数据降级写入磁盘层，过期和主动删除的数据不写入
+                MappedDiskStore store = diskStore;
+                long diskExpire = TimeUnit.SECONDS.toMillis(categoryExpire);
+                builder.evictionListener((key, value, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        DiskTieredCache.demote(store, serializer, diskExpire, (String) key, (CacheValue) value);
+                    }
+                });
+            }
+            CaffeineCache cache;
+            if (config.getRefreshAfterWrite() > 0 && reloader != null) {
+                builder.refreshAfterWrite(config.getRefreshAfterWrite(), TimeUnit.SECONDS);
+                cache = new CaffeineCache(builder, key -> reloader.apply(categoryName, key));
+            } else {
+                cache = new CaffeineCache(builder, null);
+            }
+            if (budget) {
+                budgetCaches.put(categoryName, cache);
+            }
+            if (diskStore != null) {
+                return new DiskTieredCache(cache, diskStore, serializer);
+            }
+            return cache;
+        } else if (cacheTypeEnum == CacheTypeEnum.OFFHEAP) {
+            CacheCategoryConfig config = categoryConfigs.get(categoryName);
+            long expire = config != null && config.getL1ExpireAfterWrite() > 0 ? config.getL1ExpireAfterWrite() : expireAfterWrite;
+            return new OffHeapCache(offHeapStore, serializer, expire, TimeUnit.SECONDS);
         } else {
             throw new RuntimeException("cache type not support!!!");
         }
     }
+
+    /**
+     * 开启了空值缓存时包装为NegativeCache，L2未命中的空值标记使用单独的容量和过期时间
+     *
+     * @param cache        本地缓存
+     * @param categoryName 类别名称
+     * @return 包装后的缓存
+     */
+    private Cache wrapNegative(Cache cache, String categoryName) {
+        CacheCategoryConfig config = categoryConfigs.get(categoryName);
+        long ttl = getNegativeTtl(categoryName);
+        if (ttl <= 0) {
+            return cache;
+        }
+        int size = config != null && config.getNegativeMaxSize() > 0 ? config.getNegativeMaxSize() : negativeMaxSize;
+        return new NegativeCache(cache, size, ttl, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 获取分类空值标记的过期时间，分类配置为负数(默认-1)时使用全局配置，配置为0时该分类不单独存放空值标记
+     *
+     * @param categoryName 类别名称
+     * @return 过期时间，单位秒，小于等于0表示不单独存放空值标记
+     */
+    public long getNegativeTtl(String categoryName) {
+        CacheCategoryConfig config = categoryConfigs.get(categoryName);
+        return config != null && config.getNegativeTtl() >= 0 ? config.getNegativeTtl() : negativeTtl;
+    }
+
+    /**
+     * 分类开启了热点key探测时包装为HotKeyCache，并定时刷新固定的热点key
+     *
+     * @param cache        本地缓存
+     * @param categoryName 类别名称
+     * @return 包装后的缓存
+     */
+    private Cache wrapHotKey(Cache cache, String categoryName) {
+        CacheCategoryConfig config = categoryConfigs.get(categoryName);
+        if (config == null || config.getHotKeyTopK() <= 0) {
+            return cache;
+        }
+        HotKeyCache hotKeyCache = new HotKeyCache(cache, config.getHotKeyTopK(), config.getHotKeyPinThreshold(),
+                key -> reloader != null ? reloader.apply(categoryName, key) : null);
+        if (hotKeyScheduler == null) {
+            hotKeyScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hotKeyRefreshThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long interval = config.getHotKeyRefreshInterval() > 0 ? config.getHotKeyRefreshInterval() : 10;
+        hotKeyScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                hotKeyCache.refresh();
+            } catch (Exception e) {
+                log.error("hot key refresh error, category:{}, error:{}", categoryName, e.getMessage(), e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        return hotKeyCache;
+    }
+
+    private CacheValueWeigher newWeigher() {
+        return weigherType == WeigherTypeEnum.SERIALIZED && serializer != null
+                ? new CacheValueWeigher(serializer) : new CacheValueWeigher();
+    }
+
+    /**
+     * 可分配给共享预算分类的总权重，扣除单独配置了最大权重的分类
+     */
+    private long availableWeight() {
+        long fixed = 0;
+        for (Map.Entry<String, CacheCategoryConfig> entry : categoryConfigs.entrySet()) {
+            if (entry.getValue().getL1MaximumWeight() > 0 && cacheMap.containsKey(entry.getKey())) {
+                fixed += entry.getValue().getL1MaximumWeight();
+            }
+        }
+        return Math.max(maxWeight - fixed, budgetCaches.size());
+    }
+
+    /**
+     * 新分类加入共享预算，分到平均份额，其余分类按原有比例缩减
+     *
+     * @param categoryName 类别名称
+     */
+    private synchronized void admit(String categoryName) {
+        int count = budgetCaches.size();
+        long available = availableWeight();
+        long share = available / count;
+        long others = 0;
+        for (Map.Entry<String, CaffeineCache> entry : budgetCaches.entrySet()) {
+            if (!entry.getKey().equals(categoryName)) {
+                others += entry.getValue().getMaximum();
+            }
+        }
+        for (Map.Entry<String, CaffeineCache> entry : budgetCaches.entrySet()) {
+            if (entry.getKey().equals(categoryName)) {
+                entry.getValue().setMaximum(share);
+            } else if (others > 0) {
+                entry.getValue().setMaximum(Math.max(1, (long) ((double) entry.getValue().getMaximum() / others * (available - share))));
+            }
+        }
+        log.debug("L1 budget admit category:{}, share:{}, categories:{}", categoryName, share, count);
+    }
+
+    /**
+     * 按上个周期各分类的命中次数重新分配共享预算：
+     * 一部分预算平均分配保证冷门分类不被饿死，其余按命中次数占比分配，新份额与旧份额取平均避免抖动
+     */
+    public synchronized void rebalance() {
+        int count = budgetCaches.size();
+        if (count == 0) {
+            return;
+        }
+        long available = availableWeight();
+        Map<String, Long> hits = new HashMap<>(count);
+        long totalHits = 0;
+        for (Map.Entry<String, CaffeineCache> entry : budgetCaches.entrySet()) {
+            long hitCount = entry.getValue().getHitCount();
+            Long last = lastHitCounts.put(entry.getKey(), hitCount);
+            long delta = Math.max(hitCount - (last != null ? last : 0L), 0L);
+            hits.put(entry.getKey(), delta);
+            totalHits += delta;
+        }
+        long baseShare = (long) (available * BASE_SHARE_RATIO / count);
+        long hitBudget = available - baseShare * count;
+        for (Map.Entry<String, CaffeineCache> entry : budgetCaches.entrySet()) {
+            long target = totalHits > 0
+                    ? baseShare + (long) ((double) hitBudget * hits.get(entry.getKey()) / totalHits)
+                    : available / count;
+            long current = entry.getValue().getMaximum();
+            long maximum = Math.max(1, current > 0 ? (current + target) / 2 : target);
+            entry.getValue().setMaximum(maximum);
+            log.debug("L1 budget rebalance category:{}, hits:{}, maximum:{} -> {}, weightedSize:{}",
+                    entry.getKey(), hits.get(entry.getKey()), current, maximum, entry.getValue().getWeightedSize());
+        }
+    }
+
+    /**
+     * 已创建的分类本地缓存
+     *
+     * @return key为分类名称，不可修改
+     */
+    public Map<String, Cache> getCaches() {
+        return Collections.unmodifiableMap(cacheMap);
+    }
+
+    /**
+     * 判断分类的本地缓存是否已经创建，创建后再修改分类配置不会生效
+     *
+     * @param categoryName 类别名称
+     * @return true:已创建
+     */
+    public boolean containsCache(String categoryName) {
+        return cacheMap.containsKey(categoryName);
+    }
+
+    public void setCategoryConfigs(Map<String, CacheCategoryConfig> categoryConfigs) {
+        this.categoryConfigs = categoryConfigs;
+    }
+
+    public void setReloader(BiFunction<String, String, CacheValue> reloader) {
+        this.reloader = reloader;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public void setWeigherType(WeigherTypeEnum weigherType) {
+        if (weigherType != null) {
+            this.weigherType = weigherType;
+        }
+    }
+
+    public void setSerializer(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public void setOffHeapMaxMemory(long offHeapMaxMemory) {
+        if (offHeapMaxMemory > 0) {
+            this.offHeapMaxMemory = offHeapMaxMemory;
+        }
+    }
+
+    public void setOffHeapSlabSize(int offHeapSlabSize) {
+        if (offHeapSlabSize > 0) {
+            this.offHeapSlabSize = offHeapSlabSize;
+        }
+    }
+
+    public void setDiskTierPath(String diskTierPath) {
+        this.diskTierPath = diskTierPath;
+    }
+
+    public void setDiskTierMaxBytes(long diskTierMaxBytes) {
+        if (diskTierMaxBytes > 0) {
+            this.diskTierMaxBytes = diskTierMaxBytes;
+        }
+    }
+
+    public void setDiskTierSegmentSize(int diskTierSegmentSize) {
+        if (diskTierSegmentSize > 0) {
+            this.diskTierSegmentSize = diskTierSegmentSize;
+        }
+    }
+
+    public void setDiskTierCompactRatio(double diskTierCompactRatio) {
+        if (diskTierCompactRatio > 0 && diskTierCompactRatio <= 1) {
+            this.diskTierCompactRatio = diskTierCompactRatio;
+        }
+    }
+
+    /**
+     * 从分类缓存的包装层(热点key、空值缓存、磁盘层)中查找指定类型的缓存
+     *
+     * @param cache 分类缓存
+     * @param type  要查找的类型
+     * @return 找到的缓存，不存在返回null
+     */
+    public static <T extends Cache> T unwrap(Cache cache, Class<T> type) {
+        while (cache != null) {
+            if (type.isInstance(cache)) {
+                return type.cast(cache);
+            }
+            if (cache instanceof HotKeyCache) {
+                cache = ((HotKeyCache) cache).getDelegate();
+            } else if (cache instanceof NegativeCache) {
+                cache = ((NegativeCache) cache).getDelegate();
+            } else if (cache instanceof DiskTieredCache) {
+                cache = ((DiskTieredCache) cache).getMemoryCache();
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 本地磁盘层，未开启时返回null
+     */
+    public MappedDiskStore getDiskStore() {
+        return diskStore;
+    }
+
+    /**
+     * 堆外存储，L1不是堆外缓存时返回null
+     */
+    public OffHeapStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
+    public void setNegativeTtl(long negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public void setNegativeMaxSize(int negativeMaxSize) {
+        if (negativeMaxSize > 0) {
+            this.negativeMaxSize = negativeMaxSize;
+        }
+    }
+
+    public void setRebalanceInterval(long rebalanceInterval) {
+        if (rebalanceInterval > 0) {
+            this.rebalanceInterval = rebalanceInterval;
+        }
+    }
 }
@@ -22,6 +22,12 @@ public class CacheValue implements Serializable {
      */
     private long expirationTime;
 
+    /**
+     * 回源加载确认数据不存在时写入的空值标记，get(key, loader)只把这种空值标记视为命中；
+     * 广播刷新、get、getAll等写入的空值标记只表示L2未命中，不影响回源
+     */
+    private boolean absent;
+
     public CacheValue() {
     }
 
@@ -34,7 +40,8 @@ public class CacheValue implements Serializable {
     public CacheValue(Object value, long survivalTime) {
         this.value = value;
         this.survivalTime = survivalTime;
-        this.expirationTime = System.currentTimeMillis() + survivalTime;
+        //survivalTime小于0表示永久存活，本地失效时间按默认周期计算，避免写入即失效
+        this.expirationTime = System.currentTimeMillis() + (survivalTime < 0 ? NOW_EXPIRATION_PERIOD : survivalTime);
     }
 
     public Object getValue() {
@@ -61,12 +68,21 @@ public class CacheValue implements Serializable {
         this.expirationTime = expirationTime;
     }
 
+    public boolean isAbsent() {
+        return absent;
+    }
+
+    public void setAbsent(boolean absent) {
+        this.absent = absent;
+    }
+
     @Override
     public String toString() {
         return "CacheValue{" +
                 "value=" + value +
                 ", survivalTime=" + survivalTime +
                 ", expirationTime=" + expirationTime +
+                ", absent=" + absent +
                 '}';
     }
 
@@ -0,0 +1,97 @@
+package org.horizon.caffeine;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.horizon.serialize.PooledBuffer;
+import org.horizon.serialize.Serializer;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L1缓存权重计算，单位字节；默认按缓存key和业务对象粗略估算占用的字节数，
+ * 只识别字符串、数值、字节数组、集合等常见类型，其余对象按固定大小计算；
+ * 指定序列化方式时按序列化后的字节数计算，序列化失败时退化为估算
+ */
+public class CacheValueWeigher implements Weigher<String, CacheValue> {
+
+    //CacheValue对象及缓存条目本身的开销
+    private static final int ENTRY_OVERHEAD = 64;
+    //无法识别的对象按该大小计算
+    private static final int UNKNOWN_OBJECT_SIZE = 64;
+    //集合嵌套超过该深度后不再展开
+    private static final int MAX_DEPTH = 4;
+
+    //按序列化后的字节数计算权重时使用的序列化方式，为null时估算
+    private final Serializer serializer;
+
+    public CacheValueWeigher() {
+        this(null);
+    }
+
+    public CacheValueWeigher(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public int weigh(String key, CacheValue cacheValue) {
+        long weight = ENTRY_OVERHEAD + estimate(key, 0) + valueSize(cacheValue.getValue());
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private long valueSize(Object value) {
+        if (serializer == null || value == null) {
+            return estimate(value, 0);
+        }
+        PooledBuffer buffer = PooledBuffer.acquire();
+        try {
+            serializer.serialize(value, buffer);
+            return buffer.size();
+        } catch (Exception e) {
+            return estimate(value, 0);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 估算对象占用的字节数
+     *
+     * @param obj   对象
+     * @param depth 当前嵌套深度
+     * @return 估算的字节数
+     */
+    public static long estimate(Object obj, int depth) {
+        if (obj == null) {
+            return 0;
+        }
+        if (obj instanceof String) {
+            return 40 + 2L * ((String) obj).length();
+        }
+        if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character) {
+            return 16;
+        }
+        if (obj instanceof byte[]) {
+            return 16 + ((byte[]) obj).length;
+        }
+        if (depth >= MAX_DEPTH) {
+            return UNKNOWN_OBJECT_SIZE;
+        }
+        if (obj instanceof Collection) {
+            long size = 32;
+            for (Object item : (Collection<?>) obj) {
+                size += 8 + estimate(item, depth + 1);
+            }
+            return size;
+        }
+        if (obj instanceof Map) {
+            long size = 48;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                size += 32 + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        return UNKNOWN_OBJECT_SIZE;
+    }
+}
@@ -1,11 +1,18 @@
 package org.horizon.caffeine;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.horizon.cache.Cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class CaffeineCache implements Cache {
     private static final Logger log = LoggerFactory.getLogger(CaffeineCache.class);
@@ -13,10 +20,120 @@ public class CaffeineCache implements Cache {
     private final com.github.benmanes.caffeine.cache.Cache<String, CacheValue> cache;
 
     public CaffeineCache(int maxSize, long expireAfterWrite, TimeUnit timeUnit) {
-        this.cache = Caffeine.newBuilder()
+        this(Caffeine.newBuilder()
                 .maximumSize(maxSize)
-                .expireAfterWrite(expireAfterWrite, timeUnit)
-                .build();
+                .expireAfterWrite(expireAfterWrite, timeUnit), null);
+    }
+
+    /**
+     * 使用已配置好的caffeine builder创建本地缓存
+     *
+     * @param builder  caffeine builder，容量、过期、刷新等由调用方配置，统计由这里开启，调用方不要再调用recordStats
+     * @param reloader 重新加载方法，入参为缓存key，返回null时移除该缓存；builder开启了refreshAfterWrite时必须提供，其余情况传null
+     */
+    public CaffeineCache(Caffeine<Object, Object> builder, Function<String, CacheValue> reloader) {
+        builder.recordStats();
+        if (reloader == null) {
+            this.cache = builder.build();
+            return;
+        }
+        this.cache = builder.build(new CacheLoader<String, CacheValue>() {
+            @Override
+            public CacheValue load(String key) {
+                //只通过getIfPresent读取，不会触发同步加载
+                return null;
+            }
+
+            @Override
+            public CacheValue reload(String key, CacheValue oldValue) {
+                CacheValue cacheValue = reloader.apply(key);
+                log.debug("CaffeineCache refresh, key:{}, value:{}", key, cacheValue);
+                return cacheValue;
+            }
+        });
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * 因容量淘汰的次数
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * 当前条目数(估算值)
+     */
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 当前总权重，未按权重淘汰时返回条目数
+     */
+    public long getWeightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(cache.estimatedSize()))
+                .orElse(cache.estimatedSize());
+    }
+
+    /**
+     * 当前最大权重(或最大条目数)，未限制容量时返回-1
+     */
+    public long getMaximum() {
+        return cache.policy().eviction().map(eviction -> eviction.getMaximum()).orElse(-1L);
+    }
+
+    /**
+     * 动态调整最大权重(或最大条目数)，超出部分由caffeine异步淘汰
+     *
+     * @param maximum 最大权重
+     */
+    public void setMaximum(long maximum) {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximum));
+    }
+
+    /**
+     * 按淘汰策略获取最热的数据，未限制容量时按遍历顺序返回
+     *
+     * @param limit 最多返回的条目数
+     * @return 从热到冷排列的缓存数据
+     */
+    public Map<String, CacheValue> hottest(int limit) {
+        return cache.policy().eviction().map(eviction -> eviction.hottest(limit)).orElseGet(() -> {
+            Map<String, CacheValue> result = new LinkedHashMap<>();
+            for (Map.Entry<String, CacheValue> entry : cache.asMap().entrySet()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.put(entry.getKey(), entry.getValue());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * key不存在时通过mappingFunction计算并写入，计算期间同一个key的写入和删除会等待计算完成
+     *
+     * @param key             缓存key
+     * @param mappingFunction 计算方法，返回null时不写入
+     * @return 已有的值或计算得到的值，都不存在返回null
+     */
+    public CacheValue computeIfAbsent(String key, Function<String, CacheValue> mappingFunction) {
+        return cache.asMap().computeIfAbsent(key, mappingFunction);
     }
 
     @Override
@@ -34,6 +151,15 @@ public class CaffeineCache implements Cache {
         cache.invalidate(key);
     }
 
+    /**
+     * 当前值仍然是expected(同一个对象)时删除
+     *
+     * @return 是否删除
+     */
+    public boolean delete(String key, CacheValue expected) {
+        return cache.asMap().remove(key, expected);
+    }
+
     @Override
     public Boolean exists(String key) {
         CacheValue cacheValue = get(key);
@@ -42,4 +168,37 @@ public class CaffeineCache implements Cache {
         }
         return null;
     }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        return cache.getAllPresent(keys);
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        cache.putAll(cacheValues);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地内存操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,178 @@
+package org.horizon.disk;
+
+import org.horizon.cache.Cache;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.caffeine.CaffeineCache;
+import org.horizon.serialize.CacheValueEnvelope;
+import org.horizon.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 带本地磁盘层的L1缓存，内存层未命中时读取磁盘层，命中后提升回内存层并从磁盘层移除；
+ * 内存层因容量淘汰的数据通过demote降级写入磁盘层(由caffeine的evictionListener触发)，
+ * 写入和删除(包括广播触发的失效)同时作用于两层，保证磁盘层不会留下旧值；
+ * 提升在内存层该key的computeIfAbsent内完成，与同一个key的写入和删除互斥，不会把已被覆盖或删除的旧值写回内存层
+ */
+public class DiskTieredCache implements Cache {
+    private static final Logger log = LoggerFactory.getLogger(DiskTieredCache.class);
+
+    private final CaffeineCache memoryCache;
+    private final MappedDiskStore diskStore;
+    private final Serializer serializer;
+
+    public DiskTieredCache(CaffeineCache memoryCache, MappedDiskStore diskStore, Serializer serializer) {
+        this.memoryCache = memoryCache;
+        this.diskStore = diskStore;
+        this.serializer = serializer;
+    }
+
+    /**
+     * 把内存层淘汰的数据降级写入磁盘层，空值标记和无法序列化的数据不写入
+     *
+     * @param diskStore        磁盘层
+     * @param serializer       序列化方式
+     * @param expireAfterWrite 磁盘层数据的最长保留时间，单位毫秒
+     * @param key              缓存key
+     * @param cacheValue       被淘汰的缓存值
+     */
+    public static void demote(MappedDiskStore diskStore, Serializer serializer, long expireAfterWrite, String key, CacheValue cacheValue) {
+        if (cacheValue == null || cacheValue.getValue() == null || !cacheValue.isValid()) {
+            return;
+        }
+        try {
+            long expirationTime = Math.min(cacheValue.getExpirationTime(), System.currentTimeMillis() + expireAfterWrite);
+            diskStore.put(key, CacheValueEnvelope.encode(serializer, cacheValue), expirationTime);
+            log.debug("DiskTieredCache demote, key:{}", key);
+        } catch (Exception e) {
+            diskStore.remove(key);
+            log.debug("DiskTieredCache demote skip, key:{}, error:{}", key, e.getMessage());
+        }
+    }
+
+    public CaffeineCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    @Override
+    public void set(String key, CacheValue cacheValue) {
+        memoryCache.set(key, cacheValue);
+        diskStore.remove(key);
+    }
+
+    @Override
+    public CacheValue get(String key) {
+        CacheValue cacheValue = memoryCache.get(key);
+        if (cacheValue != null) {
+            return cacheValue;
+        }
+        return promote(key);
+    }
+
+    /**
+     * 从磁盘层取出并提升回内存层，内存层已有该key(并发写入或提升)时以内存层为准
+     */
+    private CacheValue promote(String key) {
+        return memoryCache.computeIfAbsent(key, k -> {
+            byte[] bytes = diskStore.take(k);
+            if (bytes == null) {
+                return null;
+            }
+            try {
+                CacheValue cacheValue = CacheValueEnvelope.decode(serializer, bytes);
+                log.debug("DiskTieredCache promote, key:{}", k);
+                return cacheValue;
+            } catch (Exception e) {
+                log.error("DiskTieredCache promote error:{}", e.getMessage(), e);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void delete(String key) {
+        //先删除磁盘层，之后开始的提升取不到旧值，之前开始的提升在内存层删除时已完成并被一起删除；
+        //最后再删除一次磁盘层，清理内存层淘汰时同步降级写入的数据
+        diskStore.remove(key);
+        memoryCache.delete(key);
+        diskStore.remove(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        CacheValue cacheValue = get(key);
+        if (cacheValue != null) {
+            return cacheValue.getValue() != null && cacheValue.isValid();
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> memoryValues = memoryCache.getAll(keys);
+        if (memoryValues.size() == keys.size()) {
+            return memoryValues;
+        }
+        Map<String, CacheValue> result = new HashMap<>(memoryValues);
+        List<String> missKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                missKeys.add(key);
+            }
+        }
+        for (String key : missKeys) {
+            CacheValue cacheValue = promote(key);
+            if (cacheValue != null) {
+                result.put(key, cacheValue);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        memoryCache.setAll(cacheValues);
+        for (String key : cacheValues.keySet()) {
+            diskStore.remove(key);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        for (String key : keys) {
+            diskStore.remove(key);
+        }
+        memoryCache.deleteAll(keys);
+        for (String key : keys) {
+            diskStore.remove(key);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,450 @@
+package org.horizon.disk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 基于内存映射文件的本地磁盘存储，数据按追加写入的方式保存在固定大小的segment文件中，堆内只保留索引；
+ * 记录格式为 key长度(4) | value长度(4) | 失效时间戳(8) | key | value，覆盖和删除只更新索引；
+ * 总大小超过上限时先压缩有效数据占比低的segment(把有效记录复制到当前segment后删除文件)，仍然不够时淘汰最早的segment
+ */
+public class MappedDiskStore {
+    private static final Logger log = LoggerFactory.getLogger(MappedDiskStore.class);
+
+    private static final int RECORD_HEADER_LENGTH = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final File directory;
+    //单个segment文件的字节数，也是单条记录的最大字节数
+    private final int segmentSize;
+    //最多同时存在的segment数
+    private final int maxSegments;
+    //有效数据占比低于该值的segment在空间不足时优先压缩
+    private final double compactRatio;
+
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    //读取持有读锁，写入、压缩和淘汰持有写锁，保证读取期间segment不会被删除
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //已写满的segment，按创建顺序排列
+    private final List<Segment> sealedSegments = new ArrayList<>();
+    private Segment current;
+    private long nextSegmentId;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    //因淘汰segment而丢弃的条目数
+    private final LongAdder evictionCount = new LongAdder();
+    //压缩的segment数
+    private final LongAdder compactionCount = new LongAdder();
+
+    /**
+     * @param directory    数据目录，启动时清空，重启前的数据可能已经错过了失效广播，不再使用
+     * @param maxBytes     最大占用的磁盘空间，单位字节
+     * @param segmentSize  单个segment文件的字节数
+     * @param compactRatio 有效数据占比低于该值的segment优先压缩
+     */
+    public MappedDiskStore(String directory, long maxBytes, int segmentSize, double compactRatio) {
+        if (segmentSize <= RECORD_HEADER_LENGTH || maxBytes < 2L * segmentSize) {
+            throw new IllegalArgumentException("disk tier maxBytes must be >= 2 * segmentSize");
+        }
+        this.directory = new File(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.min(maxBytes / segmentSize, Integer.MAX_VALUE);
+        this.compactRatio = compactRatio;
+    }
+
+    /**
+     * 创建数据目录并清空旧文件
+     */
+    public void start() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new RuntimeException("Failed to create disk tier directory: " + directory);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    log.warn("MappedDiskStore failed to delete old segment:{}", file);
+                }
+            }
+        }
+        log.info("MappedDiskStore start, directory:{}, maxSegments:{}, segmentSize:{}", directory, maxSegments, segmentSize);
+    }
+
+    /**
+     * 关闭并删除所有segment文件
+     */
+    public void stop() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (Segment segment : sealedSegments) {
+                segment.delete();
+            }
+            sealedSegments.clear();
+            if (current != null) {
+                current.delete();
+                current = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入数据
+     *
+     * @param key            缓存key
+     * @param value          数据
+     * @param expirationTime 失效时间戳，单位毫秒
+     * @return false表示数据超过segment大小或写入失败
+     */
+    public boolean put(String key, byte[] value, long expirationTime) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_LENGTH + keyBytes.length + value.length;
+        if (length > segmentSize) {
+            remove(key);
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (current == null || current.position + length > segmentSize) {
+                nextSegment(length);
+            }
+            append(key, keyBytes, value, expirationTime);
+            writeCount.increment();
+            return true;
+        } catch (IOException e) {
+            remove(key);
+            log.error("MappedDiskStore put error:{}", e.getMessage(), e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取数据
+     *
+     * @param key 缓存key
+     * @return 数据副本，不存在或已过期返回null
+     */
+    public byte[] get(String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            missCount.increment();
+            return null;
+        }
+        if (location.expirationTime <= System.currentTimeMillis()) {
+            remove(key, location);
+            missCount.increment();
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            //获取读锁前segment可能已被压缩或淘汰
+            if (index.get(key) != location) {
+                missCount.increment();
+                return null;
+            }
+            byte[] value = location.segment.read(location.valueOffset, location.valueLength);
+            hitCount.increment();
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 读取并删除数据，读取和删除是原子的，并发调用时只有一个调用方能取到数据
+     *
+     * @param key 缓存key
+     * @return 数据副本，不存在或已过期返回null
+     */
+    public byte[] take(String key) {
+        //持有读锁保证删除索引后到读取完成前segment不会被压缩或淘汰
+        lock.readLock().lock();
+        try {
+            Location location = index.remove(key);
+            if (location == null) {
+                missCount.increment();
+                return null;
+            }
+            location.segment.release(location.recordLength);
+            if (location.expirationTime <= System.currentTimeMillis()) {
+                missCount.increment();
+                return null;
+            }
+            byte[] value = location.segment.read(location.valueOffset, location.valueLength);
+            hitCount.increment();
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据，只删除索引，占用的空间在segment压缩或淘汰时释放
+     *
+     * @param key 缓存key
+     */
+    public void remove(String key) {
+        Location location = index.remove(key);
+        if (location != null) {
+            location.segment.release(location.recordLength);
+        }
+    }
+
+    private void remove(String key, Location location) {
+        if (index.remove(key, location)) {
+            location.segment.release(location.recordLength);
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 追加一条记录并更新索引，调用方需持有写锁并保证当前segment空间足够
+     */
+    private void append(String key, byte[] keyBytes, byte[] value, long expirationTime) {
+        Location old = index.put(key, write(key, keyBytes, value, expirationTime));
+        if (old != null) {
+            old.segment.release(old.recordLength);
+        }
+    }
+
+    /**
+     * 在当前segment末尾写入一条记录，不更新索引，调用方需持有写锁并保证当前segment空间足够
+     *
+     * @return 新记录的位置
+     */
+    private Location write(String key, byte[] keyBytes, byte[] value, long expirationTime) {
+        Segment segment = current;
+        int offset = segment.position;
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset);
+        buffer.putInt(keyBytes.length);
+        buffer.putInt(value.length);
+        buffer.putLong(expirationTime);
+        buffer.put(keyBytes);
+        int valueOffset = buffer.position();
+        buffer.put(value);
+        int recordLength = buffer.position() - offset;
+        segment.position = buffer.position();
+        segment.retain(recordLength);
+        segment.keys.add(key);
+        return new Location(segment, valueOffset, value.length, recordLength, expirationTime);
+    }
+
+    /**
+     * 切换到新的segment，segment数达到上限时先压缩再淘汰，保证切换后当前segment至少还能写入length个字节，调用方需持有写锁
+     *
+     * @param length 接下来要写入的记录长度
+     */
+    private void nextSegment(int length) throws IOException {
+        if (current != null) {
+            sealedSegments.add(current);
+            current = null;
+        }
+        while (sealedSegments.size() + 1 > maxSegments) {
+            Segment victim = selectCompaction();
+            if (victim != null && victim.liveBytes + length <= segmentSize) {
+                current = createSegment();
+                compact(victim);
+                return;
+            }
+            //没有可压缩的segment，淘汰最早的segment
+            evict(sealedSegments.remove(0));
+        }
+        current = createSegment();
+    }
+
+    /**
+     * 选择有效数据占比最低且低于compactRatio的segment
+     */
+    private Segment selectCompaction() {
+        Segment victim = null;
+        for (Segment segment : sealedSegments) {
+            double ratio = (double) segment.liveBytes / segmentSize;
+            if (ratio < compactRatio && (victim == null || segment.liveBytes < victim.liveBytes)) {
+                victim = segment;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * 把segment中仍然有效的记录复制到当前segment，然后删除该segment；
+     * 索引只在仍指向原记录时才替换为新位置，与不加锁的remove并发时以remove为准
+     */
+    private void compact(Segment segment) {
+        sealedSegments.remove(segment);
+        long now = System.currentTimeMillis();
+        int moved = 0;
+        for (String key : segment.keys) {
+            Location location = index.get(key);
+            if (location == null || location.segment != segment) {
+                continue;
+            }
+            if (location.expirationTime <= now) {
+                index.remove(key, location);
+                continue;
+            }
+            byte[] value = segment.read(location.valueOffset, location.valueLength);
+            Location newLocation = write(key, key.getBytes(StandardCharsets.UTF_8), value, location.expirationTime);
+            //remove不持有锁，复制期间被删除的key不能用旧数据恢复，此时新写入的记录直接作废
+            if (index.replace(key, location, newLocation)) {
+                moved++;
+            } else {
+                newLocation.segment.release(newLocation.recordLength);
+            }
+        }
+        segment.delete();
+        compactionCount.increment();
+        log.debug("MappedDiskStore compact segment:{}, moved entries:{}", segment.id, moved);
+    }
+
+    private void evict(Segment segment) {
+        int evicted = 0;
+        for (String key : segment.keys) {
+            if (index.computeIfPresent(key, (k, location) -> location.segment == segment ? null : location) == null) {
+                evicted++;
+            }
+        }
+        segment.delete();
+        evictionCount.add(evicted);
+        log.debug("MappedDiskStore evict segment:{}, evicted entries:{}", segment.id, evicted);
+    }
+
+    private Segment createSegment() throws IOException {
+        long id = nextSegmentId++;
+        File file = new File(directory, id + SEGMENT_SUFFIX);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(segmentSize);
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(id, file, buffer);
+        }
+    }
+
+    /**
+     * 删除已过期的索引
+     *
+     * @return 删除的条目数
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Iterator<Map.Entry<String, Location>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Location> entry = iterator.next();
+            if (entry.getValue().expirationTime <= now) {
+                remove(entry.getKey(), entry.getValue());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactionCount.sum();
+    }
+
+    /**
+     * 单个segment文件
+     */
+    private static class Segment {
+        private final long id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        //下一次写入的位置，只在写锁内修改
+        private int position;
+        //仍被索引引用的记录字节数
+        private volatile long liveBytes;
+        //写入过该segment的key，压缩和淘汰时用于查找有效记录
+        private final List<String> keys = new ArrayList<>();
+
+        Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        synchronized void retain(int recordLength) {
+            liveBytes += recordLength;
+        }
+
+        synchronized void release(int recordLength) {
+            liveBytes -= recordLength;
+        }
+
+        byte[] read(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset);
+            duplicate.get(bytes);
+            return bytes;
+        }
+
+        void delete() {
+            //java8没有公开的unmap方法，映射在buffer被回收时释放，linux下删除已映射的文件是安全的
+            if (!file.delete()) {
+                log.warn("MappedDiskStore failed to delete segment:{}", file);
+            }
+        }
+    }
+
+    /**
+     * 索引条目，记录value在segment中的位置
+     */
+    private static class Location {
+        private final Segment segment;
+        private final int valueOffset;
+        private final int valueLength;
+        private final int recordLength;
+        private final long expirationTime;
+
+        Location(Segment segment, int valueOffset, int valueLength, int recordLength, long expirationTime) {
+            this.segment = segment;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.recordLength = recordLength;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
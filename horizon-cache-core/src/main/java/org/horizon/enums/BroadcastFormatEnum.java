@@ -0,0 +1,38 @@
+package org.horizon.enums;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播消息的发送格式，接收端两种格式都能解码；
+ * 旧版本节点只能解码java序列化格式，滚动升级期间必须使用JAVA，所有节点升级完成后再切换为BINARY
+ */
+public enum BroadcastFormatEnum {
+    /**
+     * java序列化，所有版本的节点都能解码
+     */
+    JAVA("java"),
+    /**
+     * CacheBroadcastCodec二进制格式，体积更小、编解码更快，只有新版本节点能解码
+     */
+    BINARY("binary"),
+    ;
+
+    private String type;
+
+    BroadcastFormatEnum(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public static BroadcastFormatEnum match(String type) {
+        for (BroadcastFormatEnum broadcastFormatEnum : BroadcastFormatEnum.values()) {
+            if (broadcastFormatEnum.getType().equals(type)) {
+                return broadcastFormatEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package org.horizon.enums;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 广播模式，决定其他节点收到广播后如何更新本地L1缓存
+ */
+public enum BroadcastModeEnum {
+    /**
+     * 只删除本地L1缓存，下次读取时再懒加载
+     */
+    INVALIDATE("invalidate"),
+    /**
+     * 广播消息携带序列化后的缓存值，直接更新本地L1缓存，超过大小阈值的值退化为INVALIDATE
+     */
+    PUSH("push"),
+    /**
+     * 收到广播后重新读取L2缓存更新本地L1缓存
+     */
+    REFETCH("refetch"),
+    ;
+
+    private String type;
+
+    BroadcastModeEnum(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public static BroadcastModeEnum match(String type) {
+        for (BroadcastModeEnum broadcastModeEnum : BroadcastModeEnum.values()) {
+            if (broadcastModeEnum.getType().equals(type)) {
+                return broadcastModeEnum;
+            }
+        }
+        return null;
+    }
+}
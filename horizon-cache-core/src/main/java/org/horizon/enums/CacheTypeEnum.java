@@ -6,7 +6,15 @@ package org.horizon.enums;
  */
 public enum CacheTypeEnum {
     CAFFEINE("caffeine"),
+    /**
+     * 堆外L1缓存，数据序列化后保存在direct ByteBuffer中，不占用GC堆
+     */
+    OFFHEAP("offheap"),
     REDIS("redis"),
+    /**
+     * jvm内L2缓存，配合jvm内广播使用，不依赖redis，适用于单实例服务和测试
+     */
+    MEMORY("memory"),
     ;
 
     private String type;
@@ -1,6 +1,7 @@
 package org.horizon.enums;
 
 import org.horizon.serialize.Serializer;
+import org.horizon.serialize.impl.CompactSerializer;
 import org.horizon.serialize.impl.JavaSerializer;
 
 /**
@@ -8,7 +9,9 @@ import org.horizon.serialize.impl.JavaSerializer;
  * @date 2025/12/4
  */
 public enum SerializerTypeEnum {
-    JAVA("java", new JavaSerializer());
+    JAVA("java", new JavaSerializer()),
+    COMPACT("compact", new CompactSerializer()),
+    ;
 
     private String type;
     private Serializer serializer;
@@ -28,7 +31,8 @@ public enum SerializerTypeEnum {
 
     public static SerializerTypeEnum match(String name) {
         for (SerializerTypeEnum item : SerializerTypeEnum.values()) {
-            if (item.name().equals(name)) {
+            //同时支持枚举名称和type，如"JAVA"和"java"
+            if (item.name().equals(name) || item.getType().equals(name)) {
                 return item;
             }
         }
@@ -0,0 +1,37 @@
+package org.horizon.enums;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L1缓存按权重淘汰时计算单个缓存条目权重的方式
+ */
+public enum WeigherTypeEnum {
+    /**
+     * 按对象类型粗略估算字节数，开销小
+     */
+    ESTIMATE("estimate"),
+    /**
+     * 使用L2序列化方式序列化后的字节数，更准确但每次写入L1都需要序列化一次
+     */
+    SERIALIZED("serialized"),
+    ;
+
+    private String type;
+
+    WeigherTypeEnum(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public static WeigherTypeEnum match(String type) {
+        for (WeigherTypeEnum weigherTypeEnum : WeigherTypeEnum.values()) {
+            if (weigherTypeEnum.getType().equals(type)) {
+                return weigherTypeEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,279 @@
+package org.horizon.factory;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 缓存分类级别的配置，未配置的分类使用默认值
+ */
+public class CacheCategoryConfig {
+
+    /**
+     * 缓存分类名称
+     */
+    private String category;
+
+    /**
+     * 回源加载时的分布式租约时长，单位毫秒，小于等于0表示不开启；
+     * 开启后集群内同一个key同时只有一个节点执行loader
+     */
+    private long loadLeaseTime = -1;
+
+    /**
+     * 未抢到租约的节点轮询L2等待加载结果的最长时间，单位毫秒，小于等于0时取loadLeaseTime；
+     * 超时后本节点自行回源加载
+     */
+    private long loadLeaseWaitTime = -1;
+
+    /**
+     * 未抢到租约的节点轮询L2的间隔，单位毫秒
+     */
+    private long loadLeasePollInterval = 50;
+
+    /**
+     * 是否开启L2异步写，开启后set/delete只同步写L1，L2由后台线程批量写入后再广播
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * L1缓存写入后刷新时间，单位秒，小于等于0表示不开启；
+     * 超过该时间的数据被读取时直接返回旧值，同时异步从L2(L2不存在时从注册的loader)重新加载
+     */
+    private long refreshAfterWrite = -1;
+
+    /**
+     * L1缓存最大条目数，小于等于0时使用全局maxSize；与l1MaximumWeight同时配置时以l1MaximumWeight为准
+     */
+    private int l1MaxSize = -1;
+
+    /**
+     * L1缓存最大权重，单位字节(计算方式见HorizonCacheFactory的l1Weigher)，小于等于0表示不按权重淘汰
+     */
+    private long l1MaximumWeight = -1;
+
+    /**
+     * L1缓存写入后过期时间，单位秒，小于等于0时使用全局expireAfterWrite；
+     * 只配置了l1ExpireAfterAccess时不再按写入时间过期
+     */
+    private long l1ExpireAfterWrite = -1;
+
+    /**
+     * L1缓存访问后过期时间，单位秒，小于等于0表示不开启
+     */
+    private long l1ExpireAfterAccess = -1;
+
+    /**
+     * L1缓存初始容量，小于等于0时使用caffeine默认值
+     */
+    private int l1InitialCapacity = -1;
+
+    /**
+     * L2未命中时空值标记的过期时间，单位秒；-1(默认)表示使用全局l1NegativeTtl，
+     * 0表示该分类不单独存放空值标记(全局开启时也不开启)，空值标记与真实数据一起受L1容量和过期时间限制
+     */
+    private long negativeTtl = -1;
+
+    /**
+     * 空值标记的最大条目数，小于等于0时使用全局l1NegativeMaxSize
+     */
+    private int negativeMaxSize = -1;
+
+    /**
+     * 是否开启布隆过滤器，开启后读取时先检查过滤器，一定不存在的key不再查询L2；
+     * 过滤器在redis中集群共享，首次开启时由一个节点遍历L2重建
+     */
+    private boolean bloomFilter = false;
+
+    /**
+     * 布隆过滤器预期条目数，小于等于0时使用全局bloomExpectedInsertions；所有节点必须一致
+     */
+    private long bloomExpectedInsertions = -1;
+
+    /**
+     * 布隆过滤器误判率，小于等于0时使用全局bloomFpp；所有节点必须一致
+     */
+    private double bloomFpp = -1;
+
+    /**
+     * 热点key探测保留的topK数量，小于等于0表示不开启探测
+     */
+    private int hotKeyTopK = -1;
+
+    /**
+     * 热点key固定到L1需要达到的估算访问次数(每个刷新周期计数减半)，小于等于0表示只探测不固定；
+     * 固定的key不受L1容量淘汰和过期影响，由后台定期从L2刷新
+     */
+    private int hotKeyPinThreshold = -1;
+
+    /**
+     * 固定热点key的刷新间隔，单位秒
+     */
+    private long hotKeyRefreshInterval = 10;
+
+    public CacheCategoryConfig() {
+    }
+
+    public CacheCategoryConfig(String category) {
+        this.category = category;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getLoadLeaseTime() {
+        return loadLeaseTime;
+    }
+
+    public void setLoadLeaseTime(long loadLeaseTime) {
+        this.loadLeaseTime = loadLeaseTime;
+    }
+
+    public long getLoadLeaseWaitTime() {
+        return loadLeaseWaitTime > 0 ? loadLeaseWaitTime : loadLeaseTime;
+    }
+
+    public void setLoadLeaseWaitTime(long loadLeaseWaitTime) {
+        this.loadLeaseWaitTime = loadLeaseWaitTime;
+    }
+
+    public long getLoadLeasePollInterval() {
+        return loadLeasePollInterval;
+    }
+
+    public void setLoadLeasePollInterval(long loadLeasePollInterval) {
+        this.loadLeasePollInterval = loadLeasePollInterval;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public long getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(long refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+
+    public int getL1MaxSize() {
+        return l1MaxSize;
+    }
+
+    public void setL1MaxSize(int l1MaxSize) {
+        this.l1MaxSize = l1MaxSize;
+    }
+
+    public long getL1MaximumWeight() {
+        return l1MaximumWeight;
+    }
+
+    public void setL1MaximumWeight(long l1MaximumWeight) {
+        this.l1MaximumWeight = l1MaximumWeight;
+    }
+
+    public long getL1ExpireAfterWrite() {
+        return l1ExpireAfterWrite;
+    }
+
+    public void setL1ExpireAfterWrite(long l1ExpireAfterWrite) {
+        this.l1ExpireAfterWrite = l1ExpireAfterWrite;
+    }
+
+    public long getL1ExpireAfterAccess() {
+        return l1ExpireAfterAccess;
+    }
+
+    public void setL1ExpireAfterAccess(long l1ExpireAfterAccess) {
+        this.l1ExpireAfterAccess = l1ExpireAfterAccess;
+    }
+
+    public int getL1InitialCapacity() {
+        return l1InitialCapacity;
+    }
+
+    public void setL1InitialCapacity(int l1InitialCapacity) {
+        this.l1InitialCapacity = l1InitialCapacity;
+    }
+
+    public long getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(long negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public int getNegativeMaxSize() {
+        return negativeMaxSize;
+    }
+
+    public void setNegativeMaxSize(int negativeMaxSize) {
+        this.negativeMaxSize = negativeMaxSize;
+    }
+
+    public boolean isBloomFilter() {
+        return bloomFilter;
+    }
+
+    public void setBloomFilter(boolean bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    public long getBloomExpectedInsertions() {
+        return bloomExpectedInsertions;
+    }
+
+    public void setBloomExpectedInsertions(long bloomExpectedInsertions) {
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+    }
+
+    public double getBloomFpp() {
+        return bloomFpp;
+    }
+
+    public void setBloomFpp(double bloomFpp) {
+        this.bloomFpp = bloomFpp;
+    }
+
+    public int getHotKeyTopK() {
+        return hotKeyTopK;
+    }
+
+    public void setHotKeyTopK(int hotKeyTopK) {
+        this.hotKeyTopK = hotKeyTopK;
+    }
+
+    public int getHotKeyPinThreshold() {
+        return hotKeyPinThreshold;
+    }
+
+    public void setHotKeyPinThreshold(int hotKeyPinThreshold) {
+        this.hotKeyPinThreshold = hotKeyPinThreshold;
+    }
+
+    public long getHotKeyRefreshInterval() {
+        return hotKeyRefreshInterval;
+    }
+
+    public void setHotKeyRefreshInterval(long hotKeyRefreshInterval) {
+        this.hotKeyRefreshInterval = hotKeyRefreshInterval;
+    }
+
+    /**
+     * 是否开启回源分布式租约
+     *
+     * @return true:开启
+     */
+    public boolean isLoadLeaseEnabled() {
+        return loadLeaseTime > 0;
+    }
+}
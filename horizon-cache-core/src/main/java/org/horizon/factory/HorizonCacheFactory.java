@@ -1,19 +1,47 @@
 package org.horizon.factory;
 
+import org.horizon.bloom.BloomFilterManager;
+import org.horizon.broadcast.BroadcastDispatcher;
+import org.horizon.broadcast.BroadcastTransport;
+import org.horizon.broadcast.CacheBroadcastCodec;
 import org.horizon.broadcast.CacheBroadcastMessage;
+import org.horizon.broadcast.CoalescingBroadcastPublisher;
+import org.horizon.cache.Cache;
+import org.horizon.cache.CacheSnapshot;
+import org.horizon.cache.L2CacheManager;
+import org.horizon.cache.WriteBehindQueue;
 import org.horizon.caffeine.CacheManager;
 import org.horizon.caffeine.CacheValue;
+import org.horizon.enums.BroadcastFormatEnum;
+import org.horizon.enums.BroadcastModeEnum;
 import org.horizon.enums.CacheTypeEnum;
 import org.horizon.enums.SerializerTypeEnum;
-import org.horizon.redis.RedisCache;
+import org.horizon.enums.WeigherTypeEnum;
+import org.horizon.memory.MemoryManager;
+import org.horizon.metrics.CacheMetrics;
+import org.horizon.metrics.CategoryStats;
+import org.horizon.metrics.HorizonCacheStats;
+import org.horizon.metrics.MetricsJmxExporter;
 import org.horizon.redis.RedisManager;
+import org.horizon.serialize.CacheValueEnvelope;
 import org.horizon.utils.CacheUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import redis.clients.jedis.BinaryJedisPubSub;
 
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.Deflater;
 
 /**
  * @author zhaoxun
@@ -36,28 +64,124 @@ public class HorizonCacheFactory {
         horizonCacheFactory = this;
     }
 
+    // 当前节点id，广播消息携带该id，用于忽略本节点发出的消息
+    private final String nodeId = UUID.randomUUID().toString();
+
     // 一级缓存提供者：默认走caffeine
     private String l1CacheProvider = CacheTypeEnum.CAFFEINE.getType();
     private int maxSize;
     private long expireAfterWrite;
-
-    // 二级缓存提供者：默认走redis
+    // L1缓存所有分类共享的内存预算，单位字节，小于等于0表示不开启，开启后未单独配置容量的分类按权重淘汰
+    private long l1MaxWeight = -1;
+    // L1缓存按权重淘汰时的权重计算方式：estimate(估算)、serialized(按L2序列化后的字节数)
+    private String l1Weigher = WeigherTypeEnum.ESTIMATE.getType();
+    // L1内存预算按命中情况重新分配的间隔，单位秒
+    private long l1RebalanceInterval = 60;
+    // L2未命中时空值标记的过期时间，单位秒，小于等于0表示不单独存放空值标记(与真实数据一起受L1容量和过期时间限制)
+    private long l1NegativeTtl = 60;
+    // 每个分类空值标记的最大条目数
+    private int l1NegativeMaxSize = 10000;
+    // L1为offheap时最大占用的堆外内存，单位字节，默认256MB
+    private long offHeapMaxMemory = 256L * 1024 * 1024;
+    // L1为offheap时单个slab的字节数，也是单个缓存值的最大字节数，默认16MB
+    private int offHeapSlabSize = 16 * 1024 * 1024;
+    // L1与L2之间的本地磁盘层(内存映射文件)数据目录，为空表示不开启，只对caffeine生效
+    private String diskTierPath;
+    // 本地磁盘层最大占用的磁盘空间，单位字节，默认1GB
+    private long diskTierMaxBytes = 1024L * 1024 * 1024;
+    // 本地磁盘层单个segment文件的字节数，也是单个缓存值的最大字节数，默认64MB
+    private int diskTierSegmentSize = 64 * 1024 * 1024;
+    // 本地磁盘层有效数据占比低于该值的segment在空间不足时优先压缩
+    private double diskTierCompactRatio = 0.5;
+
+    // L1热点数据快照文件路径，为空表示不开启；停止时写入各分类最热的数据，启动时校验L2后加载回L1
+    private String snapshotPath;
+    // 快照中每个分类最多写入的条目数
+    private int snapshotMaxEntries = 10000;
+    // 启动时并行加载快照的线程数
+    private int snapshotLoadThreads = 4;
+    // 加载快照时每批校验L2的条目数
+    private int snapshotLoadBatchSize = 200;
+
+    // 二级缓存提供者：默认走redis，可选memory(jvm内L2，广播也在jvm内投递)
     private String l2CacheProvider = CacheTypeEnum.REDIS.getType();
+    // memory L2的最大权重，按key和value的字节数计算，小于等于0表示不限制
+    private long l2MemoryMaxWeight = MemoryManager.DEFAULT_MAXIMUM_WEIGHT;
     private String serializer = SerializerTypeEnum.JAVA.getType();
+    // redis节点；L2为memory时作为存储名称，同一个jvm内名称相同的缓存工厂共享L2数据和广播
     private String nodes;
     private String username;
     private String password;
+    // L2数据压缩阈值，单位字节，超过该大小的数据压缩后存储，小于等于0表示不压缩
+    private int compressThreshold = -1;
+    // L2数据压缩级别，参考java.util.zip.Deflater，默认BEST_SPEED
+    private int compressLevel = Deflater.BEST_SPEED;
+
+    // 广播模式：默认refetch，收到广播后重新读取L2缓存
+    private String broadcastMode = BroadcastModeEnum.REFETCH.getType();
+    // 广播消息发送格式：默认java，旧版本节点只能解码java序列化，所有节点升级完成后再切换为binary
+    private String broadcastFormat = BroadcastFormatEnum.JAVA.getType();
+    // push模式下单个缓存值允许携带的最大字节数，超过则该key退化为invalidate
+    private int pushValueMaxBytes = 4096;
+    // 广播合并发送的刷新间隔，单位毫秒，小于等于0表示不合并，每次写入立即发送
+    private long broadcastFlushInterval = -1;
+    // 合并发送时单条广播消息最多携带的key数，待发送key数达到该值时立即刷新
+    private int broadcastBatchSize = 500;
+    // 合并发送时待发送key的最大数量，达到后由写入线程同步刷新
+    private int broadcastQueueCapacity = 10000;
+    // 广播消息处理线程数，同一个key的消息固定由同一个线程处理
+    private int broadcastWorkerThreads = 4;
+    // 每个广播消息处理线程等待处理的最大key数，达到后阻塞订阅线程
+    private int broadcastWorkerQueueCapacity = 10000;
+
+    // 异步操作执行L2 IO的线程池，未设置时启动默认线程池
+    private Executor asyncExecutor;
+    // 默认异步线程池的线程数
+    private int asyncThreads = 8;
+    private ExecutorService defaultAsyncExecutor;
+
+    // L2异步写的刷新间隔，单位毫秒
+    private long writeBehindFlushInterval = 100;
+    // L2异步写单次pipeline最多写入的key数
+    private int writeBehindBatchSize = 500;
+    // L2异步写队列最多容纳的key数，队列满时同步写入
+    private int writeBehindQueueCapacity = 10000;
+    // L2异步写失败后的最大重试次数，超过后丢弃该数据并记录错误日志
+    private int writeBehindMaxRetries = 3;
+    private WriteBehindQueue writeBehindQueue;
+
+    // 布隆过滤器默认预期条目数，只对开启了bloomFilter的分类生效
+    private long bloomExpectedInsertions = 1000000;
+    // 布隆过滤器默认误判率
+    private double bloomFpp = 0.01;
+    // 本地布隆过滤器与redis bitmap同步的间隔，单位秒
+    private long bloomSyncInterval = 30;
+    // 布隆过滤器重建租约时长，单位毫秒
+    private long bloomRebuildLeaseTime = 10 * 60 * 1000;
+    private BloomFilterManager bloomFilterManager;
+
+    // 缓存统计，记录各分类命中、redis耗时、序列化耗时和广播情况
+    private final CacheMetrics metrics = new CacheMetrics();
+    // 是否把统计注册为JMX MBean
+    private boolean jmxEnabled = true;
+    private MetricsJmxExporter jmxExporter;
+
+    // 缓存分类级别配置，key为分类名称
+    private final ConcurrentHashMap<String, CacheCategoryConfig> categoryConfigs = new ConcurrentHashMap<>();
+    // 缓存分类注册的回源加载方法，L1刷新时L2不存在则通过它加载，入参为业务key
+    private final ConcurrentHashMap<String, Function<String, CacheValue>> refreshLoaders = new ConcurrentHashMap<>();
 
     //原子标识，用来标识当前缓存工厂是否已经停止
     public volatile boolean isStop = false;
 
     private CacheManager l1CacheManager;
-    private RedisManager l2CacheManager;
+    private L2CacheManager l2CacheManager;
 
     //订阅通道[简单理解为mq的topic主题]
     private final String channel = "horizon-cache-channel";
-    private Thread broadcastListenerThread;
-    private BinaryJedisPubSub jedisPubSub;
+    private BroadcastTransport broadcastTransport;
+    private CoalescingBroadcastPublisher broadcastPublisher;
+    private BroadcastDispatcher broadcastDispatcher;
 
     /**
      * 启动缓存工厂
@@ -65,52 +189,139 @@ public class HorizonCacheFactory {
     public void start() {
         isStop = false;
 
-        //校验一级缓存组件名称，暂时只支持caffeine
-        if (!CacheTypeEnum.CAFFEINE.getType().equals(l1CacheProvider)) {
-            throw new RuntimeException("l1 cache only support caffeine cache now!!!");
+        //校验一级缓存组件名称，支持caffeine和offheap
+        CacheTypeEnum l1CacheType = CacheTypeEnum.match(l1CacheProvider);
+        if (l1CacheType != CacheTypeEnum.CAFFEINE && l1CacheType != CacheTypeEnum.OFFHEAP) {
+            throw new RuntimeException("l1 cache only support caffeine or offheap cache now!!!");
         }
 
-        l1CacheManager = new CacheManager(CacheTypeEnum.CAFFEINE, maxSize, expireAfterWrite);
+        l1CacheManager = new CacheManager(l1CacheType, maxSize, expireAfterWrite);
+        l1CacheManager.setCategoryConfigs(categoryConfigs);
+        l1CacheManager.setReloader(this::reload);
+        WeigherTypeEnum weigherType = WeigherTypeEnum.match(l1Weigher);
+        if (weigherType == null) {
+            throw new RuntimeException("l1 weigher not support: " + l1Weigher);
+        }
+        l1CacheManager.setMaxWeight(l1MaxWeight);
+        l1CacheManager.setWeigherType(weigherType);
+        SerializerTypeEnum serializerType = SerializerTypeEnum.match(serializer);
+        l1CacheManager.setSerializer(serializerType != null ? serializerType.getSerializer() : null);
+        l1CacheManager.setOffHeapMaxMemory(offHeapMaxMemory);
+        l1CacheManager.setOffHeapSlabSize(offHeapSlabSize);
+        l1CacheManager.setDiskTierPath(diskTierPath);
+        l1CacheManager.setDiskTierMaxBytes(diskTierMaxBytes);
+        l1CacheManager.setDiskTierSegmentSize(diskTierSegmentSize);
+        l1CacheManager.setDiskTierCompactRatio(diskTierCompactRatio);
+        l1CacheManager.setRebalanceInterval(l1RebalanceInterval);
+        l1CacheManager.setNegativeTtl(l1NegativeTtl);
+        l1CacheManager.setNegativeMaxSize(l1NegativeMaxSize);
         l1CacheManager.start();
 
-        //校验二级缓存组件名称，暂时只支持redis
-        if (!CacheTypeEnum.REDIS.getType().equals(l2CacheProvider)) {
-            throw new RuntimeException("l2 cache only support redis cache now!!!");
+        //校验二级缓存组件名称，支持redis和memory
+        CacheTypeEnum l2CacheType = CacheTypeEnum.match(l2CacheProvider);
+        if (l2CacheType == CacheTypeEnum.REDIS) {
+            RedisManager redisManager = new RedisManager(serializer, nodes, username, password);
+            redisManager.setCompressThreshold(compressThreshold);
+            redisManager.setCompressLevel(compressLevel);
+            l2CacheManager = redisManager;
+        } else if (l2CacheType == CacheTypeEnum.MEMORY) {
+            MemoryManager memoryManager = new MemoryManager(serializer, nodes);
+            memoryManager.setCompressThreshold(compressThreshold);
+            memoryManager.setCompressLevel(compressLevel);
+            memoryManager.setMaximumWeight(l2MemoryMaxWeight);
+            l2CacheManager = memoryManager;
+        } else {
+            throw new RuntimeException("l2 cache only support redis or memory cache now!!!");
         }
-
-        l2CacheManager = new RedisManager(serializer, nodes, username, password);
         l2CacheManager.start();
+        l2CacheManager.getCache().setMetrics(metrics);
+        broadcastTransport = l2CacheManager.createBroadcastTransport();
+
+        if (jmxEnabled) {
+            jmxExporter = new MetricsJmxExporter(metrics, category -> l1CacheManager.getCaches().get(category));
+            jmxExporter.start();
+        }
+
+        //L2异步写队列，只有开启了writeBehind的分类才会使用
+        writeBehindQueue = new WriteBehindQueue(l2CacheManager.getCache(), this::broadcastWriteBehind,
+                writeBehindFlushInterval, writeBehindBatchSize, writeBehindQueueCapacity, writeBehindMaxRetries);
+        writeBehindQueue.start();
+
+        //分类布隆过滤器，没有分类开启时也会启动，运行时新增的分类配置可以生效
+        bloomFilterManager = new BloomFilterManager(l2CacheManager.getCache(), categoryConfigs, bloomExpectedInsertions,
+                bloomFpp, bloomSyncInterval > 0 ? bloomSyncInterval : 30, bloomRebuildLeaseTime);
+        bloomFilterManager.start();
+
+        //未指定异步线程池时使用默认线程池
+        if (asyncExecutor == null) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            defaultAsyncExecutor = Executors.newFixedThreadPool(asyncThreads, r -> {
+                Thread thread = new Thread(r, "horizonCacheAsyncThread-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            asyncExecutor = defaultAsyncExecutor;
+        }
+
+        //校验广播模式
+        if (BroadcastModeEnum.match(broadcastMode) == null) {
+            throw new RuntimeException("broadcast mode not support: " + broadcastMode);
+        }
+        if (BroadcastFormatEnum.match(broadcastFormat) == null) {
+            throw new RuntimeException("broadcast format not support: " + broadcastFormat);
+        }
+
+        //开启广播合并发送
+        if (broadcastFlushInterval > 0) {
+            broadcastPublisher = new CoalescingBroadcastPublisher(this::publish, broadcastFlushInterval, broadcastBatchSize, broadcastQueueCapacity);
+            broadcastPublisher.start();
+        }
 
         //开启订阅
         subscribe();
+
+        //开启订阅后再加载快照，加载期间收到的广播可以正常处理
+        loadSnapshot();
         log.info("horizon-cache factory start success!!!");
     }
 
     public void stop() {
         isStop = true;
+        if (writeBehindQueue != null) {
+            //把异步写队列中剩余的数据写入L2
+            writeBehindQueue.stop();
+        }
+        if (broadcastPublisher != null) {
+            //发送剩余未发送的广播
+            broadcastPublisher.stop();
+        }
+        if (broadcastTransport != null) {
+            //取消订阅并停止监听线程，不再接收新的广播
+            broadcastTransport.close();
+        }
+        if (broadcastDispatcher != null) {
+            //处理完已收到的广播，此时L1和L2仍然可用
+            broadcastDispatcher.stop();
+        }
+        if (bloomFilterManager != null) {
+            bloomFilterManager.stop();
+        }
+        if (jmxExporter != null) {
+            jmxExporter.stop();
+        }
+        //L1停止前写入热点数据快照
+        writeSnapshot();
         if (l1CacheManager != null) {
             l1CacheManager.stop();
         }
         if (l2CacheManager != null) {
             l2CacheManager.stop();
         }
-        if (jedisPubSub != null) {
-            //解除订阅后，触发2阶段提交，若广播线程下次执行while则退出循环并结束
-            jedisPubSub.unsubscribe();
-        }
-        if (broadcastListenerThread != null) {
-            try {
-                if (broadcastListenerThread.getState() != Thread.State.TERMINATED) {
-                    broadcastListenerThread.interrupt();
-                    try {
-                        broadcastListenerThread.join();
-                    } catch (Exception e) {
-                        log.error("broadcast listener thread join error:{}", e.getMessage(), e);
-                    }
-                }
-            } catch (Exception e) {
-                log.error("broadcast listener thread stop error:{}", e.getMessage(), e);
-            }
+
+        if (defaultAsyncExecutor != null) {
+            defaultAsyncExecutor.shutdown();
+            asyncExecutor = null;
+            defaultAsyncExecutor = null;
         }
 
         log.info("horizon-cache factory stop finish!!!");
@@ -121,56 +332,104 @@ public class HorizonCacheFactory {
      * 开始订阅
      */
     public void subscribe() {
-        jedisPubSub = new BinaryJedisPubSub() {
+        broadcastDispatcher = new BroadcastDispatcher(this::handleBroadcastMessage, broadcastWorkerThreads, broadcastWorkerQueueCapacity, metrics);
+        broadcastDispatcher.start();
+        AtomicBoolean subscribed = new AtomicBoolean();
+        broadcastTransport.subscribe(channel, new BroadcastTransport.Listener() {
             @Override
-            public void onMessage(byte[] channel, byte[] message) {
-                //解码消息
-                CacheBroadcastMessage broadcastMessage = SerializerTypeEnum.JAVA.getSerializer().deserialize(message);
-                //拿到通知的最终key
-                String finalKey = CacheUtil.generateKey(broadcastMessage.getCategory(), broadcastMessage.getKey());
-                //获取L2缓存值，用于更新L1缓存
-                CacheValue cacheValue = HorizonCacheFactory.getInstance().getL2CacheManager().getCache().get(finalKey);
-                if (cacheValue == null) {
-                    cacheValue = new CacheValue(null);
-                }
-                //更新L1缓存
-                HorizonCacheFactory.getInstance().getL1CacheManager().getCache(broadcastMessage.getCategory()).set(finalKey, cacheValue);
-                log.info("horizon-cache factory receive broadcast message, key: {}, value: {}", finalKey, cacheValue);
+            public void onMessage(byte[] message) {
+                onBroadcastMessage(message);
             }
 
             @Override
-            public void onSubscribe(byte[] channel, int subscribedChannels) {
-                log.info("horizon-cache factory subscribe channel: {}, total channels:{}", new String(channel, StandardCharsets.UTF_8), subscribedChannels);
+            public void onSubscribe() {
+                //首次之后的每次订阅成功都是断线后的重新订阅
+                if (subscribed.getAndSet(true)) {
+                    metrics.recordBroadcastReconnect();
+                }
             }
+        });
+    }
 
-            @Override
-            public void onUnsubscribe(byte[] channel, int subscribedChannels) {
-                log.info("horizon-cache factory unsubscribe channel: {}, total channels:{}", new String(channel, StandardCharsets.UTF_8), subscribedChannels);
+    /**
+     * 处理订阅收到的广播消息，在订阅线程中执行
+     *
+     * @param message 编码后的广播消息
+     */
+    public void onBroadcastMessage(byte[] message) {
+        //解码消息，无法解码的消息只记录日志，不能中断订阅
+        CacheBroadcastMessage broadcastMessage;
+        try {
+            broadcastMessage = CacheBroadcastCodec.decode(message);
+        } catch (Exception e) {
+            log.error("horizon-cache factory decode broadcast message error:{}", e.getMessage(), e);
+            return;
+        }
+        //忽略本节点发出的消息，本节点在写入时已经更新过L1缓存
+        if (nodeId.equals(broadcastMessage.getNodeId())) {
+            return;
+        }
+        metrics.recordBroadcastReceived(broadcastMessage.getTimestamp());
+        //交给工作线程异步处理，订阅线程只负责解码
+        broadcastDispatcher.dispatch(broadcastMessage);
+    }
+
+    /**
+     * 处理广播消息，按消息的广播模式更新本地L1缓存
+     *
+     * @param broadcastMessage 广播消息
+     */
+    private void handleBroadcastMessage(CacheBroadcastMessage broadcastMessage) {
+        //拿到通知的最终key
+        List<String> keys = broadcastMessage.allKeys();
+        List<String> finalKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            finalKeys.add(CacheUtil.generateKey(broadcastMessage.getCategory(), key));
+        }
+        if (finalKeys.isEmpty()) {
+            return;
+        }
+        //其他节点写入的key合并到本地布隆过滤器，删除消息带来的多余位只影响误判率
+        if (bloomFilterManager != null) {
+            bloomFilterManager.addLocal(broadcastMessage.getCategory(), finalKeys);
+        }
+        Cache l1Cache = getL1CacheManager().getCache(broadcastMessage.getCategory());
+        BroadcastModeEnum mode = BroadcastModeEnum.match(broadcastMessage.getMode());
+        if (mode == BroadcastModeEnum.INVALIDATE) {
+            //只删除L1缓存，下次读取时懒加载
+            l1Cache.deleteAll(finalKeys);
+            log.info("horizon-cache factory receive broadcast message, invalidate keys: {}", finalKeys);
+        } else if (mode == BroadcastModeEnum.PUSH) {
+            //直接使用消息携带的值更新L1缓存，未携带值的key只做失效处理
+            List<byte[]> values = broadcastMessage.getValues();
+            Map<String, CacheValue> cacheValues = new HashMap<>(finalKeys.size());
+            List<String> invalidKeys = new ArrayList<>();
+            for (int i = 0; i < finalKeys.size(); i++) {
+                byte[] value = values != null && i < values.size() ? values.get(i) : null;
+                if (value != null) {
+                    cacheValues.put(finalKeys.get(i), CacheValueEnvelope.decode(getL2CacheManager().getSerializer(), value));
+                } else {
+                    invalidKeys.add(finalKeys.get(i));
+                }
             }
-        };
-
-        //监听线程启动
-        broadcastListenerThread = new Thread(() -> {
-            while (!isStop) {
-                //开启订阅监听线程
-                while (!isStop) {
-                    try {
-                        RedisCache redisCache = (RedisCache) l2CacheManager.getCache();
-                        //这个方法会一直阻塞当前线程，直到发生异常或手动取消订阅
-                        redisCache.subscribe(channel, jedisPubSub);
-                    } catch (Exception e) {
-                        log.error("broadcast listener thread error", e);
-                        try {
-                            TimeUnit.SECONDS.sleep(3);
-                        } catch (InterruptedException e1) {
-                            log.error("broadcast listener [catch] thread error", e1);
-                        }
-                    }
+            l1Cache.setAll(cacheValues);
+            l1Cache.deleteAll(invalidKeys);
+            log.info("horizon-cache factory receive broadcast message, push keys: {}, invalidate keys: {}", cacheValues.keySet(), invalidKeys);
+        } else {
+            //批量获取L2缓存值，用于更新L1缓存，一次往返即可
+            Map<String, CacheValue> cacheValues = getL2CacheManager().getCache().getAll(finalKeys);
+            Map<String, CacheValue> l1CacheValues = new HashMap<>(finalKeys.size());
+            for (String finalKey : finalKeys) {
+                CacheValue cacheValue = cacheValues.get(finalKey);
+                if (cacheValue == null) {
+                    cacheValue = new CacheValue(null);
                 }
+                l1CacheValues.put(finalKey, cacheValue);
             }
-        }, "broadcastListenerThread");
-        broadcastListenerThread.setDaemon(true);
-        broadcastListenerThread.start();
+            //更新L1缓存
+            l1Cache.setAll(l1CacheValues);
+            log.info("horizon-cache factory receive broadcast message, keys: {}, values: {}", finalKeys, l1CacheValues);
+        }
     }
 
     /**
@@ -179,15 +438,378 @@ public class HorizonCacheFactory {
      * @param message 广播消息
      */
     public void broadcast(CacheBroadcastMessage message) {
-        RedisCache redisCache = (RedisCache) l2CacheManager.getCache();
-        redisCache.publish(channel, message);
+        message.setNodeId(nodeId);
+        if (message.getMode() == null) {
+            //不携带缓存值的消息(如删除)在push模式下按失效处理
+            message.setMode(broadcastMode);
+        }
+        if (broadcastPublisher != null) {
+            broadcastPublisher.offer(message);
+        } else {
+            publish(message);
+        }
+    }
+
+    /**
+     * 发送广播消息
+     *
+     * @param message 广播消息
+     */
+    private void publish(CacheBroadcastMessage message) {
+        message.setTimestamp(System.currentTimeMillis());
+        broadcastTransport.publish(channel, CacheBroadcastCodec.encode(message, BroadcastFormatEnum.match(broadcastFormat)));
+        metrics.recordBroadcastPublished();
+    }
+
+    /**
+     * 广播缓存写入消息，push模式下消息携带序列化后的缓存值
+     *
+     * @param category    缓存分类名称
+     * @param cacheValues 业务key和缓存值
+     */
+    public void broadcast(String category, Map<String, CacheValue> cacheValues) {
+        List<String> keys = new ArrayList<>(cacheValues.keySet());
+        CacheBroadcastMessage message = keys.size() == 1 ? new CacheBroadcastMessage(category, keys.get(0)) : new CacheBroadcastMessage(category, keys);
+        message.setMode(broadcastMode);
+        if (BroadcastModeEnum.PUSH.getType().equals(broadcastMode)) {
+            List<byte[]> values = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                byte[] value = CacheValueEnvelope.encode(getL2CacheManager().getSerializer(), cacheValues.get(key));
+                values.add(value.length <= pushValueMaxBytes ? value : null);
+            }
+            message.setValues(values);
+        }
+        broadcast(message);
+    }
+
+    /**
+     * 异步写入L2完成后广播
+     *
+     * @param category    缓存分类名称
+     * @param cacheValues 业务key和缓存值，缓存值为null表示删除
+     */
+    private void broadcastWriteBehind(String category, Map<String, CacheValue> cacheValues) {
+        Map<String, CacheValue> setValues = new HashMap<>();
+        List<String> deleteKeys = new ArrayList<>();
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            if (entry.getValue() != null) {
+                setValues.put(entry.getKey(), entry.getValue());
+            } else {
+                deleteKeys.add(entry.getKey());
+            }
+        }
+        if (!setValues.isEmpty()) {
+            broadcast(category, setValues);
+        }
+        if (!deleteKeys.isEmpty()) {
+            broadcast(new CacheBroadcastMessage(category, deleteKeys));
+        }
+    }
+
+    /**
+     * L1缓存刷新时重新加载，优先读取L2，L2不存在时使用分类注册的回源加载方法
+     *
+     * @param category 缓存分类名称
+     * @param finalKey 最终缓存key
+     * @return 缓存值，null表示数据已不存在
+     */
+    private CacheValue reload(String category, String finalKey) {
+        WriteBehindQueue.PendingWrite pendingWrite = writeBehindQueue != null ? writeBehindQueue.getPending(finalKey) : null;
+        if (pendingWrite != null) {
+            return pendingWrite.getCacheValue();
+        }
+        CacheValue cacheValue = l2CacheManager.getCache().get(finalKey);
+        if (cacheValue != null) {
+            return cacheValue;
+        }
+        Function<String, CacheValue> refreshLoader = refreshLoaders.get(category);
+        return refreshLoader != null ? refreshLoader.apply(CacheUtil.parseKey(category, finalKey)) : null;
+    }
+
+    /**
+     * 注册缓存分类的回源加载方法，用于L1刷新时L2不存在的情况
+     *
+     * @param category      缓存分类名称
+     * @param refreshLoader 回源加载方法，入参为业务key，返回null表示数据不存在
+     */
+    public void registerRefreshLoader(String category, Function<String, CacheValue> refreshLoader) {
+        refreshLoaders.put(category, refreshLoader);
+    }
+
+    /**
+     * 写入L1热点数据快照，失败不影响停止流程
+     */
+    private void writeSnapshot() {
+        if (snapshotPath == null || snapshotPath.isEmpty() || l1CacheManager == null || l2CacheManager == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int count = CacheSnapshot.write(new File(snapshotPath), l1CacheManager, l2CacheManager.getSerializer(), snapshotMaxEntries);
+            log.info("horizon-cache factory write snapshot, entries:{}, cost:{}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("horizon-cache factory write snapshot error:{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 加载L1热点数据快照，失败时以空的L1启动
+     */
+    private void loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int count = CacheSnapshot.load(new File(snapshotPath), l1CacheManager, l2CacheManager.getCache(),
+                    l2CacheManager.getSerializer(), snapshotLoadThreads, snapshotLoadBatchSize);
+            log.info("horizon-cache factory load snapshot, entries:{}, cost:{}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("horizon-cache factory load snapshot error:{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取缓存分类配置，未配置时返回默认配置
+     *
+     * @param category 缓存分类名称
+     * @return 缓存分类配置
+     */
+    public CacheCategoryConfig getCategoryConfig(String category) {
+        CacheCategoryConfig config = categoryConfigs.get(category);
+        return config != null ? config : new CacheCategoryConfig(category);
+    }
+
+    /**
+     * 添加缓存分类配置
+     *
+     * @param config 缓存分类配置
+     */
+    public void addCategoryConfig(CacheCategoryConfig config) {
+        if (config == null || config.getCategory() == null || config.getCategory().isEmpty()) {
+            throw new IllegalArgumentException("category config and category name can not be empty!");
+        }
+        if (l1CacheManager != null && l1CacheManager.containsCache(config.getCategory())) {
+            log.warn("horizon-cache category {} L1 cache already created, L1 settings of the new config will not take effect", config.getCategory());
+        }
+        categoryConfigs.put(config.getCategory(), config);
+    }
+
+    public Map<String, CacheCategoryConfig> getCategoryConfigs() {
+        return categoryConfigs;
+    }
+
+    public void setCategoryConfigs(List<CacheCategoryConfig> configs) {
+        if (configs != null) {
+            for (CacheCategoryConfig config : configs) {
+                addCategoryConfig(config);
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getBroadcastMode() {
+        return broadcastMode;
+    }
+
+    public void setBroadcastMode(String broadcastMode) {
+        this.broadcastMode = broadcastMode;
+    }
+
+    public String getBroadcastFormat() {
+        return broadcastFormat;
+    }
+
+    public void setBroadcastFormat(String broadcastFormat) {
+        this.broadcastFormat = broadcastFormat;
+    }
+
+    public int getPushValueMaxBytes() {
+        return pushValueMaxBytes;
+    }
+
+    public void setPushValueMaxBytes(int pushValueMaxBytes) {
+        this.pushValueMaxBytes = pushValueMaxBytes;
+    }
+
+    public long getBroadcastFlushInterval() {
+        return broadcastFlushInterval;
+    }
+
+    public void setBroadcastFlushInterval(long broadcastFlushInterval) {
+        this.broadcastFlushInterval = broadcastFlushInterval;
+    }
+
+    public int getBroadcastBatchSize() {
+        return broadcastBatchSize;
+    }
+
+    public void setBroadcastBatchSize(int broadcastBatchSize) {
+        this.broadcastBatchSize = broadcastBatchSize;
+    }
+
+    public int getBroadcastQueueCapacity() {
+        return broadcastQueueCapacity;
+    }
+
+    public void setBroadcastQueueCapacity(int broadcastQueueCapacity) {
+        this.broadcastQueueCapacity = broadcastQueueCapacity;
+    }
+
+    public int getBroadcastWorkerThreads() {
+        return broadcastWorkerThreads;
+    }
+
+    public void setBroadcastWorkerThreads(int broadcastWorkerThreads) {
+        this.broadcastWorkerThreads = broadcastWorkerThreads;
+    }
+
+    public int getBroadcastWorkerQueueCapacity() {
+        return broadcastWorkerQueueCapacity;
+    }
+
+    public void setBroadcastWorkerQueueCapacity(int broadcastWorkerQueueCapacity) {
+        this.broadcastWorkerQueueCapacity = broadcastWorkerQueueCapacity;
+    }
+
+    public long getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public void setWriteBehindFlushInterval(long writeBehindFlushInterval) {
+        this.writeBehindFlushInterval = writeBehindFlushInterval;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public void setWriteBehindQueueCapacity(int writeBehindQueueCapacity) {
+        this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+    }
+
+    public int getWriteBehindMaxRetries() {
+        return writeBehindMaxRetries;
+    }
+
+    public void setWriteBehindMaxRetries(int writeBehindMaxRetries) {
+        this.writeBehindMaxRetries = writeBehindMaxRetries;
+    }
+
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
+    /**
+     * 原始统计数据
+     */
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 全局统计：redis命令耗时、序列化耗时、广播发送接收和重连次数等
+     */
+    public HorizonCacheStats getStats() {
+        return new HorizonCacheStats(metrics);
+    }
+
+    /**
+     * 分类统计：L1/L2命中率、get耗时、回源次数、L1条目数和空值缓存等
+     *
+     * @param category 缓存分类名称
+     * @return 分类统计，分类还没有任何读写时各项为0
+     */
+    public CategoryStats getStats(String category) {
+        return new CategoryStats(category, metrics.category(category),
+                () -> l1CacheManager != null ? l1CacheManager.getCaches().get(category) : null);
+    }
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    public BloomFilterManager getBloomFilterManager() {
+        return bloomFilterManager;
+    }
+
+    public long getBloomExpectedInsertions() {
+        return bloomExpectedInsertions;
+    }
+
+    public void setBloomExpectedInsertions(long bloomExpectedInsertions) {
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+    }
+
+    public double getBloomFpp() {
+        return bloomFpp;
+    }
+
+    public void setBloomFpp(double bloomFpp) {
+        this.bloomFpp = bloomFpp;
+    }
+
+    public long getBloomSyncInterval() {
+        return bloomSyncInterval;
+    }
+
+    public void setBloomSyncInterval(long bloomSyncInterval) {
+        this.bloomSyncInterval = bloomSyncInterval;
+    }
+
+    public long getBloomRebuildLeaseTime() {
+        return bloomRebuildLeaseTime;
+    }
+
+    public void setBloomRebuildLeaseTime(long bloomRebuildLeaseTime) {
+        this.bloomRebuildLeaseTime = bloomRebuildLeaseTime;
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+    public void setAsyncThreads(int asyncThreads) {
+        this.asyncThreads = asyncThreads;
+    }
+
+    /**
+     * 获取广播消息分发器，可用于查看队列积压、合并和阻塞等背压指标
+     *
+     * @return 广播消息分发器
+     */
+    public BroadcastDispatcher getBroadcastDispatcher() {
+        return broadcastDispatcher;
     }
 
     public CacheManager getL1CacheManager() {
         return l1CacheManager;
     }
 
-    public RedisManager getL2CacheManager() {
+    public L2CacheManager getL2CacheManager() {
         return l2CacheManager;
     }
 
@@ -215,6 +837,126 @@ public class HorizonCacheFactory {
         this.expireAfterWrite = expireAfterWrite;
     }
 
+    public long getL1MaxWeight() {
+        return l1MaxWeight;
+    }
+
+    public void setL1MaxWeight(long l1MaxWeight) {
+        this.l1MaxWeight = l1MaxWeight;
+    }
+
+    public String getL1Weigher() {
+        return l1Weigher;
+    }
+
+    public void setL1Weigher(String l1Weigher) {
+        this.l1Weigher = l1Weigher;
+    }
+
+    public long getL1RebalanceInterval() {
+        return l1RebalanceInterval;
+    }
+
+    public void setL1RebalanceInterval(long l1RebalanceInterval) {
+        this.l1RebalanceInterval = l1RebalanceInterval;
+    }
+
+    public long getL1NegativeTtl() {
+        return l1NegativeTtl;
+    }
+
+    public void setL1NegativeTtl(long l1NegativeTtl) {
+        this.l1NegativeTtl = l1NegativeTtl;
+    }
+
+    public int getL1NegativeMaxSize() {
+        return l1NegativeMaxSize;
+    }
+
+    public void setL1NegativeMaxSize(int l1NegativeMaxSize) {
+        this.l1NegativeMaxSize = l1NegativeMaxSize;
+    }
+
+    public long getOffHeapMaxMemory() {
+        return offHeapMaxMemory;
+    }
+
+    public void setOffHeapMaxMemory(long offHeapMaxMemory) {
+        this.offHeapMaxMemory = offHeapMaxMemory;
+    }
+
+    public int getOffHeapSlabSize() {
+        return offHeapSlabSize;
+    }
+
+    public void setOffHeapSlabSize(int offHeapSlabSize) {
+        this.offHeapSlabSize = offHeapSlabSize;
+    }
+
+    public String getDiskTierPath() {
+        return diskTierPath;
+    }
+
+    public void setDiskTierPath(String diskTierPath) {
+        this.diskTierPath = diskTierPath;
+    }
+
+    public long getDiskTierMaxBytes() {
+        return diskTierMaxBytes;
+    }
+
+    public void setDiskTierMaxBytes(long diskTierMaxBytes) {
+        this.diskTierMaxBytes = diskTierMaxBytes;
+    }
+
+    public int getDiskTierSegmentSize() {
+        return diskTierSegmentSize;
+    }
+
+    public void setDiskTierSegmentSize(int diskTierSegmentSize) {
+        this.diskTierSegmentSize = diskTierSegmentSize;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public int getSnapshotMaxEntries() {
+        return snapshotMaxEntries;
+    }
+
+    public void setSnapshotMaxEntries(int snapshotMaxEntries) {
+        this.snapshotMaxEntries = snapshotMaxEntries;
+    }
+
+    public int getSnapshotLoadThreads() {
+        return snapshotLoadThreads;
+    }
+
+    public void setSnapshotLoadThreads(int snapshotLoadThreads) {
+        this.snapshotLoadThreads = snapshotLoadThreads;
+    }
+
+    public int getSnapshotLoadBatchSize() {
+        return snapshotLoadBatchSize;
+    }
+
+    public void setSnapshotLoadBatchSize(int snapshotLoadBatchSize) {
+        this.snapshotLoadBatchSize = snapshotLoadBatchSize;
+    }
+
+    public double getDiskTierCompactRatio() {
+        return diskTierCompactRatio;
+    }
+
+    public void setDiskTierCompactRatio(double diskTierCompactRatio) {
+        this.diskTierCompactRatio = diskTierCompactRatio;
+    }
+
     public String getL2CacheProvider() {
         return l2CacheProvider;
     }
@@ -223,6 +965,14 @@ public class HorizonCacheFactory {
         this.l2CacheProvider = l2CacheProvider;
     }
 
+    public long getL2MemoryMaxWeight() {
+        return l2MemoryMaxWeight;
+    }
+
+    public void setL2MemoryMaxWeight(long l2MemoryMaxWeight) {
+        this.l2MemoryMaxWeight = l2MemoryMaxWeight;
+    }
+
     public String getSerializer() {
         return serializer;
     }
@@ -231,6 +981,22 @@ public class HorizonCacheFactory {
         this.serializer = serializer;
     }
 
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public int getCompressLevel() {
+        return compressLevel;
+    }
+
+    public void setCompressLevel(int compressLevel) {
+        this.compressLevel = compressLevel;
+    }
+
     public String getNodes() {
         return nodes;
     }
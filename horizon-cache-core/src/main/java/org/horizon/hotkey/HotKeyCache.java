@@ -0,0 +1,188 @@
+package org.horizon.hotkey;
+
+import org.horizon.cache.Cache;
+import org.horizon.caffeine.CacheValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 带热点key探测的L1缓存，每次读取都记录到HotKeyDetector；
+ * 频率达到固定阈值的热点key会被固定在单独的map中，不受L1容量淘汰和过期时间影响，由refresh定期从L2重新加载；
+ * 写入时同步更新已固定的值，删除(包括广播触发的失效)时解除固定，之后仍是热点的key会在下次读取时重新固定
+ */
+public class HotKeyCache implements Cache {
+    private static final Logger log = LoggerFactory.getLogger(HotKeyCache.class);
+
+    private final Cache delegate;
+    private final HotKeyDetector detector;
+    //固定热点key需要达到的估算频率，小于等于0表示只探测不固定
+    private final int pinThreshold;
+    //定期刷新固定key的方法，入参为缓存key，返回null表示数据已不存在
+    private final Function<String, CacheValue> reloader;
+    //已固定的热点key
+    private final ConcurrentHashMap<String, CacheValue> pinned = new ConcurrentHashMap<>();
+
+    public HotKeyCache(Cache delegate, int topK, int pinThreshold, Function<String, CacheValue> reloader) {
+        this.delegate = delegate;
+        this.detector = new HotKeyDetector(topK);
+        this.pinThreshold = pinThreshold;
+        this.reloader = reloader;
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 当前的热点key
+     *
+     * @return 按估算频率从高到低排列的缓存key和频率
+     */
+    public LinkedHashMap<String, Integer> getHotKeys() {
+        return detector.getHotKeys();
+    }
+
+    /**
+     * 当前固定的热点key
+     */
+    public Set<String> getPinnedKeys() {
+        return Collections.unmodifiableSet(pinned.keySet());
+    }
+
+    /**
+     * 刷新固定的key，已不是热点的key解除固定，然后把计数减半；由缓存管理器定时调用
+     */
+    public void refresh() {
+        int refreshed = 0;
+        for (Map.Entry<String, CacheValue> entry : pinned.entrySet()) {
+            String key = entry.getKey();
+            if (!detector.isHot(key, pinThreshold)) {
+                pinned.remove(key, entry.getValue());
+                continue;
+            }
+            CacheValue cacheValue;
+            try {
+                cacheValue = reloader.apply(key);
+            } catch (Exception e) {
+                log.error("HotKeyCache refresh key:{} error:{}", key, e.getMessage(), e);
+                continue;
+            }
+            //刷新期间被删除或重新写入的key不覆盖
+            if (cacheValue == null) {
+                pinned.remove(key, entry.getValue());
+            } else if (pinned.replace(key, entry.getValue(), cacheValue)) {
+                refreshed++;
+            }
+        }
+        detector.decay();
+        log.debug("HotKeyCache refresh, pinned:{}, refreshed:{}", pinned.size(), refreshed);
+    }
+
+    @Override
+    public void set(String key, CacheValue cacheValue) {
+        delegate.set(key, cacheValue);
+        pinned.computeIfPresent(key, (k, v) -> cacheValue);
+    }
+
+    @Override
+    public CacheValue get(String key) {
+        int count = detector.record(key);
+        CacheValue cacheValue = pinned.get(key);
+        if (cacheValue != null) {
+            return cacheValue;
+        }
+        cacheValue = delegate.get(key);
+        //只固定有值的key，空值标记交给L1正常过期
+        if (cacheValue != null && cacheValue.getValue() != null && pinThreshold > 0 && count >= pinThreshold
+                && detector.isHot(key, pinThreshold)) {
+            pin(key, cacheValue, count);
+        }
+        return cacheValue;
+    }
+
+    /**
+     * 固定热点key，在pinned的锁内确认L1中仍是读到的同一个对象才固定，避免读取后到达的删除或写入被旧值覆盖；
+     * delete和set先更新L1再更新pinned，确认之后到达的更新会在固定完成后再处理
+     */
+    private void pin(String key, CacheValue cacheValue, int count) {
+        if (pinned.computeIfAbsent(key, k -> delegate.get(k) == cacheValue ? cacheValue : null) == cacheValue) {
+            log.debug("HotKeyCache pin key:{}, count:{}", key, count);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        delegate.delete(key);
+        pinned.remove(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        CacheValue cacheValue = pinned.get(key);
+        if (cacheValue != null) {
+            return cacheValue.isValid();
+        }
+        return delegate.exists(key);
+    }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> result = new HashMap<>();
+        List<String> missKeys = new ArrayList<>();
+        for (String key : keys) {
+            detector.record(key);
+            CacheValue cacheValue = pinned.get(key);
+            if (cacheValue != null) {
+                result.put(key, cacheValue);
+            } else {
+                missKeys.add(key);
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            result.putAll(delegate.getAll(missKeys));
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        delegate.setAll(cacheValues);
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            pinned.computeIfPresent(entry.getKey(), (k, v) -> entry.getValue());
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        delegate.deleteAll(keys);
+        for (String key : keys) {
+            pinned.remove(key);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
+}
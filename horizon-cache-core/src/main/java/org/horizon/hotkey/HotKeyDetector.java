@@ -0,0 +1,134 @@
+package org.horizon.hotkey;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 热点key探测，count-min sketch统计访问频率，并维护频率最高的topK个key；
+ * 记录访问只需要几次原子自增，已在topK中的key无锁更新频率，只有新进入topK的key才会加锁；
+ * 调用decay后所有计数减半，使统计结果反映最近一段时间的热度
+ */
+public class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int topK;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+    //当前topK的key及其估算频率
+    private final ConcurrentHashMap<String, Integer> topKeys = new ConcurrentHashMap<>();
+    //topK已满时其中的最小频率，低于该值的key无需加锁
+    private volatile int threshold;
+
+    public HotKeyDetector(int topK) {
+        this.topK = topK;
+        //宽度取topK的64倍并向上取2的幂，碰撞带来的高估对热点key可以忽略
+        int width = Integer.highestOneBit(Math.max(topK * 64, 1024) - 1) << 1;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(width * DEPTH);
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key 缓存key
+     * @return 该key当前的估算频率
+     */
+    public int record(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = i * (mask + 1) + (spread(hash ^ SEEDS[i]) & mask);
+            int count = counters.incrementAndGet(index);
+            if (count < estimate) {
+                estimate = count;
+            }
+        }
+        if (estimate > threshold) {
+            //computeIfPresent不会把刚被移出topK的key重新放回
+            int value = estimate;
+            if (topKeys.computeIfPresent(key, (k, v) -> value) == null) {
+                offer(key, estimate);
+            }
+        }
+        return estimate;
+    }
+
+    private synchronized void offer(String key, int estimate) {
+        if (estimate <= threshold) {
+            return;
+        }
+        topKeys.put(key, estimate);
+        if (topKeys.size() > topK) {
+            String minKey = null;
+            int min = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> entry : topKeys.entrySet()) {
+                if (entry.getValue() < min) {
+                    min = entry.getValue();
+                    minKey = entry.getKey();
+                }
+            }
+            topKeys.remove(minKey);
+        }
+        if (topKeys.size() >= topK) {
+            threshold = Collections.min(topKeys.values());
+        }
+    }
+
+    /**
+     * 所有计数减半，topK中的频率同步减半
+     */
+    public synchronized void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int count = counters.get(i);
+            if (count > 0) {
+                counters.set(i, count >>> 1);
+            }
+        }
+        Iterator<Map.Entry<String, Integer>> iterator = topKeys.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            int count = entry.getValue() >>> 1;
+            if (count == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(count);
+            }
+        }
+        threshold = topKeys.size() >= topK ? Collections.min(topKeys.values()) : 0;
+    }
+
+    /**
+     * 当前的热点key
+     *
+     * @return 按估算频率从高到低排列的key和频率
+     */
+    public synchronized LinkedHashMap<String, Integer> getHotKeys() {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(topKeys.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 判断key当前是否在topK中且频率不低于minCount
+     */
+    public boolean isHot(String key, int minCount) {
+        Integer count = topKeys.get(key);
+        return count != null && count >= minCount;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45D9F3B;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
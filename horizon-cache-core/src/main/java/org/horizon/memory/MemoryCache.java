@@ -0,0 +1,252 @@
+package org.horizon.memory;
+
+import org.horizon.cache.L2Cache;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.metrics.CacheMetrics;
+import org.horizon.serialize.CacheValueEnvelope;
+import org.horizon.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion jvm内的L2缓存，数据按CacheValueEnvelope格式序列化后存放在MemoryStore，
+ * 读写语义与RedisCache一致(包括过期时间和租约)，但不经过网络；只记录序列化耗时，不记录命令耗时
+ */
+public class MemoryCache implements L2Cache {
+    private static final Logger log = LoggerFactory.getLogger(MemoryCache.class);
+
+    //租约key前缀，与RedisCache一致，租约不占用业务数据的key空间
+    private static final String LEASE_PREFIX = "horizon-lease:";
+    //不存在标记的租约值，与RedisCache一致
+    private static final byte[] LEASE_ABSENT = "absent".getBytes(StandardCharsets.UTF_8);
+
+    private final MemoryStore store;
+    private final Serializer serializer;
+    //统计，未设置时不记录
+    private volatile CacheMetrics metrics;
+
+    public MemoryCache(MemoryStore store, Serializer serializer) {
+        this.store = store;
+        this.serializer = serializer;
+    }
+
+    public MemoryStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void set(String key, CacheValue cacheValue) {
+        try {
+            store.put(key, encode(cacheValue), cacheValue.getSurvivalTime());
+        } catch (Exception e) {
+            recordError();
+            log.error("MemoryCache set error:{}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CacheValue get(String key) {
+        byte[] bytes = store.get(key);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return decode(bytes);
+        } catch (Exception e) {
+            recordError();
+            log.error("MemoryCache get error:{}", e.getMessage(), e);
+        }
+        return null;
+    }
+
+    @Override
+    public void delete(String key) {
+        store.delete(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        return store.get(key) != null;
+    }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> result = new HashMap<>();
+        if (keys == null) {
+            return result;
+        }
+        for (String key : keys) {
+            CacheValue cacheValue = get(key);
+            if (cacheValue != null) {
+                result.put(key, cacheValue);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        if (cacheValues == null) {
+            return;
+        }
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            store.delete(key);
+        }
+    }
+
+    @Override
+    public boolean writeAll(Map<String, CacheValue> cacheValues, Collection<String> deleteKeys) {
+        //先全部编码，编码失败时不写入任何数据
+        Map<String, byte[]> encoded = new HashMap<>();
+        try {
+            if (cacheValues != null) {
+                for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+                    encoded.put(entry.getKey(), encode(entry.getValue()));
+                }
+            }
+        } catch (Exception e) {
+            recordError();
+            log.error("MemoryCache writeAll error:{}", e.getMessage(), e);
+            return false;
+        }
+        for (Map.Entry<String, byte[]> entry : encoded.entrySet()) {
+            store.put(entry.getKey(), entry.getValue(), cacheValues.get(entry.getKey()).getSurvivalTime());
+        }
+        deleteAll(deleteKeys);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public Map<String, byte[]> getHeaders(Collection<String> keys, int length) {
+        Map<String, byte[]> result = new HashMap<>();
+        if (keys == null) {
+            return result;
+        }
+        for (String key : keys) {
+            byte[] bytes = store.get(key);
+            if (bytes != null && bytes.length > 0) {
+                result.put(key, Arrays.copyOf(bytes, Math.min(length, bytes.length)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String tryAcquireLease(String key, long leaseTime) {
+        String token = UUID.randomUUID().toString();
+        boolean acquired = store.putIfAbsent(LEASE_PREFIX + key, token.getBytes(StandardCharsets.UTF_8), leaseTime);
+        return acquired ? token : null;
+    }
+
+    @Override
+    public void releaseLease(String key, String token) {
+        store.delete(LEASE_PREFIX + key, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void releaseLeaseAbsent(String key, String token, long absentTime) {
+        store.replace(LEASE_PREFIX + key, token.getBytes(StandardCharsets.UTF_8), LEASE_ABSENT, Math.max(absentTime, 1));
+    }
+
+    @Override
+    public boolean isLeaseAbsent(String key) {
+        return Arrays.equals(LEASE_ABSENT, store.get(LEASE_PREFIX + key));
+    }
+
+    @Override
+    public void setBits(String key, long[] offsets) {
+        if (offsets.length == 0) {
+            return;
+        }
+        store.setBits(key, offsets);
+    }
+
+    /**
+     * 读取原始字节的副本，bitmap会被原地修改，不能直接返回内部数组
+     */
+    @Override
+    public byte[] getBytes(String key) {
+        byte[] bytes = store.get(key);
+        return bytes != null ? bytes.clone() : null;
+    }
+
+    /**
+     * 原始字节是布隆过滤器等元数据，不参与存储的容量淘汰
+     */
+    @Override
+    public void setBytes(String key, byte[] bytes) {
+        store.putPinned(key, bytes.clone());
+    }
+
+    @Override
+    public void scan(String pattern, int count, Consumer<List<String>> consumer) {
+        store.scan(pattern, count, consumer);
+    }
+
+    private byte[] encode(CacheValue cacheValue) {
+        if (metrics == null) {
+            return CacheValueEnvelope.encode(serializer, cacheValue);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = CacheValueEnvelope.encode(serializer, cacheValue);
+        metrics.getSerializeLatency().recordSince(start);
+        return bytes;
+    }
+
+    private CacheValue decode(byte[] bytes) {
+        if (metrics == null) {
+            return CacheValueEnvelope.decode(serializer, bytes);
+        }
+        long start = System.nanoTime();
+        CacheValue cacheValue = CacheValueEnvelope.decode(serializer, bytes);
+        metrics.getDeserializeLatency().recordSince(start);
+        return cacheValue;
+    }
+
+    private void recordError() {
+        if (metrics != null) {
+            metrics.recordRedisError();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.horizon.memory;
+
+import org.horizon.broadcast.BroadcastTransport;
+import org.horizon.broadcast.InProcessBroadcastTransport;
+import org.horizon.cache.L2CacheManager;
+import org.horizon.enums.SerializerTypeEnum;
+import org.horizon.serialize.Serializer;
+import org.horizon.serialize.impl.CompressionSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.zip.Deflater;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion jvm内L2缓存管理器，不依赖redis，适用于单实例服务、测试和基准测试；
+ * 存储名称相同的缓存工厂共享同一份L2数据和广播频道
+ */
+public class MemoryManager implements L2CacheManager {
+    private static final Logger log = LoggerFactory.getLogger(MemoryManager.class);
+
+    public static final String DEFAULT_STORE_NAME = "default";
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 256L * 1024 * 1024;
+
+    private final String storeName;
+    private Serializer serializer = SerializerTypeEnum.JAVA.getSerializer();
+    //超过该字节数的L2数据压缩后存储，小于等于0表示不压缩
+    private int compressThreshold = -1;
+    //压缩级别，参考java.util.zip.Deflater
+    private int compressLevel = Deflater.BEST_SPEED;
+    //存储的最大权重，按key和value的字节数计算，小于等于0表示不限制；同名存储已存在时不生效
+    private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+    private MemoryCache memoryCache;
+
+    /**
+     * @param serializerType 序列化方式
+     * @param storeName      存储名称，为空时使用default
+     */
+    public MemoryManager(String serializerType, String storeName) {
+        this.storeName = storeName != null && !storeName.trim().isEmpty() ? storeName.trim() : DEFAULT_STORE_NAME;
+        SerializerTypeEnum serializerTypeEnum = SerializerTypeEnum.match(serializerType);
+        if (serializerTypeEnum != null) {
+            serializer = serializerTypeEnum.getSerializer();
+        }
+    }
+
+    @Override
+    public void start() {
+        //开启压缩时包装序列化方式
+        if (compressThreshold > 0 && !(serializer instanceof CompressionSerializer)) {
+            serializer = new CompressionSerializer(serializer, compressThreshold, compressLevel);
+        }
+        MemoryStore store = MemoryStore.getStore(storeName, maximumWeight);
+        memoryCache = new MemoryCache(store, serializer);
+        log.info("MemoryManager initialized successfully, store:{}, maximumWeight:{}", storeName, store.getMaximumWeight());
+    }
+
+    /**
+     * 存储可能被同一个jvm内的其他缓存工厂共享，停止时不清空数据，需要释放时调用MemoryStore.removeStore
+     */
+    @Override
+    public void stop() {
+        log.info("MemoryManager stopped.");
+    }
+
+    @Override
+    public MemoryCache getCache() {
+        return memoryCache;
+    }
+
+    @Override
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    /**
+     * 创建jvm内的广播传输，以存储名称作为命名空间
+     *
+     * @return 广播传输
+     */
+    @Override
+    public BroadcastTransport createBroadcastTransport() {
+        return new InProcessBroadcastTransport(storeName);
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public void setCompressLevel(int compressLevel) {
+        this.compressLevel = compressLevel;
+    }
+
+    public void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+}
@@ -0,0 +1,248 @@
+package org.horizon.memory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion jvm内的L2数据存储，按名称共享：同一个jvm内使用相同名称的多个缓存工厂访问同一份数据，
+ * 可以在单进程内模拟多个节点；数据以序列化后的字节保存，每个key可以有独立的过期时间，过期数据由caffeine清理；
+ * 按key和value的字节数计算权重，总权重超过maximumWeight时由caffeine淘汰(包括永不过期的数据)，
+ * bitmap等通过putPinned写入的元数据权重为0，不参与淘汰
+ */
+public class MemoryStore {
+
+    private static final ConcurrentHashMap<String, MemoryStore> STORES = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final long maximumWeight;
+    private final Cache<String, Entry> entries;
+
+    private MemoryStore(String name, long maximumWeight) {
+        this.name = name;
+        this.maximumWeight = maximumWeight;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (maximumWeight > 0) {
+            builder.maximumWeight(maximumWeight)
+                    .weigher((String key, Entry entry) -> entry.pinned ? 0 : key.length() + entry.bytes.length);
+        }
+        this.entries = builder
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 获取指定名称的存储，不存在时创建
+     *
+     * @param name          存储名称
+     * @param maximumWeight 创建时使用的最大权重(约等于占用的字节数)，小于等于0表示不限制；存储已存在时忽略
+     * @return 存储
+     */
+    public static MemoryStore getStore(String name, long maximumWeight) {
+        return STORES.computeIfAbsent(name, k -> new MemoryStore(k, maximumWeight));
+    }
+
+    /**
+     * 清空并移除指定名称的存储，之后获取同名存储会重新创建；仍在使用该存储的缓存工厂不受影响，但数据不再与新存储共享
+     *
+     * @param name 存储名称
+     * @return 是否存在并已移除
+     */
+    public static boolean removeStore(String name) {
+        MemoryStore store = STORES.remove(name);
+        if (store == null) {
+            return false;
+        }
+        store.clear();
+        return true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * 读取字节，不存在或已过期返回null
+     */
+    public byte[] get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? entry.bytes : null;
+    }
+
+    /**
+     * 写入字节
+     *
+     * @param key   key
+     * @param bytes 字节
+     * @param ttl   过期时间，单位毫秒，小于0表示永不过期
+     */
+    public void put(String key, byte[] bytes, long ttl) {
+        entries.put(key, new Entry(bytes, ttl, false));
+    }
+
+    /**
+     * 写入永不过期、不参与容量淘汰的元数据
+     *
+     * @param key   key
+     * @param bytes 字节
+     */
+    public void putPinned(String key, byte[] bytes) {
+        entries.put(key, new Entry(bytes, -1, true));
+    }
+
+    /**
+     * key不存在时写入
+     *
+     * @return 是否写入成功
+     */
+    public boolean putIfAbsent(String key, byte[] bytes, long ttl) {
+        return entries.asMap().putIfAbsent(key, new Entry(bytes, ttl, false)) == null;
+    }
+
+    public void delete(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * 值与expected相同时删除
+     */
+    public void delete(String key, byte[] expected) {
+        entries.asMap().computeIfPresent(key, (k, entry) -> Arrays.equals(entry.bytes, expected) ? null : entry);
+    }
+
+    /**
+     * 值与expected相同时替换为新值
+     *
+     * @param ttl 新值的过期时间，单位毫秒，小于0表示永不过期
+     */
+    public void replace(String key, byte[] expected, byte[] bytes, long ttl) {
+        entries.asMap().computeIfPresent(key, (k, entry) -> Arrays.equals(entry.bytes, expected) ? new Entry(bytes, ttl, false) : entry);
+    }
+
+    /**
+     * 把bitmap的多个位设置为1，bitmap中每个字节的最高位是offset较小的位，与redis一致；
+     * 已有的bitmap原地修改，长度不足时扩容；bitmap不参与容量淘汰
+     *
+     * @param key     bitmap的key
+     * @param offsets 位编号
+     */
+    public void setBits(String key, long[] offsets) {
+        long maxOffset = 0;
+        for (long offset : offsets) {
+            maxOffset = Math.max(maxOffset, offset);
+        }
+        int length = (int) (maxOffset >>> 3) + 1;
+        entries.asMap().compute(key, (k, entry) -> {
+            byte[] bitmap = entry != null ? entry.bytes : new byte[0];
+            if (bitmap.length < length) {
+                bitmap = Arrays.copyOf(bitmap, length);
+            }
+            for (long offset : offsets) {
+                bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+            }
+            return entry != null && entry.bytes == bitmap ? entry : new Entry(bitmap, -1, true);
+        });
+    }
+
+    /**
+     * 遍历匹配的key
+     *
+     * @param pattern  匹配模式，支持*和?
+     * @param count    每批的数量
+     * @param consumer 每批key的处理方法
+     */
+    public void scan(String pattern, int count, Consumer<List<String>> consumer) {
+        Pattern regex = toRegex(pattern);
+        int batchSize = Math.max(count, 1);
+        List<String> batch = new ArrayList<>(batchSize);
+        for (String key : entries.asMap().keySet()) {
+            if (!regex.matcher(key).matches()) {
+                continue;
+            }
+            batch.add(key);
+            if (batch.size() >= batchSize) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * 当前条目数(估算值)
+     */
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    private static class Entry {
+        private final byte[] bytes;
+        private final long ttlNanos;
+        //权重为0，不参与容量淘汰
+        private final boolean pinned;
+
+        Entry(byte[] bytes, long ttl, boolean pinned) {
+            this.bytes = bytes;
+            this.ttlNanos = ttl < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(ttl);
+            this.pinned = pinned;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.horizon.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 缓存工厂级别的统计，包括各分类统计、redis命令耗时、L2序列化耗时和广播统计；
+ * 计数使用LongAdder，耗时使用LatencyHistogram，读取时才汇总，记录路径上没有锁
+ */
+public class CacheMetrics {
+
+    private final ConcurrentHashMap<String, CategoryMetrics> categories = new ConcurrentHashMap<>();
+    //redis命令耗时，key为命令名称(get、set、getAll等)
+    private final ConcurrentHashMap<String, LatencyHistogram> redisLatencies = new ConcurrentHashMap<>();
+    //redis命令异常次数
+    private final LongAdder redisErrors = new LongAdder();
+    //L2缓存值序列化耗时
+    private final LatencyHistogram serializeLatency = new LatencyHistogram();
+    //L2缓存值反序列化耗时
+    private final LatencyHistogram deserializeLatency = new LatencyHistogram();
+    //发送的广播消息数
+    private final LongAdder broadcastPublished = new LongAdder();
+    //收到的其他节点广播消息数
+    private final LongAdder broadcastReceived = new LongAdder();
+    //广播订阅断开后重新订阅的次数
+    private final LongAdder broadcastReconnects = new LongAdder();
+    //广播从发送到本节点处理的延迟，依赖各节点时钟同步
+    private final LatencyHistogram broadcastLag = new LatencyHistogram();
+    //投递到广播分发队列的key数
+    private final LongAdder broadcastEnqueued = new LongAdder();
+    //因分发队列中已有相同key而被合并的key数
+    private final LongAdder broadcastCollapsed = new LongAdder();
+    //分发队列处理完成的key数
+    private final LongAdder broadcastProcessed = new LongAdder();
+    //因分发队列已满而阻塞订阅线程的次数
+    private final LongAdder broadcastBlocked = new LongAdder();
+    //因分发队列已满而阻塞订阅线程的总时长，单位纳秒
+    private final LongAdder broadcastBlockedNanos = new LongAdder();
+    //分发队列中等待处理的key数，未订阅时为null
+    private volatile IntSupplier broadcastQueueSize;
+    //新分类统计创建后的回调
+    private volatile Consumer<String> categoryListener;
+
+    /**
+     * 获取分类统计，不存在时创建
+     */
+    public CategoryMetrics category(String category) {
+        CategoryMetrics metrics = categories.get(category);
+        if (metrics != null) {
+            return metrics;
+        }
+        boolean[] created = new boolean[1];
+        metrics = categories.computeIfAbsent(category, k -> {
+            created[0] = true;
+            return new CategoryMetrics();
+        });
+        Consumer<String> listener = categoryListener;
+        if (created[0] && listener != null) {
+            listener.accept(category);
+        }
+        return metrics;
+    }
+
+    /**
+     * 设置新分类统计创建后的回调，用于注册JMX
+     */
+    public void setCategoryListener(Consumer<String> categoryListener) {
+        this.categoryListener = categoryListener;
+    }
+
+    public Map<String, CategoryMetrics> getCategories() {
+        return Collections.unmodifiableMap(categories);
+    }
+
+    /**
+     * 获取redis命令耗时直方图，不存在时创建
+     *
+     * @param command 命令名称
+     */
+    public LatencyHistogram redis(String command) {
+        LatencyHistogram histogram = redisLatencies.get(command);
+        if (histogram != null) {
+            return histogram;
+        }
+        return redisLatencies.computeIfAbsent(command, k -> new LatencyHistogram());
+    }
+
+    public Map<String, LatencyHistogram> getRedisLatencies() {
+        return Collections.unmodifiableMap(redisLatencies);
+    }
+
+    public void recordRedisError() {
+        redisErrors.increment();
+    }
+
+    public long getRedisErrors() {
+        return redisErrors.sum();
+    }
+
+    public LatencyHistogram getSerializeLatency() {
+        return serializeLatency;
+    }
+
+    public LatencyHistogram getDeserializeLatency() {
+        return deserializeLatency;
+    }
+
+    public void recordBroadcastPublished() {
+        broadcastPublished.increment();
+    }
+
+    public long getBroadcastPublished() {
+        return broadcastPublished.sum();
+    }
+
+    /**
+     * 记录收到的广播
+     *
+     * @param timestamp 发送时间戳，单位毫秒，小于等于0表示旧版本节点发送的消息，不统计延迟
+     */
+    public void recordBroadcastReceived(long timestamp) {
+        broadcastReceived.increment();
+        if (timestamp > 0) {
+            broadcastLag.record((System.currentTimeMillis() - timestamp) * 1000000L);
+        }
+    }
+
+    public long getBroadcastReceived() {
+        return broadcastReceived.sum();
+    }
+
+    public void recordBroadcastReconnect() {
+        broadcastReconnects.increment();
+    }
+
+    public long getBroadcastReconnects() {
+        return broadcastReconnects.sum();
+    }
+
+    public LatencyHistogram getBroadcastLag() {
+        return broadcastLag;
+    }
+
+    public void recordBroadcastEnqueued() {
+        broadcastEnqueued.increment();
+    }
+
+    public long getBroadcastEnqueued() {
+        return broadcastEnqueued.sum();
+    }
+
+    public void recordBroadcastCollapsed() {
+        broadcastCollapsed.increment();
+    }
+
+    public long getBroadcastCollapsed() {
+        return broadcastCollapsed.sum();
+    }
+
+    public void recordBroadcastProcessed(int count) {
+        broadcastProcessed.add(count);
+    }
+
+    public long getBroadcastProcessed() {
+        return broadcastProcessed.sum();
+    }
+
+    /**
+     * 记录一次分发队列已满导致的订阅线程阻塞
+     *
+     * @param nanos 阻塞时长，单位纳秒
+     */
+    public void recordBroadcastBlocked(long nanos) {
+        broadcastBlocked.increment();
+        broadcastBlockedNanos.add(nanos);
+    }
+
+    public long getBroadcastBlocked() {
+        return broadcastBlocked.sum();
+    }
+
+    public long getBroadcastBlockedNanos() {
+        return broadcastBlockedNanos.sum();
+    }
+
+    /**
+     * 设置分发队列当前等待处理key数的获取方法，由广播分发器启动时设置
+     */
+    public void setBroadcastQueueSize(IntSupplier broadcastQueueSize) {
+        this.broadcastQueueSize = broadcastQueueSize;
+    }
+
+    public int getBroadcastQueueSize() {
+        IntSupplier supplier = broadcastQueueSize;
+        return supplier != null ? supplier.getAsInt() : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package org.horizon.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 单个缓存分类在HorizonCache层面的统计，按数据最终来自哪一层计数
+ */
+public class CategoryMetrics {
+
+    //L1命中(不含空值标记)
+    private final LongAdder l1Hits = new LongAdder();
+    //L1未命中或命中空值标记
+    private final LongAdder l1Misses = new LongAdder();
+    //L2命中
+    private final LongAdder l2Hits = new LongAdder();
+    //L2未命中
+    private final LongAdder l2Misses = new LongAdder();
+    //布隆过滤器判定一定不存在而跳过的L2查询
+    private final LongAdder l2Skips = new LongAdder();
+    //loader回源次数
+    private final LongAdder loads = new LongAdder();
+    //loader抛出异常的次数
+    private final LongAdder loadErrors = new LongAdder();
+    //get整体耗时
+    private final LatencyHistogram getLatency = new LatencyHistogram();
+    //loader耗时
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    public void recordL1(boolean hit) {
+        (hit ? l1Hits : l1Misses).increment();
+    }
+
+    public void recordL1(int hits, int misses) {
+        l1Hits.add(hits);
+        l1Misses.add(misses);
+    }
+
+    public void recordL2(boolean hit) {
+        (hit ? l2Hits : l2Misses).increment();
+    }
+
+    public void recordL2(int hits, int misses) {
+        l2Hits.add(hits);
+        l2Misses.add(misses);
+    }
+
+    public void recordL2Skip(int skips) {
+        l2Skips.add(skips);
+    }
+
+    public void recordLoad(long startNanos, boolean error) {
+        loads.increment();
+        if (error) {
+            loadErrors.increment();
+        }
+        loadLatency.recordSince(startNanos);
+    }
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL1Misses() {
+        return l1Misses.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getL2Misses() {
+        return l2Misses.sum();
+    }
+
+    public long getL2Skips() {
+        return l2Skips.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadErrors() {
+        return loadErrors.sum();
+    }
+
+    public LatencyHistogram getGetLatency() {
+        return getLatency;
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+}
@@ -0,0 +1,136 @@
+package org.horizon.metrics;
+
+import org.horizon.cache.Cache;
+import org.horizon.caffeine.CacheManager;
+import org.horizon.caffeine.CaffeineCache;
+import org.horizon.negative.NegativeCache;
+
+import java.util.function.Supplier;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 单个分类的统计视图，HorizonCache层面的计数来自CategoryMetrics，L1条目数、淘汰次数和空值标记来自分类的L1缓存；
+ * 每次读取属性时实时计算
+ */
+public class CategoryStats implements CategoryStatsMBean {
+
+    private final String category;
+    private final CategoryMetrics metrics;
+    //分类的L1缓存，尚未创建时返回null
+    private final Supplier<Cache> l1Cache;
+
+    public CategoryStats(String category, CategoryMetrics metrics, Supplier<Cache> l1Cache) {
+        this.category = category;
+        this.metrics = metrics;
+        this.l1Cache = l1Cache;
+    }
+
+    static double micros(double nanos) {
+        return nanos / 1000;
+    }
+
+    static double rate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String getCategory() {
+        return category;
+    }
+
+    @Override
+    public long getL1Hits() {
+        return metrics.getL1Hits();
+    }
+
+    @Override
+    public long getL1Misses() {
+        return metrics.getL1Misses();
+    }
+
+    @Override
+    public double getL1HitRate() {
+        return rate(metrics.getL1Hits(), metrics.getL1Misses());
+    }
+
+    @Override
+    public long getL2Hits() {
+        return metrics.getL2Hits();
+    }
+
+    @Override
+    public long getL2Misses() {
+        return metrics.getL2Misses();
+    }
+
+    @Override
+    public double getL2HitRate() {
+        return rate(metrics.getL2Hits(), metrics.getL2Misses());
+    }
+
+    @Override
+    public long getL2Skips() {
+        return metrics.getL2Skips();
+    }
+
+    @Override
+    public long getLoads() {
+        return metrics.getLoads();
+    }
+
+    @Override
+    public long getLoadErrors() {
+        return metrics.getLoadErrors();
+    }
+
+    @Override
+    public double getGetMeanMicros() {
+        return micros(metrics.getGetLatency().getMean());
+    }
+
+    @Override
+    public double getGetP50Micros() {
+        return micros(metrics.getGetLatency().getPercentile(0.5));
+    }
+
+    @Override
+    public double getGetP99Micros() {
+        return micros(metrics.getGetLatency().getPercentile(0.99));
+    }
+
+    @Override
+    public double getGetMaxMicros() {
+        return micros(metrics.getGetLatency().getMax());
+    }
+
+    @Override
+    public double getLoadP99Micros() {
+        return micros(metrics.getLoadLatency().getPercentile(0.99));
+    }
+
+    @Override
+    public long getL1Size() {
+        CaffeineCache cache = CacheManager.unwrap(l1Cache.get(), CaffeineCache.class);
+        return cache != null ? cache.getEstimatedSize() : -1;
+    }
+
+    @Override
+    public long getL1Evictions() {
+        CaffeineCache cache = CacheManager.unwrap(l1Cache.get(), CaffeineCache.class);
+        return cache != null ? cache.getEvictionCount() : -1;
+    }
+
+    @Override
+    public long getNegativeHits() {
+        NegativeCache cache = CacheManager.unwrap(l1Cache.get(), NegativeCache.class);
+        return cache != null ? cache.getNegativeHitCount() : 0;
+    }
+
+    @Override
+    public long getNegativeSize() {
+        NegativeCache cache = CacheManager.unwrap(l1Cache.get(), NegativeCache.class);
+        return cache != null ? cache.getNegativeSize() : 0;
+    }
+}
@@ -0,0 +1,47 @@
+package org.horizon.metrics;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 分类统计的JMX接口，耗时单位为微秒
+ */
+public interface CategoryStatsMBean {
+
+    String getCategory();
+
+    long getL1Hits();
+
+    long getL1Misses();
+
+    double getL1HitRate();
+
+    long getL2Hits();
+
+    long getL2Misses();
+
+    double getL2HitRate();
+
+    long getL2Skips();
+
+    long getLoads();
+
+    long getLoadErrors();
+
+    double getGetMeanMicros();
+
+    double getGetP50Micros();
+
+    double getGetP99Micros();
+
+    double getGetMaxMicros();
+
+    double getLoadP99Micros();
+
+    long getL1Size();
+
+    long getL1Evictions();
+
+    long getNegativeHits();
+
+    long getNegativeSize();
+}
@@ -0,0 +1,125 @@
+package org.horizon.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.horizon.metrics.CategoryStats.micros;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 缓存工厂全局统计视图，每次读取属性时实时计算
+ */
+public class HorizonCacheStats implements HorizonCacheStatsMBean {
+
+    private final CacheMetrics metrics;
+
+    public HorizonCacheStats(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String[] getCategories() {
+        return new TreeMap<>(metrics.getCategories()).keySet().toArray(new String[0]);
+    }
+
+    /**
+     * 各redis命令的耗时汇总，每个命令一行
+     */
+    @Override
+    public String[] getRedisLatencies() {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(metrics.getRedisLatencies()).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            result.add(String.format("%s count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", entry.getKey(),
+                    histogram.getCount(), micros(histogram.getMean()), micros(histogram.getPercentile(0.5)),
+                    micros(histogram.getPercentile(0.99)), micros(histogram.getMax())));
+        }
+        return result.toArray(new String[0]);
+    }
+
+    @Override
+    public long getRedisErrors() {
+        return metrics.getRedisErrors();
+    }
+
+    @Override
+    public double getRedisGetP99Micros() {
+        return micros(metrics.redis("get").getPercentile(0.99));
+    }
+
+    @Override
+    public double getRedisSetP99Micros() {
+        return micros(metrics.redis("set").getPercentile(0.99));
+    }
+
+    @Override
+    public double getSerializeP99Micros() {
+        return micros(metrics.getSerializeLatency().getPercentile(0.99));
+    }
+
+    @Override
+    public double getDeserializeP99Micros() {
+        return micros(metrics.getDeserializeLatency().getPercentile(0.99));
+    }
+
+    @Override
+    public long getBroadcastPublished() {
+        return metrics.getBroadcastPublished();
+    }
+
+    @Override
+    public long getBroadcastReceived() {
+        return metrics.getBroadcastReceived();
+    }
+
+    @Override
+    public long getBroadcastReconnects() {
+        return metrics.getBroadcastReconnects();
+    }
+
+    @Override
+    public double getBroadcastLagP99Millis() {
+        return metrics.getBroadcastLag().getPercentile(0.99) / 1000000.0;
+    }
+
+    @Override
+    public double getBroadcastLagMaxMillis() {
+        return metrics.getBroadcastLag().getMax() / 1000000.0;
+    }
+
+    @Override
+    public long getBroadcastEnqueued() {
+        return metrics.getBroadcastEnqueued();
+    }
+
+    @Override
+    public long getBroadcastCollapsed() {
+        return metrics.getBroadcastCollapsed();
+    }
+
+    @Override
+    public long getBroadcastProcessed() {
+        return metrics.getBroadcastProcessed();
+    }
+
+    @Override
+    public long getBroadcastBlocked() {
+        return metrics.getBroadcastBlocked();
+    }
+
+    @Override
+    public double getBroadcastBlockedMillis() {
+        return metrics.getBroadcastBlockedNanos() / 1000000.0;
+    }
+
+    /**
+     * 广播分发队列中等待处理的key数
+     */
+    @Override
+    public int getBroadcastQueueSize() {
+        return metrics.getBroadcastQueueSize();
+    }
+}
@@ -0,0 +1,45 @@
+package org.horizon.metrics;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 缓存工厂全局统计的JMX接口，耗时单位为微秒，广播延迟和分发阻塞时长单位为毫秒
+ */
+public interface HorizonCacheStatsMBean {
+
+    String[] getCategories();
+
+    String[] getRedisLatencies();
+
+    long getRedisErrors();
+
+    double getRedisGetP99Micros();
+
+    double getRedisSetP99Micros();
+
+    double getSerializeP99Micros();
+
+    double getDeserializeP99Micros();
+
+    long getBroadcastPublished();
+
+    long getBroadcastReceived();
+
+    long getBroadcastReconnects();
+
+    double getBroadcastLagP99Millis();
+
+    double getBroadcastLagMaxMillis();
+
+    long getBroadcastEnqueued();
+
+    long getBroadcastCollapsed();
+
+    long getBroadcastProcessed();
+
+    long getBroadcastBlocked();
+
+    double getBroadcastBlockedMillis();
+
+    int getBroadcastQueueSize();
+}
@@ -0,0 +1,74 @@
+package org.horizon.metrics;
+
+import org.horizon.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 把统计注册为JMX MBean：全局统计为org.horizon:type=HorizonCache,name=stats，
+ * 每个分类为org.horizon:type=HorizonCache,category=分类名称，分类在首次产生统计时注册
+ */
+public class MetricsJmxExporter {
+    private static final Logger log = LoggerFactory.getLogger(MetricsJmxExporter.class);
+
+    private static final String DOMAIN = "org.horizon:type=HorizonCache";
+
+    private final CacheMetrics metrics;
+    //按分类名称获取L1缓存，尚未创建时返回null
+    private final Function<String, Cache> l1CacheLookup;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    public MetricsJmxExporter(CacheMetrics metrics, Function<String, Cache> l1CacheLookup) {
+        this.metrics = metrics;
+        this.l1CacheLookup = l1CacheLookup;
+    }
+
+    public void start() {
+        register(DOMAIN + ",name=stats", new HorizonCacheStats(metrics));
+        metrics.setCategoryListener(this::registerCategory);
+        for (String category : metrics.getCategories().keySet()) {
+            registerCategory(category);
+        }
+    }
+
+    public void stop() {
+        metrics.setCategoryListener(null);
+        for (ObjectName objectName : registered) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (Exception e) {
+                log.debug("MetricsJmxExporter unregister {} error:{}", objectName, e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+
+    private void registerCategory(String category) {
+        register(DOMAIN + ",category=" + ObjectName.quote(category),
+                new CategoryStats(category, metrics.category(category), () -> l1CacheLookup.apply(category)));
+    }
+
+    private void register(String name, Object mBean) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            //同一个jvm内重新启动工厂时替换旧的MBean
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(mBean, objectName);
+            registered.add(objectName);
+        } catch (Exception e) {
+            log.error("MetricsJmxExporter register {} error:{}", name, e.getMessage(), e);
+        }
+    }
+}
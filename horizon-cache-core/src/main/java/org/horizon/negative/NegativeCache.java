@@ -0,0 +1,185 @@
+package org.horizon.negative;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.horizon.cache.Cache;
+import org.horizon.caffeine.CacheValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 带独立空值存储的L1缓存，L2未命中时写入的空值标记(value为null的CacheValue)不进入L1，
+ * 而是放入单独的有容量上限和较短过期时间的caffeine，避免大量不存在的key挤占真实数据；
+ * 写入真实数据时移除空值标记，写入空值标记时移除L1中的旧值，并分别统计真实命中、空值命中和未命中次数
+ */
+public class NegativeCache implements Cache {
+    private static final Logger log = LoggerFactory.getLogger(NegativeCache.class);
+
+    private final Cache delegate;
+    //空值标记
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheValue> markers;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public NegativeCache(Cache delegate, int maxSize, long expireAfterWrite, TimeUnit timeUnit) {
+        this.delegate = delegate;
+        this.markers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite, timeUnit)
+                .build();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 真实数据命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 空值标记命中次数
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 当前空值标记数量(估算值)
+     */
+    public long getNegativeSize() {
+        return markers.estimatedSize();
+    }
+
+    private static boolean isNegative(CacheValue cacheValue) {
+        return cacheValue != null && cacheValue.getValue() == null;
+    }
+
+    @Override
+    public void set(String key, CacheValue cacheValue) {
+        if (isNegative(cacheValue)) {
+            markers.put(key, cacheValue);
+            delegate.delete(key);
+            log.debug("NegativeCache set negative, key:{}", key);
+        } else {
+            markers.invalidate(key);
+            delegate.set(key, cacheValue);
+        }
+    }
+
+    @Override
+    public CacheValue get(String key) {
+        CacheValue cacheValue = delegate.get(key);
+        if (cacheValue == null) {
+            cacheValue = markers.getIfPresent(key);
+        }
+        record(cacheValue);
+        return cacheValue;
+    }
+
+    private void record(CacheValue cacheValue) {
+        if (cacheValue == null) {
+            missCount.increment();
+        } else if (cacheValue.getValue() == null) {
+            negativeHitCount.increment();
+        } else {
+            hitCount.increment();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        delegate.delete(key);
+        markers.invalidate(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        Boolean exists = delegate.exists(key);
+        if (exists == null && markers.getIfPresent(key) != null) {
+            return false;
+        }
+        return exists;
+    }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> result = new HashMap<>(delegate.getAll(keys));
+        if (result.size() < keys.size()) {
+            List<String> missKeys = new ArrayList<>();
+            for (String key : keys) {
+                if (!result.containsKey(key)) {
+                    missKeys.add(key);
+                }
+            }
+            result.putAll(markers.getAllPresent(missKeys));
+        }
+        for (String key : keys) {
+            record(result.get(key));
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        Map<String, CacheValue> values = new HashMap<>(cacheValues.size());
+        List<String> negativeKeys = new ArrayList<>();
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            if (isNegative(entry.getValue())) {
+                markers.put(entry.getKey(), entry.getValue());
+                negativeKeys.add(entry.getKey());
+            } else {
+                markers.invalidate(entry.getKey());
+                values.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!values.isEmpty()) {
+            delegate.setAll(values);
+        }
+        if (!negativeKeys.isEmpty()) {
+            delegate.deleteAll(negativeKeys);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        delegate.deleteAll(keys);
+        markers.invalidateAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,125 @@
+package org.horizon.offheap;
+
+import org.horizon.cache.Cache;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.serialize.CacheValueEnvelope;
+import org.horizon.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 堆外L1缓存，缓存值按CacheValueEnvelope格式序列化后存入OffHeapStore，读取时反序列化；
+ * 所有分类共享同一个OffHeapStore(缓存key已包含分类前缀)，分类之间只有过期时间不同
+ */
+public class OffHeapCache implements Cache {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapCache.class);
+
+    private final OffHeapStore store;
+    private final Serializer serializer;
+    //写入后过期时间，单位毫秒
+    private final long expireAfterWrite;
+
+    public OffHeapCache(OffHeapStore store, Serializer serializer, long expireAfterWrite, TimeUnit timeUnit) {
+        this.store = store;
+        this.serializer = serializer;
+        this.expireAfterWrite = timeUnit.toMillis(expireAfterWrite);
+    }
+
+    @Override
+    public void set(String key, CacheValue cacheValue) {
+        byte[] bytes;
+        try {
+            bytes = CacheValueEnvelope.encode(serializer, cacheValue);
+        } catch (Exception e) {
+            //无法序列化的对象不缓存，同时删除旧值避免读到旧数据
+            store.remove(key);
+            log.debug("OffHeapCache set skip, key:{}, error:{}", key, e.getMessage());
+            return;
+        }
+        //本地过期时间不超过缓存值自身的失效时间
+        long expirationTime = Math.min(cacheValue.getExpirationTime(), System.currentTimeMillis() + expireAfterWrite);
+        store.put(key, bytes, expirationTime);
+    }
+
+    @Override
+    public CacheValue get(String key) {
+        byte[] bytes = store.get(key);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return CacheValueEnvelope.decode(serializer, bytes);
+        } catch (Exception e) {
+            store.remove(key);
+            log.error("OffHeapCache get error:{}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        store.remove(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        CacheValue cacheValue = get(key);
+        if (cacheValue != null) {
+            return cacheValue.getValue() != null && cacheValue.isValid();
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> result = new HashMap<>();
+        for (String key : keys) {
+            CacheValue cacheValue = get(key);
+            if (cacheValue != null) {
+                result.put(key, cacheValue);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        for (String key : keys) {
+            store.remove(key);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        //本地内存操作，无需切换线程
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        set(key, cacheValue);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        delete(key);
+        return CompletableFuture.completedFuture(null);
+    }
+}
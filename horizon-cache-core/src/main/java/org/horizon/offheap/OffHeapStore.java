@@ -0,0 +1,279 @@
+package org.horizon.offheap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 堆外存储，数据保存在固定大小的direct ByteBuffer slab中，堆内只保留key到数据位置的索引；
+ * slab按顺序追加写入，覆盖和删除只更新索引，旧数据占用的空间在slab被回收时释放；
+ * 空间不足时按写满顺序(FIFO)回收最早的slab，回收前被读取过的slab获得一次二次机会
+ */
+public class OffHeapStore {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapStore.class);
+
+    //单个slab的字节数，也是单条数据的最大字节数
+    private final int slabSize;
+    //最多分配的slab数
+    private final int maxSlabs;
+
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+    //读取持有读锁，写入和回收slab持有写锁，保证读取期间数据所在的slab不会被覆盖
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //已写满的slab，按写满顺序排列
+    private final ArrayDeque<Slab> fullSlabs = new ArrayDeque<>();
+    //当前写入的slab
+    private Slab current;
+    //已分配的slab数
+    private int allocatedSlabs;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    //因slab回收被淘汰的条目数
+    private final LongAdder evictionCount = new LongAdder();
+    //回收的slab数
+    private final LongAdder slabEvictionCount = new LongAdder();
+    //超过slab大小而无法存储的写入次数
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param maxMemory 最大占用的堆外内存，单位字节
+     * @param slabSize  单个slab的字节数
+     */
+    public OffHeapStore(long maxMemory, int slabSize) {
+        if (slabSize <= 0 || maxMemory < slabSize) {
+            throw new IllegalArgumentException("off-heap maxMemory must be >= slabSize and slabSize must be > 0");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) Math.min(maxMemory / slabSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 写入数据
+     *
+     * @param key            缓存key
+     * @param bytes          数据
+     * @param expirationTime 失效时间戳，单位毫秒
+     * @return false表示数据超过slab大小，未写入
+     */
+    public boolean put(String key, byte[] bytes, long expirationTime) {
+        if (bytes.length > slabSize) {
+            rejectedCount.increment();
+            index.remove(key);
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (current == null || current.position + bytes.length > slabSize) {
+                nextSlab();
+            }
+            Slab slab = current;
+            ByteBuffer buffer = slab.buffer.duplicate();
+            buffer.position(slab.position);
+            buffer.put(bytes);
+            index.put(key, new Entry(slab, slab.position, bytes.length, expirationTime));
+            slab.keys.add(key);
+            slab.position += bytes.length;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取数据
+     *
+     * @param key 缓存key
+     * @return 数据副本，不存在或已过期返回null
+     */
+    public byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (entry.expirationTime <= System.currentTimeMillis()) {
+            index.remove(key, entry);
+            expiredCount.increment();
+            missCount.increment();
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            //获取读锁前slab可能已被回收
+            if (index.get(key) != entry) {
+                missCount.increment();
+                return null;
+            }
+            byte[] bytes = new byte[entry.length];
+            ByteBuffer buffer = entry.slab.buffer.duplicate();
+            buffer.position(entry.offset);
+            buffer.get(bytes);
+            entry.slab.referenced = true;
+            hitCount.increment();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据，只删除索引，占用的空间在slab回收时释放
+     *
+     * @param key 缓存key
+     */
+    public void remove(String key) {
+        index.remove(key);
+    }
+
+    /**
+     * 清空所有数据，已分配的slab保留复用
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (Slab slab : fullSlabs) {
+                slab.reset();
+            }
+            if (current != null) {
+                current.reset();
+                fullSlabs.addLast(current);
+                current = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 切换到新的slab，优先分配新的slab，达到上限后回收最早写满的slab
+     */
+    private void nextSlab() {
+        if (current != null) {
+            fullSlabs.addLast(current);
+            current = null;
+        }
+        //clear后留下的空slab直接复用
+        Slab head = fullSlabs.peekFirst();
+        if (head != null && head.position == 0) {
+            current = fullSlabs.pollFirst();
+            return;
+        }
+        if (allocatedSlabs < maxSlabs) {
+            current = new Slab(ByteBuffer.allocateDirect(slabSize));
+            allocatedSlabs++;
+            return;
+        }
+        //二次机会：被读取过的slab清除标记后移到队尾，所有slab都被读取过时第二轮必然能选出一个
+        Slab victim = fullSlabs.pollFirst();
+        while (victim.referenced) {
+            victim.referenced = false;
+            fullSlabs.addLast(victim);
+            victim = fullSlabs.pollFirst();
+        }
+        evict(victim);
+        current = victim;
+    }
+
+    private void evict(Slab slab) {
+        int evicted = 0;
+        for (String key : slab.keys) {
+            //只移除仍指向该slab的索引，已被覆盖写入其他slab的key保留
+            if (index.computeIfPresent(key, (k, entry) -> entry.slab == slab ? null : entry) == null) {
+                evicted++;
+            }
+        }
+        slab.reset();
+        evictionCount.add(evicted);
+        slabEvictionCount.increment();
+        log.debug("OffHeapStore evict slab, evicted entries:{}", evicted);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) allocatedSlabs * slabSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getSlabEvictionCount() {
+        return slabEvictionCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 固定大小的堆外内存块
+     */
+    private static class Slab {
+        private final ByteBuffer buffer;
+        //下一次写入的位置，只在写锁内修改
+        private int position;
+        //写满后是否被读取过
+        private volatile boolean referenced;
+        //写入过该slab的key，回收时用于清理索引
+        private final List<String> keys = new ArrayList<>();
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void reset() {
+            position = 0;
+            referenced = false;
+            keys.clear();
+        }
+    }
+
+    /**
+     * 索引条目，记录数据所在的slab和位置
+     */
+    private static class Entry {
+        private final Slab slab;
+        private final int offset;
+        private final int length;
+        private final long expirationTime;
+
+        Entry(Slab slab, int offset, int length, long expirationTime) {
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
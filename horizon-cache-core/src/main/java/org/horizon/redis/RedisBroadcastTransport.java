@@ -0,0 +1,101 @@
+package org.horizon.redis;
+
+import org.horizon.broadcast.BroadcastTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedisPubSub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 基于redis pub/sub的广播传输，订阅在独立的监听线程中阻塞执行，连接异常后间隔3秒重新订阅
+ */
+public class RedisBroadcastTransport implements BroadcastTransport {
+    private static final Logger log = LoggerFactory.getLogger(RedisBroadcastTransport.class);
+
+    private final RedisCache redisCache;
+    private volatile boolean closed;
+    private Thread broadcastListenerThread;
+    private BinaryJedisPubSub jedisPubSub;
+
+    public RedisBroadcastTransport(RedisCache redisCache) {
+        this.redisCache = redisCache;
+    }
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        redisCache.publish(channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Listener listener) {
+        jedisPubSub = new BinaryJedisPubSub() {
+            @Override
+            public void onMessage(byte[] channel, byte[] message) {
+                listener.onMessage(message);
+            }
+
+            @Override
+            public void onSubscribe(byte[] channel, int subscribedChannels) {
+                listener.onSubscribe();
+                log.info("horizon-cache factory subscribe channel: {}, total channels:{}", new String(channel, StandardCharsets.UTF_8), subscribedChannels);
+            }
+
+            @Override
+            public void onUnsubscribe(byte[] channel, int subscribedChannels) {
+                log.info("horizon-cache factory unsubscribe channel: {}, total channels:{}", new String(channel, StandardCharsets.UTF_8), subscribedChannels);
+            }
+        };
+
+        //监听线程启动
+        broadcastListenerThread = new Thread(() -> {
+            while (!closed) {
+                try {
+                    //这个方法会一直阻塞当前线程，直到发生异常或手动取消订阅
+                    redisCache.subscribe(channel, jedisPubSub);
+                } catch (Exception e) {
+                    log.error("broadcast listener thread error", e);
+                }
+                if (!closed) {
+                    try {
+                        TimeUnit.SECONDS.sleep(3);
+                    } catch (InterruptedException e1) {
+                        log.error("broadcast listener [catch] thread error", e1);
+                    }
+                }
+            }
+        }, "broadcastListenerThread");
+        broadcastListenerThread.setDaemon(true);
+        broadcastListenerThread.start();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (jedisPubSub != null) {
+            try {
+                //解除订阅后，触发2阶段提交，若广播线程下次执行while则退出循环并结束
+                jedisPubSub.unsubscribe();
+            } catch (Exception e) {
+                log.error("broadcast unsubscribe error:{}", e.getMessage(), e);
+            }
+        }
+        if (broadcastListenerThread != null) {
+            try {
+                if (broadcastListenerThread.getState() != Thread.State.TERMINATED) {
+                    broadcastListenerThread.interrupt();
+                    try {
+                        broadcastListenerThread.join();
+                    } catch (Exception e) {
+                        log.error("broadcast listener thread join error:{}", e.getMessage(), e);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("broadcast listener thread stop error:{}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -1,25 +1,55 @@
 package org.horizon.redis;
 
-import org.horizon.cache.Cache;
+import org.horizon.cache.L2Cache;
 import org.horizon.caffeine.CacheValue;
-import org.horizon.enums.SerializerTypeEnum;
+import org.horizon.metrics.CacheMetrics;
+import org.horizon.serialize.CacheValueEnvelope;
 import org.horizon.serialize.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import redis.clients.jedis.BinaryJedisPubSub;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisCluster;
-import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.*;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.resps.ScanResult;
 
 import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class RedisCache implements Cache {
+public class RedisCache implements L2Cache {
 
     private static final Logger log = LoggerFactory.getLogger(RedisCache.class);
 
+    //租约key前缀，租约使用独立的key空间，不会与业务key冲突，也不会被布隆过滤器重建时的SCAN category:*扫描到
+    private static final String LEASE_PREFIX = "horizon-lease:";
+    //释放租约脚本，只有持有者才能删除租约
+    private static final byte[] RELEASE_LEASE_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+    //租约替换为不存在标记脚本，只有持有者才能替换
+    private static final byte[] RELEASE_LEASE_ABSENT_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+    //不存在标记的租约值
+    private static final byte[] LEASE_ABSENT = "absent".getBytes(StandardCharsets.UTF_8);
+
+    //异步命令单次pipeline最多携带的命令数
+    private static final int ASYNC_BATCH_SIZE = 128;
+    //同时执行异步pipeline的最大线程数
+    private static final int MAX_ASYNC_DRAINERS = 4;
+
     private JedisPool jedisPool;
     private JedisCluster jedisCluster;
     private Serializer serializer;
+    //统计，未设置时不记录
+    private volatile CacheMetrics metrics;
+
+    //等待发送的异步命令，由异步线程批量取出后通过pipeline发送
+    private final ConcurrentLinkedQueue<AsyncCommand<?, ?>> asyncCommands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger asyncDrainers = new AtomicInteger();
 
     public RedisCache(JedisPool jedisPool, JedisCluster jedisCluster, Serializer serializer) {
         this.jedisPool = jedisPool;
@@ -27,74 +57,93 @@ public class RedisCache implements Cache {
         this.serializer = serializer;
     }
 
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public void set(String key, CacheValue cacheValue) {
+        long start = System.nanoTime();
         if (jedisCluster != null) {
             try {
-                byte[] bytes = serializer.serialize(cacheValue);
+                byte[] bytes = encode(cacheValue);
                 if (cacheValue.getSurvivalTime() < 0) {
                     jedisCluster.set(key.getBytes(StandardCharsets.UTF_8), bytes);
                 } else {
                     jedisCluster.psetex(key.getBytes(StandardCharsets.UTF_8), cacheValue.getSurvivalTime(), bytes);
                 }
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache set error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
-                byte[] bytes = serializer.serialize(cacheValue);
+                byte[] bytes = encode(cacheValue);
                 if (cacheValue.getSurvivalTime() < 0) {
                     jedis.set(key.getBytes(StandardCharsets.UTF_8), bytes);
                 } else {
                     jedis.psetex(key.getBytes(StandardCharsets.UTF_8), cacheValue.getSurvivalTime(), bytes);
                 }
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache set error:{}", e.getMessage(), e);
             }
         }
+        recordLatency("set", start);
     }
 
     @Override
     public CacheValue get(String key) {
+        long start = System.nanoTime();
+        byte[] bytes = null;
         if (jedisCluster != null) {
             try {
-                byte[] bytes = jedisCluster.get(key.getBytes(StandardCharsets.UTF_8));
-                if (bytes == null) {
-                    return null;
-                }
-                return serializer.deserialize(bytes);
+                bytes = jedisCluster.get(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache get error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
-                byte[] bytes = jedis.get(key.getBytes(StandardCharsets.UTF_8));
-                if (bytes == null) {
-                    return null;
-                }
-                return serializer.deserialize(bytes);
+                bytes = jedis.get(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache get error:{}", e.getMessage(), e);
             }
         }
+        recordLatency("get", start);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return decode(bytes);
+        } catch (Exception e) {
+            recordError();
+            log.error("RedisCache get error:{}", e.getMessage(), e);
+        }
         return null;
     }
 
     @Override
     public void delete(String key) {
+        long start = System.nanoTime();
         if (jedisCluster != null) {
             try {
                 jedisCluster.del(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache delete error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
                 jedis.del(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache delete error:{}", e.getMessage(), e);
             }
         }
+        recordLatency("delete", start);
     }
 
     @Override
@@ -103,36 +152,664 @@ public class RedisCache implements Cache {
             try {
                 return jedisCluster.exists(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache exists error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
                 return jedis.exists(key.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache exists error:{}", e.getMessage(), e);
             }
         }
         return false;
     }
 
+    @Override
+    public Map<String, CacheValue> getAll(Collection<String> keys) {
+        Map<String, CacheValue> result = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+        long start = System.nanoTime();
+        List<String> keyList = new ArrayList<>(keys);
+        if (jedisCluster != null) {
+            //集群模式下key可能分布在不同slot，无法直接mget，走集群pipeline按节点批量发送
+            try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                List<Response<byte[]>> responses = new ArrayList<>(keyList.size());
+                for (String key : keyList) {
+                    responses.add(pipeline.get(key.getBytes(StandardCharsets.UTF_8)));
+                }
+                pipeline.sync();
+                for (int i = 0; i < keyList.size(); i++) {
+                    putIfPresent(result, keyList.get(i), responses.get(i).get());
+                }
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache getAll error:{}", e.getMessage(), e);
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                List<byte[]> values = jedis.mget(toBytesArray(keyList));
+                for (int i = 0; i < keyList.size(); i++) {
+                    putIfPresent(result, keyList.get(i), values.get(i));
+                }
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache getAll error:{}", e.getMessage(), e);
+            }
+        }
+        recordLatency("getAll", start);
+        return result;
+    }
+
+    @Override
+    public void setAll(Map<String, CacheValue> cacheValues) {
+        if (cacheValues == null || cacheValues.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (jedisCluster != null) {
+            try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                appendSet(pipeline, cacheValues);
+                pipeline.sync();
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache setAll error:{}", e.getMessage(), e);
+            }
+        } else {
+            //每个key的过期时间可能不同，无法使用mset，这里通过pipeline一次往返提交
+            try (Jedis jedis = jedisPool.getResource(); Pipeline pipeline = jedis.pipelined()) {
+                appendSet(pipeline, cacheValues);
+                pipeline.sync();
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache setAll error:{}", e.getMessage(), e);
+            }
+        }
+        recordLatency("setAll", start);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (jedisCluster != null) {
+            try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                for (String key : keys) {
+                    pipeline.del(key.getBytes(StandardCharsets.UTF_8));
+                }
+                pipeline.sync();
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache deleteAll error:{}", e.getMessage(), e);
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                jedis.del(toBytesArray(keys));
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache deleteAll error:{}", e.getMessage(), e);
+            }
+        }
+        recordLatency("deleteAll", start);
+    }
+
+    @Override
+    public boolean writeAll(Map<String, CacheValue> cacheValues, Collection<String> deleteKeys) {
+        if ((cacheValues == null || cacheValues.isEmpty()) && (deleteKeys == null || deleteKeys.isEmpty())) {
+            return true;
+        }
+        long start = System.nanoTime();
+        List<Response<?>> responses = new ArrayList<>();
+        try {
+            if (jedisCluster != null) {
+                try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                    appendWrite(pipeline, cacheValues, deleteKeys, responses);
+                    pipeline.sync();
+                }
+            } else {
+                try (Jedis jedis = jedisPool.getResource(); Pipeline pipeline = jedis.pipelined()) {
+                    appendWrite(pipeline, cacheValues, deleteKeys, responses);
+                    pipeline.sync();
+                }
+            }
+            //sync不会因单条命令失败抛出异常，逐条读取结果确认全部成功
+            for (Response<?> response : responses) {
+                response.get();
+            }
+            return true;
+        } catch (Exception e) {
+            recordError();
+            log.error("RedisCache writeAll error:{}", e.getMessage(), e);
+            return false;
+        } finally {
+            recordLatency("writeAll", start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CacheValue> getAsync(String key, Executor executor) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return submitAsync(new AsyncCommand<byte[], CacheValue>(pipeline -> pipeline.get(keyBytes),
+                bytes -> bytes == null ? null : decode(bytes)), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, CacheValue cacheValue, Executor executor) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return submitAsync(new AsyncCommand<String, Void>(pipeline -> {
+            byte[] bytes = encode(cacheValue);
+            if (cacheValue.getSurvivalTime() < 0) {
+                return pipeline.set(keyBytes, bytes);
+            }
+            return pipeline.psetex(keyBytes, cacheValue.getSurvivalTime(), bytes);
+        }, result -> null), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key, Executor executor) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return submitAsync(new AsyncCommand<Long, Void>(pipeline -> pipeline.del(keyBytes), result -> null), executor);
+    }
+
+    /**
+     * 提交异步命令，命令先进入队列，由异步线程把同时到达的多个命令合并到一个pipeline中发送
+     *
+     * @param command  异步命令
+     * @param executor 执行IO的线程池
+     * @return 命令结果
+     */
+    private <T> CompletableFuture<T> submitAsync(AsyncCommand<?, T> command, Executor executor) {
+        asyncCommands.add(command);
+        scheduleAsyncDrain(executor);
+        return command.future;
+    }
+
+    private void scheduleAsyncDrain(Executor executor) {
+        while (!asyncCommands.isEmpty()) {
+            int drainers = asyncDrainers.get();
+            if (drainers >= MAX_ASYNC_DRAINERS) {
+                //已有足够的线程在发送，由它们负责取走新命令
+                return;
+            }
+            if (asyncDrainers.compareAndSet(drainers, drainers + 1)) {
+                try {
+                    executor.execute(() -> drainAsync(executor));
+                } catch (Exception e) {
+                    asyncDrainers.decrementAndGet();
+                    recordError();
+                    log.error("RedisCache async submit error:{}", e.getMessage(), e);
+                    failAsyncCommands(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void failAsyncCommands(Exception e) {
+        AsyncCommand<?, ?> command;
+        while ((command = asyncCommands.poll()) != null) {
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 循环取出异步命令，每批通过一次pipeline发送
+     */
+    private void drainAsync(Executor executor) {
+        try {
+            List<AsyncCommand<?, ?>> batch = new ArrayList<>(ASYNC_BATCH_SIZE);
+            while (true) {
+                AsyncCommand<?, ?> command;
+                while (batch.size() < ASYNC_BATCH_SIZE && (command = asyncCommands.poll()) != null) {
+                    batch.add(command);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                executeAsync(batch);
+                batch.clear();
+            }
+        } finally {
+            asyncDrainers.decrementAndGet();
+        }
+        //退出前可能有新命令进入队列，重新调度避免命令滞留
+        scheduleAsyncDrain(executor);
+    }
+
+    private void executeAsync(List<AsyncCommand<?, ?>> batch) {
+        long start = System.nanoTime();
+        try {
+            if (jedisCluster != null) {
+                try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                    executeAsync(pipeline, batch);
+                }
+            } else {
+                try (Jedis jedis = jedisPool.getResource(); Pipeline pipeline = jedis.pipelined()) {
+                    executeAsync(pipeline, batch);
+                }
+            }
+        } catch (Exception e) {
+            recordError();
+            log.error("RedisCache async pipeline error:{}", e.getMessage(), e);
+            for (AsyncCommand<?, ?> command : batch) {
+                //已完成的命令不受影响
+                command.future.completeExceptionally(e);
+            }
+        }
+        recordLatency("pipeline", start);
+    }
+
+    private void executeAsync(AbstractPipeline pipeline, List<AsyncCommand<?, ?>> batch) {
+        List<AsyncCommand<?, ?>> appended = new ArrayList<>(batch.size());
+        for (AsyncCommand<?, ?> command : batch) {
+            try {
+                command.append(pipeline);
+                appended.add(command);
+            } catch (Exception e) {
+                //单个命令序列化失败不影响同批次的其他命令
+                command.future.completeExceptionally(e);
+            }
+        }
+        pipeline.sync();
+        for (AsyncCommand<?, ?> command : appended) {
+            command.complete();
+        }
+    }
+
+    private void appendSet(PipeliningBase pipeline, Map<String, CacheValue> cacheValues) {
+        for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+            CacheValue cacheValue = entry.getValue();
+            byte[] bytes = encode(cacheValue);
+            if (cacheValue.getSurvivalTime() < 0) {
+                pipeline.set(entry.getKey().getBytes(StandardCharsets.UTF_8), bytes);
+            } else {
+                pipeline.psetex(entry.getKey().getBytes(StandardCharsets.UTF_8), cacheValue.getSurvivalTime(), bytes);
+            }
+        }
+    }
+
+    private void appendWrite(PipeliningBase pipeline, Map<String, CacheValue> cacheValues, Collection<String> deleteKeys,
+                             List<Response<?>> responses) {
+        if (cacheValues != null) {
+            for (Map.Entry<String, CacheValue> entry : cacheValues.entrySet()) {
+                CacheValue cacheValue = entry.getValue();
+                byte[] bytes = encode(cacheValue);
+                if (cacheValue.getSurvivalTime() < 0) {
+                    responses.add(pipeline.set(entry.getKey().getBytes(StandardCharsets.UTF_8), bytes));
+                } else {
+                    responses.add(pipeline.psetex(entry.getKey().getBytes(StandardCharsets.UTF_8), cacheValue.getSurvivalTime(), bytes));
+                }
+            }
+        }
+        if (deleteKeys != null) {
+            for (String key : deleteKeys) {
+                responses.add(pipeline.del(key.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    private void putIfPresent(Map<String, CacheValue> result, String key, byte[] bytes) {
+        if (bytes != null) {
+            result.put(key, decode(bytes));
+        }
+    }
+
+    /**
+     * 按CacheValueEnvelope格式编码到线程复用的缓冲区，只在最后复制一次得到写入redis的字节数组
+     */
+    private byte[] encode(CacheValue cacheValue) {
+        if (metrics == null) {
+            return CacheValueEnvelope.encode(serializer, cacheValue);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = CacheValueEnvelope.encode(serializer, cacheValue);
+        metrics.getSerializeLatency().recordSince(start);
+        return bytes;
+    }
+
+    private CacheValue decode(byte[] bytes) {
+        if (metrics == null) {
+            return CacheValueEnvelope.decode(serializer, bytes);
+        }
+        long start = System.nanoTime();
+        CacheValue cacheValue = CacheValueEnvelope.decode(serializer, bytes);
+        metrics.getDeserializeLatency().recordSince(start);
+        return cacheValue;
+    }
+
+    private void recordLatency(String command, long start) {
+        if (metrics != null) {
+            metrics.redis(command).recordSince(start);
+        }
+    }
+
+    private void recordError() {
+        if (metrics != null) {
+            metrics.recordRedisError();
+        }
+    }
+
+    private byte[][] toBytesArray(Collection<String> keys) {
+        byte[][] keyBytes = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys) {
+            keyBytes[i++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        return keyBytes;
+    }
+
+    /**
+     * 批量读取缓存值的前length个字节(GETRANGE)，用于只读取CacheValueEnvelope头部校验数据是否变化
+     *
+     * @param keys   缓存key
+     * @param length 读取的字节数
+     * @return 存在的key及其前length个字节，不存在的key不返回
+     */
+    @Override
+    public Map<String, byte[]> getHeaders(Collection<String> keys, int length) {
+        Map<String, byte[]> result = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        List<Response<byte[]>> responses = new ArrayList<>(keyList.size());
+        if (jedisCluster != null) {
+            try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                for (String key : keyList) {
+                    responses.add(pipeline.getrange(key.getBytes(StandardCharsets.UTF_8), 0, length - 1));
+                }
+                pipeline.sync();
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache getHeaders error:{}", e.getMessage(), e);
+                return result;
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource(); Pipeline pipeline = jedis.pipelined()) {
+                for (String key : keyList) {
+                    responses.add(pipeline.getrange(key.getBytes(StandardCharsets.UTF_8), 0, length - 1));
+                }
+                pipeline.sync();
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache getHeaders error:{}", e.getMessage(), e);
+                return result;
+            }
+        }
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] header = responses.get(i).get();
+            //key不存在时GETRANGE返回空字符串
+            if (header != null && header.length > 0) {
+                result.put(keyList.get(i), header);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 尝试获取回源租约(SET NX PX)，同一个key同时只有一个持有者
+     *
+     * @param key       缓存key
+     * @param leaseTime 租约时长，单位毫秒
+     * @return 租约凭证，null表示租约已被其他节点持有；redis异常时放行并返回凭证，避免阻塞回源
+     */
+    @Override
+    public String tryAcquireLease(String key, long leaseTime) {
+        String token = UUID.randomUUID().toString();
+        byte[] leaseKey = (LEASE_PREFIX + key).getBytes(StandardCharsets.UTF_8);
+        byte[] tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+        SetParams setParams = SetParams.setParams().nx().px(leaseTime);
+        String result;
+        if (jedisCluster != null) {
+            try {
+                result = jedisCluster.set(leaseKey, tokenBytes, setParams);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache tryAcquireLease error:{}", e.getMessage(), e);
+                return token;
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                result = jedis.set(leaseKey, tokenBytes, setParams);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache tryAcquireLease error:{}", e.getMessage(), e);
+                return token;
+            }
+        }
+        return "OK".equals(result) ? token : null;
+    }
+
+    /**
+     * 释放回源租约，租约已过期或已被他人持有时不做处理
+     *
+     * @param key   缓存key
+     * @param token 租约凭证
+     */
+    @Override
+    public void releaseLease(String key, String token) {
+        List<byte[]> keys = Collections.singletonList((LEASE_PREFIX + key).getBytes(StandardCharsets.UTF_8));
+        List<byte[]> args = Collections.singletonList(token.getBytes(StandardCharsets.UTF_8));
+        if (jedisCluster != null) {
+            try {
+                jedisCluster.eval(RELEASE_LEASE_SCRIPT, keys, args);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache releaseLease error:{}", e.getMessage(), e);
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                jedis.eval(RELEASE_LEASE_SCRIPT, keys, args);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache releaseLease error:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void releaseLeaseAbsent(String key, String token, long absentTime) {
+        List<byte[]> keys = Collections.singletonList((LEASE_PREFIX + key).getBytes(StandardCharsets.UTF_8));
+        List<byte[]> args = Arrays.asList(token.getBytes(StandardCharsets.UTF_8), LEASE_ABSENT,
+                String.valueOf(Math.max(absentTime, 1)).getBytes(StandardCharsets.UTF_8));
+        if (jedisCluster != null) {
+            try {
+                jedisCluster.eval(RELEASE_LEASE_ABSENT_SCRIPT, keys, args);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache releaseLeaseAbsent error:{}", e.getMessage(), e);
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                jedis.eval(RELEASE_LEASE_ABSENT_SCRIPT, keys, args);
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache releaseLeaseAbsent error:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isLeaseAbsent(String key) {
+        byte[] leaseKey = (LEASE_PREFIX + key).getBytes(StandardCharsets.UTF_8);
+        if (jedisCluster != null) {
+            try {
+                return Arrays.equals(LEASE_ABSENT, jedisCluster.get(leaseKey));
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache isLeaseAbsent error:{}", e.getMessage(), e);
+            }
+        } else {
+            try (Jedis jedis = jedisPool.getResource()) {
+                return Arrays.equals(LEASE_ABSENT, jedis.get(leaseKey));
+            } catch (Exception e) {
+                recordError();
+                log.error("RedisCache isLeaseAbsent error:{}", e.getMessage(), e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 通过一条BITFIELD命令把bitmap的多个位设置为1；失败时记录错误数后抛出异常，由调用方处理
+     *
+     * @param key     bitmap的key
+     * @param offsets 位编号
+     */
+    @Override
+    public void setBits(String key, long[] offsets) {
+        if (offsets.length == 0) {
+            return;
+        }
+        String[] args = new String[offsets.length * 4];
+        for (int i = 0; i < offsets.length; i++) {
+            args[i * 4] = "SET";
+            args[i * 4 + 1] = "u1";
+            args[i * 4 + 2] = String.valueOf(offsets[i]);
+            args[i * 4 + 3] = "1";
+        }
+        long start = System.nanoTime();
+        try {
+            if (jedisCluster != null) {
+                jedisCluster.bitfield(key, args);
+            } else {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    jedis.bitfield(key, args);
+                }
+            }
+        } catch (RuntimeException e) {
+            recordError();
+            throw e;
+        } finally {
+            recordLatency("setBits", start);
+        }
+    }
+
+    /**
+     * 读取原始字节，不做反序列化；失败时记录错误数后抛出异常，不能把失败当作不存在处理
+     *
+     * @param key key
+     * @return 原始字节，不存在返回null
+     */
+    @Override
+    public byte[] getBytes(String key) {
+        long start = System.nanoTime();
+        try {
+            if (jedisCluster != null) {
+                return jedisCluster.get(key.getBytes(StandardCharsets.UTF_8));
+            }
+            try (Jedis jedis = jedisPool.getResource()) {
+                return jedis.get(key.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (RuntimeException e) {
+            recordError();
+            throw e;
+        } finally {
+            recordLatency("getBytes", start);
+        }
+    }
+
+    /**
+     * 写入原始字节，不做序列化；失败时记录错误数后抛出异常，由调用方处理
+     *
+     * @param key   key
+     * @param bytes 原始字节
+     */
+    @Override
+    public void setBytes(String key, byte[] bytes) {
+        long start = System.nanoTime();
+        try {
+            if (jedisCluster != null) {
+                jedisCluster.set(key.getBytes(StandardCharsets.UTF_8), bytes);
+            } else {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    jedis.set(key.getBytes(StandardCharsets.UTF_8), bytes);
+                }
+            }
+        } catch (RuntimeException e) {
+            recordError();
+            throw e;
+        } finally {
+            recordLatency("setBytes", start);
+        }
+    }
+
+    /**
+     * 通过SCAN遍历匹配的key，集群模式下依次遍历每个节点；
+     * 失败时记录错误数后抛出异常，调用方据此判断遍历不完整
+     *
+     * @param pattern  匹配模式
+     * @param count    每次SCAN的数量
+     * @param consumer 每批key的处理方法
+     */
+    @Override
+    public void scan(String pattern, int count, Consumer<List<String>> consumer) {
+        ScanParams scanParams = new ScanParams().match(pattern).count(count);
+        long start = System.nanoTime();
+        try {
+            if (jedisCluster != null) {
+                //从节点的数据与主节点相同，重复遍历只会重复处理
+                for (ConnectionPool pool : jedisCluster.getClusterNodes().values()) {
+                    try (Jedis jedis = new Jedis(pool.getResource())) {
+                        scan(jedis, scanParams, consumer);
+                    }
+                }
+            } else {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    scan(jedis, scanParams, consumer);
+                }
+            }
+        } catch (RuntimeException e) {
+            recordError();
+            throw e;
+        } finally {
+            recordLatency("scan", start);
+        }
+    }
+
+    private void scan(Jedis jedis, ScanParams scanParams, Consumer<List<String>> consumer) {
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> result = jedis.scan(cursor, scanParams);
+            if (!result.getResult().isEmpty()) {
+                consumer.accept(result.getResult());
+            }
+            cursor = result.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
+
     //------核心-------
 
 
-    public void publish(String channel, Object message) {
-        byte[] bytes = SerializerTypeEnum.JAVA.getSerializer().serialize(message);
+    /**
+     * 发布
+     *
+     * @param channel 发布的频道
+     * @param bytes   编码后的消息
+     */
+    public void publish(String channel, byte[] bytes) {
+        long start = System.nanoTime();
         if (jedisCluster != null) {
             try {
                 jedisCluster.publish(channel.getBytes(StandardCharsets.UTF_8), bytes);
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache publish error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
                 jedis.publish(channel.getBytes(StandardCharsets.UTF_8), bytes);
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache publish error:{}", e.getMessage(), e);
             }
         }
+        recordLatency("publish", start);
     }
 
 
@@ -147,14 +824,46 @@ public class RedisCache implements Cache {
             try {
                 jedisCluster.subscribe(jedisPubSub, channel.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache subscribe error:{}", e.getMessage(), e);
             }
         } else {
             try (Jedis jedis = jedisPool.getResource()) {
                 jedis.subscribe(jedisPubSub, channel.getBytes(StandardCharsets.UTF_8));
             } catch (Exception e) {
+                recordError();
                 log.error("RedisCache subscribe error:{}", e.getMessage(), e);
             }
         }
     }
+
+    /**
+     * 异步命令
+     *
+     * @param <R> redis响应类型
+     * @param <T> 结果类型
+     */
+    private static class AsyncCommand<R, T> {
+        private final Function<PipeliningBase, Response<R>> appender;
+        private final Function<R, T> converter;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private Response<R> response;
+
+        AsyncCommand(Function<PipeliningBase, Response<R>> appender, Function<R, T> converter) {
+            this.appender = appender;
+            this.converter = converter;
+        }
+
+        void append(PipeliningBase pipeline) {
+            response = appender.apply(pipeline);
+        }
+
+        void complete() {
+            try {
+                future.complete(converter.apply(response.get()));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
 }
@@ -1,21 +1,24 @@
 package org.horizon.redis;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-import org.horizon.cache.Cache;
+import org.horizon.broadcast.BroadcastTransport;
+import org.horizon.cache.L2CacheManager;
 import org.horizon.enums.SerializerTypeEnum;
 import org.horizon.serialize.Serializer;
+import org.horizon.serialize.impl.CompressionSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.*;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.Deflater;
 
 /**
  * @author zhaoxun
  * @date 2025/12/4
  */
-public class RedisManager {
+public class RedisManager implements L2CacheManager {
     private static Logger log = LoggerFactory.getLogger(RedisManager.class);
 
     private String serializerType;
@@ -31,6 +34,10 @@ public class RedisManager {
     //socket超时
     private int socketTimeout = 2000;
     private int maxAttempts = 3;
+    //超过该字节数的L2数据压缩后存储，小于等于0表示不压缩
+    private int compressThreshold = -1;
+    //压缩级别，参考java.util.zip.Deflater
+    private int compressLevel = Deflater.BEST_SPEED;
 
     public RedisManager(String serializerType, String nodes, String username, String password) {
         this.serializerType = serializerType;
@@ -67,11 +74,17 @@ public class RedisManager {
     /**
      * 启动redis服务初始化扩展方法
      */
+    @Override
     public void start() {
         if (clusterNodes == null || clusterNodes.isEmpty()) {
             throw new IllegalArgumentException("clusterNodes can not be empty!");
         }
 
+        //开启压缩时包装序列化方式
+        if (compressThreshold > 0 && !(serializer instanceof CompressionSerializer)) {
+            serializer = new CompressionSerializer(serializer, compressThreshold, compressLevel);
+        }
+
         //判断是集群还是单节点
         if (clusterNodes.size() > 1) {
             try {
@@ -112,6 +125,7 @@ public class RedisManager {
     /**
      * 停止redis服务初始化扩展方法
      */
+    @Override
     public void stop() {
         try {
             if (jedisPool != null) {
@@ -131,7 +145,36 @@ public class RedisManager {
      *
      * @return 缓存操作对象实例
      */
-    public Cache getCache() {
+    @Override
+    public RedisCache getCache() {
         return defaultRedisCache;
     }
+
+    /**
+     * 获取L2缓存使用的序列化方式
+     *
+     * @return 序列化实例
+     */
+    @Override
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    /**
+     * 创建基于redis pub/sub的广播传输
+     *
+     * @return 广播传输
+     */
+    @Override
+    public BroadcastTransport createBroadcastTransport() {
+        return new RedisBroadcastTransport(defaultRedisCache);
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public void setCompressLevel(int compressLevel) {
+        this.compressLevel = compressLevel;
+    }
 }
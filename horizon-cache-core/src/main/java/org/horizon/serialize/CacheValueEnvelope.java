@@ -0,0 +1,126 @@
+package org.horizon.serialize;
+
+import org.horizon.caffeine.CacheValue;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion L2存储格式，不再序列化整个CacheValue包装对象，而是写入固定长度的头部后紧跟序列化后的业务对象；
+ * 格式为 magic(1) | 版本(1) | flags(1) | 失效时间戳(8) | 业务对象，读取时重建CacheValue，
+ * 首字节不是magic的数据按旧格式(整个CacheValue序列化)读取，新旧数据可以混合存在
+ */
+public final class CacheValueEnvelope {
+
+    public static final byte MAGIC = (byte) 0xE5;
+    public static final byte VERSION = 1;
+    //头部长度，失效时间戳位于头部末尾8个字节，可以只读取头部判断数据是否变化
+    public static final int HEADER_LENGTH = 11;
+    //业务对象为null(空值标记)
+    private static final int FLAG_NULL = 1;
+    //永久存活
+    private static final int FLAG_PERMANENT = 1 << 1;
+    //回源加载确认不存在的空值标记，只出现在L1的堆外和磁盘层
+    private static final int FLAG_ABSENT = 1 << 2;
+
+    private CacheValueEnvelope() {
+    }
+
+    /**
+     * 编码到缓冲区
+     *
+     * @param serializer 业务对象的序列化方式
+     * @param cacheValue 缓存值
+     * @param buffer     输出缓冲区
+     */
+    public static void encode(Serializer serializer, CacheValue cacheValue, PooledBuffer buffer) {
+        Object value = cacheValue.getValue();
+        int flags = 0;
+        if (value == null) {
+            flags |= FLAG_NULL;
+        }
+        if (cacheValue.getSurvivalTime() < 0) {
+            flags |= FLAG_PERMANENT;
+        }
+        if (cacheValue.isAbsent()) {
+            flags |= FLAG_ABSENT;
+        }
+        buffer.ensureRemaining(HEADER_LENGTH);
+        buffer.write(MAGIC);
+        buffer.write(VERSION);
+        buffer.write(flags);
+        long expirationTime = cacheValue.getExpirationTime();
+        for (int i = 56; i >= 0; i -= 8) {
+            buffer.write((int) (expirationTime >>> i));
+        }
+        if (value != null) {
+            serializer.serialize(value, buffer);
+        }
+    }
+
+    /**
+     * 编码为字节数组
+     *
+     * @param serializer 业务对象的序列化方式
+     * @param cacheValue 缓存值
+     * @return 编码后的字节数组
+     */
+    public static byte[] encode(Serializer serializer, CacheValue cacheValue) {
+        PooledBuffer buffer = PooledBuffer.acquire();
+        try {
+            encode(serializer, cacheValue, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 解码，兼容旧格式
+     *
+     * @param serializer 业务对象的序列化方式
+     * @param bytes      编码后的字节数组
+     * @return 缓存值
+     */
+    public static CacheValue decode(Serializer serializer, byte[] bytes) {
+        if (!isEnvelope(bytes)) {
+            return serializer.deserialize(bytes, 0, bytes.length);
+        }
+        if (bytes[1] != VERSION) {
+            throw new RuntimeException("Unsupported cache value envelope version: " + bytes[1]);
+        }
+        int flags = bytes[2];
+        long expirationTime = readExpirationTime(bytes);
+        CacheValue cacheValue = new CacheValue();
+        if ((flags & FLAG_NULL) == 0) {
+            cacheValue.setValue(serializer.deserialize(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+        }
+        //存活时间按剩余时间还原，永久存活保持-1
+        cacheValue.setSurvivalTime((flags & FLAG_PERMANENT) != 0 ? -1 : Math.max(expirationTime - System.currentTimeMillis(), 1));
+        cacheValue.setExpirationTime(expirationTime);
+        cacheValue.setAbsent((flags & FLAG_ABSENT) != 0);
+        return cacheValue;
+    }
+
+    /**
+     * 判断是否为新格式
+     *
+     * @param bytes 编码后的字节数组，可以只包含头部
+     */
+    public static boolean isEnvelope(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 从头部读取失效时间戳
+     *
+     * @param bytes 编码后的字节数组，可以只包含头部
+     * @return 失效时间戳，单位毫秒
+     */
+    public static long readExpirationTime(byte[] bytes) {
+        long expirationTime = 0;
+        for (int i = HEADER_LENGTH - 8; i < HEADER_LENGTH; i++) {
+            expirationTime = (expirationTime << 8) | (bytes[i] & 0xFF);
+        }
+        return expirationTime;
+    }
+}
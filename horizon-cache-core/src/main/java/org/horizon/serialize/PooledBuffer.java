@@ -0,0 +1,111 @@
+package org.horizon.serialize;
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 可复用的字节缓冲区，按线程池化，序列化时先写入该缓冲区，最终只复制一次得到需要的字节数组；
+ * 通过acquire获取，使用完必须调用release归还，归还后不能再访问
+ */
+public class PooledBuffer extends OutputStream {
+
+    //每个线程最多缓存的缓冲区数量，嵌套使用(如压缩包装序列化)时需要多个
+    private static final int MAX_POOLED_PER_THREAD = 4;
+    //超过该大小的缓冲区不再归还，避免长期占用大数组
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 512;
+
+    private static final ThreadLocal<ArrayDeque<PooledBuffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private byte[] buffer;
+    private int size;
+
+    private PooledBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * 从当前线程的池中获取一个空的缓冲区
+     *
+     * @return 缓冲区
+     */
+    public static PooledBuffer acquire() {
+        PooledBuffer pooledBuffer = POOL.get().pollFirst();
+        return pooledBuffer != null ? pooledBuffer : new PooledBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * 归还到当前线程的池中
+     */
+    public void release() {
+        size = 0;
+        ArrayDeque<PooledBuffer> pool = POOL.get();
+        if (buffer.length <= MAX_RETAINED_CAPACITY && pool.size() < MAX_POOLED_PER_THREAD) {
+            pool.offerFirst(this);
+        }
+    }
+
+    /**
+     * 保证缓冲区至少还能写入length个字节
+     *
+     * @param length 需要写入的字节数
+     */
+    public void ensureRemaining(int length) {
+        int required = size + length;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, required));
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureRemaining(1);
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensureRemaining(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    /**
+     * 底层数组，有效数据为[0, size)，扩容后会变化，写入后需要重新获取
+     */
+    public byte[] array() {
+        return buffer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 设置有效数据长度，用于直接写入底层数组后更新长度或回退已写入的数据
+     *
+     * @param size 有效数据长度
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > buffer.length) {
+            throw new IndexOutOfBoundsException("size: " + size + ", capacity: " + buffer.length);
+        }
+        this.size = size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * 复制有效数据
+     *
+     * @return 有效数据的副本
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -1,5 +1,7 @@
 package org.horizon.serialize;
 
+import java.util.Arrays;
+
 /**
  * @author zhaoxun
  * @date 2025/12/4
@@ -15,4 +17,22 @@ public abstract class Serializer {
      * 反序列化
      */
     public abstract <T> T deserialize(byte[] bytes);
+
+    /**
+     * 序列化并追加写入缓冲区，默认实现复制serialize的结果，实现类可覆盖为直接写入以减少复制
+     */
+    public <T> void serialize(T obj, PooledBuffer buffer) {
+        byte[] bytes = serialize(obj);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 从字节数组的指定区间反序列化，默认实现复制该区间后调用deserialize，实现类可覆盖为直接读取以减少复制
+     */
+    public <T> T deserialize(byte[] bytes, int offset, int length) {
+        if (offset == 0 && length == bytes.length) {
+            return deserialize(bytes);
+        }
+        return deserialize(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
 }
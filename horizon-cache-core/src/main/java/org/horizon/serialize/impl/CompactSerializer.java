@@ -0,0 +1,511 @@
+package org.horizon.serialize.impl;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.serialize.PooledBuffer;
+import org.horizon.serialize.Serializer;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 紧凑二进制序列化，不依赖第三方库；常用类型(字符串、数值、集合、CacheValue等)使用类型标记+变长编码，
+ * 业务类型可以通过register注册编解码器并分配id，未注册且不支持的类型退化为java序列化(需实现Serializable)；
+ * 实例无状态，编码直接写入按线程池化的PooledBuffer，可并发使用
+ */
+public class CompactSerializer extends Serializer {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte SHORT = 8;
+    private static final byte BYTE = 9;
+    private static final byte CHAR = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte CACHE_VALUE = 15;
+    private static final byte BIG_DECIMAL = 16;
+    private static final byte BIG_INTEGER = 17;
+    private static final byte DATE = 18;
+    private static final byte REGISTERED = 19;
+    private static final byte JAVA = 20;
+
+    private final ConcurrentHashMap<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Registration<?>> registrationsById = new ConcurrentHashMap<>();
+
+    /**
+     * 注册业务类型的编解码器，各节点必须使用相同的id注册相同的类型
+     *
+     * @param type  业务类型
+     * @param id    类型id，大于等于0且全局唯一
+     * @param codec 编解码器
+     */
+    public <T> void register(Class<T> type, int id, Codec<T> codec) {
+        if (id < 0) {
+            throw new IllegalArgumentException("register id must be >= 0");
+        }
+        Registration<T> registration = new Registration<>(type, id, codec);
+        Registration<?> exists = registrationsById.putIfAbsent(id, registration);
+        if (exists != null && exists.type != type) {
+            throw new IllegalArgumentException("register id " + id + " already used by " + exists.type.getName());
+        }
+        registrationsByType.put(type, registration);
+    }
+
+    @Override
+    public <T> byte[] serialize(T obj) {
+        PooledBuffer buffer = PooledBuffer.acquire();
+        try {
+            serialize(obj, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes) {
+        if (bytes == null) {
+            throw new RuntimeException("Cannot deserialize null byte array");
+        }
+        return deserialize(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public <T> void serialize(T obj, PooledBuffer buffer) {
+        if (obj == null) {
+            throw new RuntimeException("Cannot serialize null object");
+        }
+        Output output = new Output(this, buffer);
+        output.writeObject(obj);
+        output.flush();
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            throw new RuntimeException("Cannot deserialize null byte array");
+        }
+        return (T) new Input(this, bytes, offset, length).readObject();
+    }
+
+    /**
+     * 业务类型编解码器
+     */
+    public interface Codec<T> {
+
+        void write(Output output, T value);
+
+        T read(Input input);
+    }
+
+    private static class Registration<T> {
+        private final Class<T> type;
+        private final int id;
+        private final Codec<T> codec;
+
+        Registration(Class<T> type, int id, Codec<T> codec) {
+            this.type = type;
+            this.id = id;
+            this.codec = codec;
+        }
+    }
+
+    /**
+     * 编码输出，直接写入PooledBuffer的底层数组
+     */
+    public static class Output {
+        private final CompactSerializer serializer;
+        private final PooledBuffer target;
+        private byte[] buffer;
+        private int position;
+
+        Output(CompactSerializer serializer, PooledBuffer target) {
+            this.serializer = serializer;
+            this.target = target;
+            this.buffer = target.array();
+            this.position = target.size();
+        }
+
+        /**
+         * 把写入位置同步回缓冲区
+         */
+        void flush() {
+            target.setSize(position);
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                target.setSize(position);
+                target.ensureRemaining(length);
+                buffer = target.array();
+            }
+        }
+
+        public void writeByte(int b) {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        public void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        public void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        public void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        public void writeInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        public void writeLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        public void writeDouble(double value) {
+            writeFixedLong(Double.doubleToRawLongBits(value));
+        }
+
+        private void writeFixedLong(long value) {
+            ensure(8);
+            for (int i = 56; i >= 0; i -= 8) {
+                buffer[position++] = (byte) (value >>> i);
+            }
+        }
+
+        public void writeString(String value) {
+            int length = value.length();
+            //ascii字符串直接按字节写入，避免getBytes产生临时数组
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                writeVarInt(length);
+                ensure(length);
+                for (int i = 0; i < length; i++) {
+                    buffer[position++] = (byte) value.charAt(i);
+                }
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        /**
+         * 写入任意对象(带类型标记)
+         */
+        public void writeObject(Object obj) {
+            if (obj == null) {
+                writeByte(NULL);
+                return;
+            }
+            Class<?> type = obj.getClass();
+            if (type == String.class) {
+                writeByte(STRING);
+                writeString((String) obj);
+            } else if (type == Integer.class) {
+                writeByte(INT);
+                writeInt((Integer) obj);
+            } else if (type == Long.class) {
+                writeByte(LONG);
+                writeLong((Long) obj);
+            } else if (type == Boolean.class) {
+                writeByte((Boolean) obj ? TRUE : FALSE);
+            } else if (type == Double.class) {
+                writeByte(DOUBLE);
+                writeDouble((Double) obj);
+            } else if (type == Float.class) {
+                writeByte(FLOAT);
+                writeInt(Float.floatToRawIntBits((Float) obj));
+            } else if (type == Short.class) {
+                writeByte(SHORT);
+                writeInt((Short) obj);
+            } else if (type == Byte.class) {
+                writeByte(BYTE);
+                writeByte((Byte) obj);
+            } else if (type == Character.class) {
+                writeByte(CHAR);
+                writeVarInt((Character) obj);
+            } else if (type == byte[].class) {
+                byte[] bytes = (byte[]) obj;
+                writeByte(BYTES);
+                writeVarInt(bytes.length);
+                writeBytes(bytes, 0, bytes.length);
+            } else if (type == ArrayList.class) {
+                List<?> list = (List<?>) obj;
+                writeByte(LIST);
+                writeVarInt(list.size());
+                for (Object item : list) {
+                    writeObject(item);
+                }
+            } else if (type == HashSet.class || type == LinkedHashSet.class) {
+                Set<?> set = (Set<?>) obj;
+                writeByte(SET);
+                writeVarInt(set.size());
+                for (Object item : set) {
+                    writeObject(item);
+                }
+            } else if (type == HashMap.class || type == LinkedHashMap.class) {
+                Map<?, ?> map = (Map<?, ?>) obj;
+                writeByte(MAP);
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+            } else if (type == CacheValue.class) {
+                CacheValue cacheValue = (CacheValue) obj;
+                writeByte(CACHE_VALUE);
+                writeObject(cacheValue.getValue());
+                writeLong(cacheValue.getSurvivalTime());
+                writeLong(cacheValue.getExpirationTime());
+            } else if (type == BigDecimal.class) {
+                writeByte(BIG_DECIMAL);
+                writeString(obj.toString());
+            } else if (type == BigInteger.class) {
+                writeByte(BIG_INTEGER);
+                writeString(obj.toString());
+            } else if (type == Date.class) {
+                writeByte(DATE);
+                writeLong(((Date) obj).getTime());
+            } else {
+                writeOther(obj, type);
+            }
+        }
+
+        private <T> void writeOther(Object obj, Class<T> type) {
+            Registration<T> registration = (Registration<T>) serializer.registrationsByType.get(type);
+            if (registration != null) {
+                writeByte(REGISTERED);
+                writeVarInt(registration.id);
+                registration.codec.write(this, type.cast(obj));
+                return;
+            }
+            if (!(obj instanceof Serializable)) {
+                throw new RuntimeException("Failed to serialize object, type not registered and not Serializable: " + type.getName());
+            }
+            //未注册的类型退化为java序列化
+            writeByte(JAVA);
+            try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                 ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(obj);
+                oos.flush();
+                byte[] bytes = bos.toByteArray();
+                writeVarInt(bytes.length);
+                writeBytes(bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to serialize object: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 解码输入
+     */
+    public static class Input {
+        private final CompactSerializer serializer;
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        Input(CompactSerializer serializer, byte[] buffer, int offset, int length) {
+            this.serializer = serializer;
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        private void require(int length) {
+            if (position + length > limit) {
+                throw new RuntimeException("Failed to deserialize object: unexpected end of data");
+            }
+        }
+
+        public int readByte() {
+            require(1);
+            return buffer[position++];
+        }
+
+        public byte[] readBytes(int length) {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        public int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new RuntimeException("Failed to deserialize object: malformed varint");
+        }
+
+        public long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new RuntimeException("Failed to deserialize object: malformed varlong");
+        }
+
+        public int readInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public long readLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public double readDouble() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(value);
+        }
+
+        public String readString() {
+            int length = readVarInt();
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * 读取任意对象(带类型标记)
+         */
+        public Object readObject() {
+            int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString();
+                case INT:
+                    return readInt();
+                case LONG:
+                    return readLong();
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case DOUBLE:
+                    return readDouble();
+                case FLOAT:
+                    return Float.intBitsToFloat(readInt());
+                case SHORT:
+                    return (short) readInt();
+                case BYTE:
+                    return (byte) readByte();
+                case CHAR:
+                    return (char) readVarInt();
+                case BYTES:
+                    return readBytes(readVarInt());
+                case LIST: {
+                    int size = readVarInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readObject());
+                    }
+                    return list;
+                }
+                case SET: {
+                    int size = readVarInt();
+                    Set<Object> set = new LinkedHashSet<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        set.add(readObject());
+                    }
+                    return set;
+                }
+                case MAP: {
+                    int size = readVarInt();
+                    Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        map.put(readObject(), readObject());
+                    }
+                    return map;
+                }
+                case CACHE_VALUE: {
+                    CacheValue cacheValue = new CacheValue();
+                    cacheValue.setValue(readObject());
+                    cacheValue.setSurvivalTime(readLong());
+                    cacheValue.setExpirationTime(readLong());
+                    return cacheValue;
+                }
+                case BIG_DECIMAL:
+                    return new BigDecimal(readString());
+                case BIG_INTEGER:
+                    return new BigInteger(readString());
+                case DATE:
+                    return new Date(readLong());
+                case REGISTERED: {
+                    int id = readVarInt();
+                    Registration<?> registration = serializer.registrationsById.get(id);
+                    if (registration == null) {
+                        throw new RuntimeException("Failed to deserialize object: type id not registered: " + id);
+                    }
+                    return registration.codec.read(this);
+                }
+                case JAVA: {
+                    int length = readVarInt();
+                    require(length);
+                    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer, position, length))) {
+                        position += length;
+                        return ois.readObject();
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to deserialize object: " + e.getMessage(), e);
+                    }
+                }
+                default:
+                    throw new RuntimeException("Failed to deserialize object: unknown type tag " + tag);
+            }
+        }
+    }
+}
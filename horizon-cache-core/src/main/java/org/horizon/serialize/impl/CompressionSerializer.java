@@ -0,0 +1,222 @@
+package org.horizon.serialize.impl;
+
+import org.horizon.serialize.PooledBuffer;
+import org.horizon.serialize.Serializer;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion 压缩序列化，包装任意Serializer，序列化结果超过阈值时使用deflate压缩；
+ * 压缩后的数据格式为 magic(1) | flags(1) | 原始长度(4) | deflate数据，未压缩的数据保持原样，
+ * 读取时根据首字节是否为magic区分，因此压缩和未压缩的数据可以混合存在
+ */
+public class CompressionSerializer extends Serializer {
+
+    public static final byte MAGIC = (byte) 0xC7;
+    private static final int FLAG_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 6;
+
+    private final Serializer delegate;
+    //超过该字节数才压缩
+    private final int threshold;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    //压缩次数
+    private final LongAdder compressCount = new LongAdder();
+    //超过阈值但压缩后没有变小而按原样存储的次数
+    private final LongAdder incompressibleCount = new LongAdder();
+    //压缩前总字节数
+    private final LongAdder compressInputBytes = new LongAdder();
+    //压缩后总字节数
+    private final LongAdder compressOutputBytes = new LongAdder();
+    //压缩总耗时，单位纳秒
+    private final LongAdder compressNanos = new LongAdder();
+    //解压次数
+    private final LongAdder decompressCount = new LongAdder();
+    //解压总耗时，单位纳秒
+    private final LongAdder decompressNanos = new LongAdder();
+
+    public CompressionSerializer(Serializer delegate, int threshold, int level) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    @Override
+    public <T> byte[] serialize(T obj) {
+        PooledBuffer buffer = PooledBuffer.acquire();
+        try {
+            serialize(obj, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes) {
+        if (bytes == null) {
+            throw new RuntimeException("Cannot deserialize null byte array");
+        }
+        return deserialize(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public <T> void serialize(T obj, PooledBuffer out) {
+        PooledBuffer raw = PooledBuffer.acquire();
+        try {
+            delegate.serialize(obj, raw);
+            byte[] bytes = raw.array();
+            int rawLength = raw.size();
+            if (rawLength <= threshold) {
+                writeRaw(bytes, rawLength, out);
+                return;
+            }
+            long start = System.nanoTime();
+            Deflater deflater = deflaters.get();
+            deflater.reset();
+            deflater.setInput(bytes, 0, rawLength);
+            deflater.finish();
+            //直接压缩到输出缓冲区头部之后，压缩后不小于原始数据则没有意义，因此最多写入原始长度
+            int begin = out.size();
+            out.ensureRemaining(rawLength);
+            byte[] target = out.array();
+            int limit = begin + rawLength;
+            int length = begin + HEADER_LENGTH;
+            while (!deflater.finished() && length < limit) {
+                length += deflater.deflate(target, length, limit - length);
+            }
+            compressNanos.add(System.nanoTime() - start);
+            if (!deflater.finished()) {
+                incompressibleCount.increment();
+                writeRaw(bytes, rawLength, out);
+                return;
+            }
+            target[begin] = MAGIC;
+            target[begin + 1] = FLAG_DEFLATE;
+            writeInt(target, begin + 2, rawLength);
+            out.setSize(length);
+            compressCount.increment();
+            compressInputBytes.add(rawLength);
+            compressOutputBytes.add(length - begin);
+        } finally {
+            raw.release();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            throw new RuntimeException("Cannot deserialize null byte array");
+        }
+        if (length == 0 || bytes[offset] != MAGIC) {
+            return delegate.deserialize(bytes, offset, length);
+        }
+        if ((bytes[offset + 1] & FLAG_DEFLATE) == 0) {
+            return delegate.deserialize(bytes, offset + 2, length - 2);
+        }
+        long start = System.nanoTime();
+        int rawLength = readInt(bytes, offset + 2);
+        PooledBuffer raw = PooledBuffer.acquire();
+        try {
+            raw.ensureRemaining(rawLength);
+            byte[] target = raw.array();
+            Inflater inflater = inflaters.get();
+            inflater.reset();
+            inflater.setInput(bytes, offset + HEADER_LENGTH, length - HEADER_LENGTH);
+            try {
+                int inflated = 0;
+                while (inflated < rawLength && !inflater.finished()) {
+                    int n = inflater.inflate(target, inflated, rawLength - inflated);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != rawLength) {
+                    throw new RuntimeException("Failed to decompress data: length mismatch");
+                }
+            } catch (DataFormatException e) {
+                throw new RuntimeException("Failed to decompress data: " + e.getMessage(), e);
+            }
+            decompressCount.increment();
+            decompressNanos.add(System.nanoTime() - start);
+            return delegate.deserialize(target, 0, rawLength);
+        } finally {
+            raw.release();
+        }
+    }
+
+    /**
+     * 写入未压缩的数据，首字节恰好与magic相同时加上不压缩的头部避免读取时误判
+     */
+    private static void writeRaw(byte[] bytes, int length, PooledBuffer out) {
+        if (length > 0 && bytes[0] == MAGIC) {
+            out.write(MAGIC);
+            out.write(0);
+        }
+        out.write(bytes, 0, length);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    public Serializer getDelegate() {
+        return delegate;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    public long getIncompressibleCount() {
+        return incompressibleCount.sum();
+    }
+
+    public long getCompressInputBytes() {
+        return compressInputBytes.sum();
+    }
+
+    public long getCompressOutputBytes() {
+        return compressOutputBytes.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    /**
+     * 压缩率，压缩后字节数/压缩前字节数，没有压缩过时返回1
+     */
+    public double getCompressionRatio() {
+        long input = compressInputBytes.sum();
+        return input == 0 ? 1D : (double) compressOutputBytes.sum() / input;
+    }
+}
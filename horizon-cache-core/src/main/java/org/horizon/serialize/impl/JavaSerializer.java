@@ -1,5 +1,6 @@
 package org.horizon.serialize.impl;
 
+import org.horizon.serialize.PooledBuffer;
 import org.horizon.serialize.Serializer;
 
 import java.io.*;
@@ -12,24 +13,42 @@ import java.io.*;
 public class JavaSerializer extends Serializer {
     @Override
     public <T> byte[] serialize(T obj) {
+        PooledBuffer buffer = PooledBuffer.acquire();
+        try {
+            serialize(obj, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes) {
+        if (bytes == null) {
+            throw new RuntimeException("Cannot deserialize null byte array");
+        }
+        return deserialize(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public <T> void serialize(T obj, PooledBuffer buffer) {
         if (obj == null) {
             throw new RuntimeException("Cannot serialize null object");
         }
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+        //直接写入缓冲区，ObjectOutputStream关闭时不会关闭PooledBuffer的数据
+        try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
             oos.writeObject(obj);
-            return bos.toByteArray();
         } catch (IOException e) {
             throw new RuntimeException("Failed to serialize object: " + e.getMessage(), e);
         }
     }
 
     @Override
-    public <T> T deserialize(byte[] bytes) {
+    public <T> T deserialize(byte[] bytes, int offset, int length) {
         if (bytes == null) {
             throw new RuntimeException("Cannot deserialize null byte array");
         }
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes, offset, length);
              ObjectInputStream ois = new ObjectInputStream(bais)) {
             return (T) ois.readObject();
         } catch (Exception e) {
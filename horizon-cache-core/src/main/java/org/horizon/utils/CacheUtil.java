@@ -19,4 +19,15 @@ public class CacheUtil {
 
         return category + ":" + key;
     }
+
+    /**
+     * 从缓存key中解析业务key
+     *
+     * @param category 业务类别
+     * @param finalKey 缓存key
+     * @return 业务key
+     */
+    public static String parseKey(String category, String finalKey) {
+        return finalKey.substring(category.length() + 1);
+    }
 }
@@ -0,0 +1,191 @@
+package org.horizon;
+
+import org.horizon.broadcast.CacheBroadcastMessage;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.enums.CacheTypeEnum;
+import org.horizon.factory.HorizonCacheFactory;
+import org.horizon.memory.MemoryStore;
+import org.horizon.utils.CacheUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion get(key, loader)的单飞加载和空值标记，L2使用jvm内的memory存储；
+ * 同一个存储名称的第二个缓存工厂模拟集群中的另一个节点
+ */
+public class HorizonCacheHelperTest {
+
+    private String storeName;
+    private String category;
+    private HorizonCacheFactory otherNode;
+    private HorizonCacheFactory factory;
+
+    @BeforeEach
+    public void setUp() {
+        storeName = "helper-test-" + UUID.randomUUID();
+        category = "helper-" + UUID.randomUUID();
+        //后创建的工厂是HorizonCacheHelper使用的当前节点
+        otherNode = createFactory();
+        factory = createFactory();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        factory.stop();
+        otherNode.stop();
+        MemoryStore.removeStore(storeName);
+    }
+
+    @Test
+    public void concurrentGetLoadsOnce() throws Exception {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("1", key -> {
+                        loads.incrementAndGet();
+                        sleep(200);
+                        return "value-" + key;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("value-1", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        //加载结果写入L2
+        assertEquals("value-1", factory.getL2CacheManager().getCache().get(finalKey("1")).getValue());
+    }
+
+    @Test
+    public void loaderErrorPropagatesToWaitersAndIsNotCached() throws Exception {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> first = executor.submit(() -> cache.get("1", key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                sleep(300);
+                throw new IllegalStateException("load failed");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            //等待中的线程拿到同一个异常，不会再次执行loader
+            assertThrows(IllegalStateException.class, () -> cache.get("1", key -> {
+                loads.incrementAndGet();
+                return "unexpected";
+            }));
+            ExecutionException error = assertThrows(ExecutionException.class, first::get);
+            assertTrue(error.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+
+        //加载失败不写入空值标记，下次读取重新加载
+        assertEquals("value", cache.get("1", key -> "value"));
+    }
+
+    @Test
+    public void loaderAbsentMarkerIsHit() {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("1", key -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("1", key -> {
+            loads.incrementAndGet();
+            return "unexpected";
+        }));
+
+        assertEquals(1, loads.get());
+        assertTrue(factory.getL1CacheManager().getCache(category).get(finalKey("1")).isAbsent());
+    }
+
+    @Test
+    public void l2MissMarkerIsNotHit() {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        //不带loader的读取在L2未命中时写入空值标记
+        assertNull(cache.get("1"));
+        CacheValue marker = factory.getL1CacheManager().getCache(category).get(finalKey("1"));
+        assertNotNull(marker);
+        assertFalse(marker.isAbsent());
+
+        assertEquals("value", cache.get("1", key -> "value"));
+    }
+
+    @Test
+    public void refetchAfterRemoteDeleteReloads() throws InterruptedException {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        assertEquals("v1", cache.get("1", key -> "v1"));
+
+        //另一个节点删除数据并广播，本节点refetch时L2中已不存在，L1写入空值标记
+        otherNode.getL2CacheManager().getCache().delete(finalKey("1"));
+        otherNode.broadcast(new CacheBroadcastMessage(category, "1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        CacheValue l1CacheValue;
+        do {
+            Thread.sleep(10);
+            l1CacheValue = factory.getL1CacheManager().getCache(category).get(finalKey("1"));
+        } while (l1CacheValue != null && l1CacheValue.getValue() != null && System.currentTimeMillis() < deadline);
+        assertNotNull(l1CacheValue);
+        assertNull(l1CacheValue.getValue());
+
+        assertEquals("v2", cache.get("1", key -> "v2"));
+    }
+
+    @Test
+    public void l2ValueServedWithoutLoader() {
+        HorizonCacheHelper.HorizonCache cache = HorizonCacheHelper.getCache(category, 60000);
+        factory.getL2CacheManager().getCache().set(finalKey("1"), new CacheValue("l2", 60000));
+
+        assertEquals("l2", cache.get("1", key -> {
+            throw new IllegalStateException("loader should not be called");
+        }));
+    }
+
+    private HorizonCacheFactory createFactory() {
+        HorizonCacheFactory horizonCacheFactory = new HorizonCacheFactory();
+        horizonCacheFactory.setL2CacheProvider(CacheTypeEnum.MEMORY.getType());
+        horizonCacheFactory.setNodes(storeName);
+        horizonCacheFactory.setJmxEnabled(false);
+        horizonCacheFactory.start();
+        return horizonCacheFactory;
+    }
+
+    private String finalKey(String key) {
+        return CacheUtil.generateKey(category, key);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
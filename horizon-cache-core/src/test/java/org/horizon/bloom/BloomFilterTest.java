@@ -0,0 +1,104 @@
+package org.horizon.bloom;
+
+import org.horizon.memory.MemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion BloomFilter的本地写入和合并redis布局的bitmap，bitmap由MemoryStore.setBits按redis的位序生成
+ */
+public class BloomFilterTest {
+
+    private String storeName;
+    private MemoryStore store;
+
+    @BeforeEach
+    public void setUp() {
+        storeName = "bloom-test-" + UUID.randomUUID();
+        store = MemoryStore.getStore(storeName, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MemoryStore.removeStore(storeName);
+    }
+
+    @Test
+    public void putAndMightContain() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(filter.offsets("key:" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("key:" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("absent:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void mergeRedisBitmap() {
+        BloomFilter writer = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 500; i++) {
+            store.setBits("bloom", writer.offsets("key:" + i));
+        }
+
+        BloomFilter reader = new BloomFilter(1000, 0.01);
+        assertFalse(reader.mightContain("key:0"));
+        reader.merge(store.get("bloom"));
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(reader.mightContain("key:" + i));
+        }
+    }
+
+    @Test
+    public void mergeUsesRedisBitOrder() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        long[] offsets = filter.offsets("key");
+        //redis bitmap中每个字节的最高位是offset较小的位
+        byte[] bitmap = new byte[(int) (filter.getNumBits() / 8)];
+        for (long offset : offsets) {
+            bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+        }
+
+        filter.merge(bitmap);
+
+        assertTrue(filter.mightContain("key"));
+    }
+
+    @Test
+    public void storeBitmapMatchesRedisLayout() {
+        //与redis SETBIT一致：offset 0是第一个字节的最高位，offset 9是第二个字节的次高位
+        store.setBits("bloom", new long[]{0, 9});
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x40}, store.get("bloom"));
+
+        store.setBits("bloom", new long[]{7, 23});
+        assertArrayEquals(new byte[]{(byte) 0x81, 0x40, 0x01}, store.get("bloom"));
+    }
+
+    @Test
+    public void mergeIgnoresBitsBeyondFilterSize() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        byte[] bitmap = new byte[(int) (filter.getNumBits() / 8) + 16];
+        Arrays.fill(bitmap, (int) (filter.getNumBits() / 8), bitmap.length, (byte) 0xFF);
+
+        filter.merge(bitmap);
+
+        assertFalse(filter.mightContain("key"));
+    }
+}
@@ -0,0 +1,150 @@
+package org.horizon.broadcast;
+
+import org.horizon.metrics.CacheMetrics;
+import org.horizon.metrics.HorizonCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion BroadcastDispatcher的同key合并、同key有序、队列满时的背压和分发统计
+ */
+public class BroadcastDispatcherTest {
+
+    private final CacheMetrics metrics = new CacheMetrics();
+    private BroadcastDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void pendingSameKeyCollapsesToLatest() throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CacheBroadcastMessage> handled = new CopyOnWriteArrayList<>();
+        dispatcher = new BroadcastDispatcher(message -> {
+            handled.add(message);
+            handling.countDown();
+            await(release);
+        }, 1, 100, metrics);
+        dispatcher.start();
+
+        dispatcher.dispatch(message("user", "1", 1));
+        //工作线程阻塞在第一条消息上，后续消息留在队列中
+        assertTrue(handling.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(message("user", "1", 2));
+        dispatcher.dispatch(message("user", "2", 3));
+        dispatcher.dispatch(message("user", "1", 4));
+        assertEquals(2, dispatcher.getQueueSize());
+        assertEquals(2, metrics.getBroadcastQueueSize());
+        release.countDown();
+        waitFor(() -> handled.size() >= 2);
+
+        //合并后的key移动到队尾，只保留最新的值
+        CacheBroadcastMessage batch = handled.get(1);
+        assertEquals(Arrays.asList("2", "1"), batch.allKeys());
+        assertArrayEquals(new byte[]{3}, batch.getValues().get(0));
+        assertArrayEquals(new byte[]{4}, batch.getValues().get(1));
+        waitFor(() -> dispatcher.getProcessedCount() == 3);
+        assertEquals(3, metrics.getBroadcastEnqueued());
+        assertEquals(1, metrics.getBroadcastCollapsed());
+        assertEquals(3, metrics.getBroadcastProcessed());
+        assertEquals(0, metrics.getBroadcastQueueSize());
+    }
+
+    @Test
+    public void sameKeyHandledInOrder() throws Exception {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        dispatcher = new BroadcastDispatcher(message -> {
+            for (int i = 0; i < message.allKeys().size(); i++) {
+                seen.computeIfAbsent(message.allKeys().get(i), k -> new CopyOnWriteArrayList<>())
+                        .add((int) message.getValues().get(i)[0]);
+            }
+        }, 4, 100, metrics);
+        dispatcher.start();
+
+        for (int value = 0; value < 100; value++) {
+            List<String> keys = new ArrayList<>();
+            List<byte[]> values = new ArrayList<>();
+            for (int key = 0; key < 10; key++) {
+                keys.add(String.valueOf(key));
+                values.add(new byte[]{(byte) value});
+            }
+            CacheBroadcastMessage message = new CacheBroadcastMessage("user", keys);
+            message.setValues(values);
+            dispatcher.dispatch(message);
+        }
+        waitFor(() -> dispatcher.getProcessedCount() + dispatcher.getCollapsedCount() == 1000);
+
+        assertEquals(10, seen.size());
+        for (List<Integer> values : seen.values()) {
+            //中间的值可能被合并，但处理顺序不会倒退，且最后一次一定是最新的值
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue(values.get(i) > values.get(i - 1), "out of order: " + values);
+            }
+            assertEquals(99, (int) values.get(values.size() - 1));
+        }
+    }
+
+    @Test
+    public void fullQueueBlocksDispatch() throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher = new BroadcastDispatcher(message -> {
+            handling.countDown();
+            await(release);
+        }, 1, 1, metrics);
+        dispatcher.start();
+        dispatcher.dispatch(message("user", "1", 1));
+        assertTrue(handling.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(message("user", "2", 2));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = executor.submit(() -> dispatcher.dispatch(message("user", "3", 3)));
+            Thread.sleep(200);
+            assertFalse(blocked.isDone());
+            release.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, metrics.getBroadcastBlocked());
+        assertTrue(metrics.getBroadcastBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+        HorizonCacheStats stats = new HorizonCacheStats(metrics);
+        assertEquals(1, stats.getBroadcastBlocked());
+        assertEquals(3, stats.getBroadcastEnqueued());
+    }
+
+    private static CacheBroadcastMessage message(String category, String key, int value) {
+        CacheBroadcastMessage message = new CacheBroadcastMessage(category, key);
+        message.setValues(Collections.singletonList(new byte[]{(byte) value}));
+        return message;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.call() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
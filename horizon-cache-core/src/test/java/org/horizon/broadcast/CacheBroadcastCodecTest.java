@@ -0,0 +1,115 @@
+package org.horizon.broadcast;
+
+import org.horizon.enums.BroadcastFormatEnum;
+import org.horizon.enums.BroadcastModeEnum;
+import org.horizon.enums.SerializerTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CacheBroadcastCodec的编解码、广播模式编号和旧格式兼容
+ */
+public class CacheBroadcastCodecTest {
+
+    @Test
+    public void binaryRoundTripSingleKey() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", "1001");
+        message.setNodeId("node-1");
+        message.setMode(BroadcastModeEnum.INVALIDATE.getType());
+
+        CacheBroadcastMessage decoded = CacheBroadcastCodec.decode(CacheBroadcastCodec.encode(message));
+
+        assertEquals("node-1", decoded.getNodeId());
+        assertEquals(BroadcastModeEnum.INVALIDATE.getType(), decoded.getMode());
+        assertEquals("user", decoded.getCategory());
+        assertEquals("1001", decoded.getKey());
+        assertNull(decoded.getValues());
+        assertEquals(0, decoded.getTimestamp());
+    }
+
+    @Test
+    public void binaryRoundTripBatchWithValues() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", Arrays.asList("1", "2", "3"));
+        message.setNodeId("node-1");
+        message.setMode(BroadcastModeEnum.PUSH.getType());
+        message.setValues(Arrays.asList(new byte[]{1, 2}, null, new byte[0]));
+        message.setTimestamp(1234567890123L);
+
+        CacheBroadcastMessage decoded = CacheBroadcastCodec.decode(CacheBroadcastCodec.encode(message));
+
+        assertEquals(BroadcastModeEnum.PUSH.getType(), decoded.getMode());
+        assertEquals(Arrays.asList("1", "2", "3"), decoded.allKeys());
+        assertEquals(3, decoded.getValues().size());
+        assertArrayEquals(new byte[]{1, 2}, decoded.getValues().get(0));
+        assertNull(decoded.getValues().get(1));
+        assertArrayEquals(new byte[0], decoded.getValues().get(2));
+        assertEquals(1234567890123L, decoded.getTimestamp());
+    }
+
+    @Test
+    public void nullFieldsRoundTrip() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", "1001");
+
+        CacheBroadcastMessage decoded = CacheBroadcastCodec.decode(CacheBroadcastCodec.encode(message));
+
+        assertNull(decoded.getNodeId());
+        assertNull(decoded.getMode());
+        assertEquals("1001", decoded.getKey());
+    }
+
+    @Test
+    public void modeUsesFixedCode() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", "1001");
+        message.setMode(BroadcastModeEnum.PUSH.getType());
+        assertEquals(2, CacheBroadcastCodec.encode(message)[2]);
+        message.setMode(BroadcastModeEnum.REFETCH.getType());
+        assertEquals(3, CacheBroadcastCodec.encode(message)[2]);
+    }
+
+    @Test
+    public void unknownModeCodeThrows() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", "1001");
+        message.setMode(BroadcastModeEnum.INVALIDATE.getType());
+        byte[] bytes = CacheBroadcastCodec.encode(message);
+        bytes[2] = 100;
+        assertThrows(IllegalArgumentException.class, () -> CacheBroadcastCodec.decode(bytes));
+    }
+
+    @Test
+    public void unsupportedVersionThrows() {
+        byte[] bytes = CacheBroadcastCodec.encode(new CacheBroadcastMessage("user", "1001"));
+        bytes[1] = (byte) (CacheBroadcastCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> CacheBroadcastCodec.decode(bytes));
+    }
+
+    @Test
+    public void emptyBytesThrow() {
+        assertThrows(IllegalArgumentException.class, () -> CacheBroadcastCodec.decode(new byte[0]));
+    }
+
+    @Test
+    public void javaFormatIsDecodedAsLegacyMessage() {
+        CacheBroadcastMessage message = new CacheBroadcastMessage("user", Arrays.asList("1", "2"));
+        message.setNodeId("node-1");
+        message.setMode(BroadcastModeEnum.REFETCH.getType());
+
+        byte[] bytes = CacheBroadcastCodec.encode(message, BroadcastFormatEnum.JAVA);
+        assertArrayEquals(SerializerTypeEnum.JAVA.getSerializer().serialize(message), bytes);
+
+        CacheBroadcastMessage decoded = CacheBroadcastCodec.decode(bytes);
+        assertEquals("node-1", decoded.getNodeId());
+        assertEquals(BroadcastModeEnum.REFETCH.getType(), decoded.getMode());
+        assertEquals(Arrays.asList("1", "2"), decoded.allKeys());
+    }
+
+    @Test
+    public void binaryFormatStartsWithMagic() {
+        byte[] bytes = CacheBroadcastCodec.encode(new CacheBroadcastMessage("user", "1001"), BroadcastFormatEnum.BINARY);
+        assertEquals(CacheBroadcastCodec.MAGIC, bytes[0]);
+    }
+}
@@ -0,0 +1,137 @@
+package org.horizon.broadcast;
+
+import org.horizon.enums.BroadcastModeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CoalescingBroadcastPublisher的key合并、分组、按批次拆分和刷新时机
+ */
+public class CoalescingBroadcastPublisherTest {
+
+    private final List<CacheBroadcastMessage> published = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void duplicateKeysKeepLastValueInLastPosition() {
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(published::add, 60000, 100, 1000);
+        publisher.offer(pushMessage("user", "1", new byte[]{1}));
+        publisher.offer(pushMessage("user", "2", new byte[]{2}));
+        publisher.offer(pushMessage("user", "1", new byte[]{3}));
+
+        publisher.flush();
+
+        assertEquals(1, published.size());
+        CacheBroadcastMessage message = published.get(0);
+        assertEquals(Arrays.asList("2", "1"), message.allKeys());
+        assertArrayEquals(new byte[]{2}, message.getValues().get(0));
+        assertArrayEquals(new byte[]{3}, message.getValues().get(1));
+        assertEquals("node-1", message.getNodeId());
+        assertEquals(BroadcastModeEnum.PUSH.getType(), message.getMode());
+    }
+
+    @Test
+    public void groupsByCategoryAndMode() {
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(published::add, 60000, 100, 1000);
+        publisher.offer(invalidateMessage("user", "1"));
+        publisher.offer(invalidateMessage("order", "1"));
+        publisher.offer(pushMessage("user", "2", new byte[]{2}));
+        publisher.offer(invalidateMessage("user", "3"));
+
+        publisher.flush();
+
+        assertEquals(3, published.size());
+        assertEquals("user", published.get(0).getCategory());
+        assertEquals(Arrays.asList("1", "3"), published.get(0).allKeys());
+        //invalidate模式不携带缓存值
+        assertNull(published.get(0).getValues());
+        assertEquals("order", published.get(1).getCategory());
+        assertEquals(BroadcastModeEnum.PUSH.getType(), published.get(2).getMode());
+        assertEquals(Arrays.asList("2"), published.get(2).allKeys());
+    }
+
+    @Test
+    public void splitsIntoBatches() {
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(published::add, 60000, 2, 1000);
+        publisher.offer(new CacheBroadcastMessage("user", Arrays.asList("1", "2", "3", "4", "5")));
+
+        waitForPublished(3);
+
+        assertEquals(3, published.size());
+        assertEquals(Arrays.asList("1", "2"), published.get(0).allKeys());
+        assertEquals(Arrays.asList("3", "4"), published.get(1).allKeys());
+        assertEquals(Arrays.asList("5"), published.get(2).allKeys());
+    }
+
+    @Test
+    public void fullQueueFlushesInCallerThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> publishThreads = new CopyOnWriteArrayList<>();
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(message -> {
+            publishThreads.add(Thread.currentThread());
+            published.add(message);
+        }, 60000, 2, 2);
+
+        publisher.offer(new CacheBroadcastMessage("user", Arrays.asList("1", "2")));
+
+        //offer返回时已经同步发送完成
+        assertEquals(1, published.size());
+        assertSame(caller, publishThreads.get(0));
+    }
+
+    @Test
+    public void emptyFlushPublishesNothing() {
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(published::add, 60000, 100, 1000);
+        publisher.flush();
+        assertEquals(0, published.size());
+    }
+
+    @Test
+    public void scheduledFlushAndStop() {
+        CoalescingBroadcastPublisher publisher = new CoalescingBroadcastPublisher(published::add, 20, 100, 1000);
+        publisher.start();
+        publisher.offer(invalidateMessage("user", "1"));
+        waitForPublished(1);
+        assertEquals(Arrays.asList("1"), published.get(0).allKeys());
+
+        publisher.stop();
+        //停止后调用方仍可以提交，由最后一次stop或flush发送
+        publisher.offer(invalidateMessage("user", "2"));
+        publisher.flush();
+        assertEquals(2, published.size());
+        assertEquals(Arrays.asList("2"), published.get(1).allKeys());
+    }
+
+    private static CacheBroadcastMessage invalidateMessage(String category, String key) {
+        CacheBroadcastMessage message = new CacheBroadcastMessage(category, key);
+        message.setNodeId("node-1");
+        message.setMode(BroadcastModeEnum.INVALIDATE.getType());
+        return message;
+    }
+
+    private static CacheBroadcastMessage pushMessage(String category, String key, byte[] value) {
+        CacheBroadcastMessage message = new CacheBroadcastMessage(category, key);
+        message.setNodeId("node-1");
+        message.setMode(BroadcastModeEnum.PUSH.getType());
+        message.setValues(Arrays.asList(value));
+        return message;
+    }
+
+    private void waitForPublished(int count) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
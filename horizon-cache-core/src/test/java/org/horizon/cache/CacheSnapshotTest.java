@@ -0,0 +1,171 @@
+package org.horizon.cache;
+
+import org.horizon.caffeine.CacheManager;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.enums.CacheTypeEnum;
+import org.horizon.memory.MemoryCache;
+import org.horizon.memory.MemoryStore;
+import org.horizon.serialize.Serializer;
+import org.horizon.serialize.impl.CompactSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CacheSnapshot写入和加载，L2中已被更新、删除或在加载过程中被更新的数据不能加载到L1
+ */
+public class CacheSnapshotTest {
+
+    private final Serializer serializer = new CompactSerializer();
+    private String storeName;
+    private MemoryStore store;
+    private MemoryCache l2Cache;
+    private CacheManager l1CacheManager;
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        storeName = "snapshot-test-" + UUID.randomUUID();
+        store = MemoryStore.getStore(storeName, 0);
+        l2Cache = new MemoryCache(store, serializer);
+        l1CacheManager = createL1CacheManager();
+        file = new File(Files.createTempDirectory("horizon-snapshot-test").toFile(), "l1.snapshot");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        l1CacheManager.stop();
+        MemoryStore.removeStore(storeName);
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void unchangedEntriesAreLoaded() throws IOException {
+        put("user", "user:1", new CacheValue("v1", 60000));
+        put("user", "user:2", new CacheValue("v2", 60000));
+        put("order", "order:1", new CacheValue("o1", 60000));
+
+        assertEquals(3, CacheSnapshot.write(file, l1CacheManager, serializer, 100));
+        CacheManager restarted = createL1CacheManager();
+        try {
+            assertEquals(3, CacheSnapshot.load(file, restarted, l2Cache, serializer, 2, 2));
+
+            assertEquals("v1", restarted.getCache("user").get("user:1").getValue());
+            assertEquals("v2", restarted.getCache("user").get("user:2").getValue());
+            assertEquals("o1", restarted.getCache("order").get("order:1").getValue());
+            assertFalse(file.exists());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void changedOrDeletedEntriesAreStale() throws IOException {
+        put("user", "user:1", new CacheValue("v1", 60000));
+        put("user", "user:2", new CacheValue("v2", 60000));
+        put("user", "user:3", new CacheValue("v3", 60000));
+        CacheSnapshot.write(file, l1CacheManager, serializer, 100);
+
+        //停机期间其他节点更新和删除了数据，新写入的失效时间与快照不同
+        l2Cache.set("user:2", new CacheValue("v2-new", 120000));
+        l2Cache.delete("user:3");
+
+        CacheManager restarted = createL1CacheManager();
+        try {
+            assertEquals(1, CacheSnapshot.load(file, restarted, l2Cache, serializer, 1, 10));
+
+            assertEquals("v1", restarted.getCache("user").get("user:1").getValue());
+            assertNull(restarted.getCache("user").get("user:2"));
+            assertNull(restarted.getCache("user").get("user:3"));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void updateDuringInstallIsRemoved() throws IOException {
+        put("user", "user:1", new CacheValue("v1", 60000));
+        put("user", "user:2", new CacheValue("v2", 60000));
+        CacheSnapshot.write(file, l1CacheManager, serializer, 100);
+
+        //第一次校验通过后、写入L1前，user:1在L2中被更新
+        AtomicInteger headerCalls = new AtomicInteger();
+        MemoryCache racingL2Cache = new MemoryCache(store, serializer) {
+            @Override
+            public Map<String, byte[]> getHeaders(Collection<String> keys, int length) {
+                Map<String, byte[]> headers = super.getHeaders(keys, length);
+                if (headerCalls.incrementAndGet() == 1) {
+                    set("user:1", new CacheValue("v1-new", 120000));
+                }
+                return headers;
+            }
+        };
+
+        CacheManager restarted = createL1CacheManager();
+        try {
+            assertEquals(1, CacheSnapshot.load(file, restarted, racingL2Cache, serializer, 1, 10));
+
+            assertNull(restarted.getCache("user").get("user:1"));
+            assertEquals("v2", restarted.getCache("user").get("user:2").getValue());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void existingL1EntryIsNotOverwritten() throws IOException {
+        put("user", "user:1", new CacheValue("v1", 60000));
+        CacheSnapshot.write(file, l1CacheManager, serializer, 100);
+
+        CacheManager restarted = createL1CacheManager();
+        try {
+            CacheValue fresh = new CacheValue("fresh", 60000);
+            restarted.getCache("user").set("user:1", fresh);
+
+            assertEquals(0, CacheSnapshot.load(file, restarted, l2Cache, serializer, 1, 10));
+            assertSame(fresh, restarted.getCache("user").get("user:1"));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void nullMarkersAndExpiredEntriesAreNotWritten() throws IOException {
+        put("user", "user:1", new CacheValue("v1", 60000));
+        l1CacheManager.getCache("user").set("user:2", new CacheValue(null, 60000));
+        CacheValue expired = new CacheValue("expired", 60000);
+        expired.setExpirationTime(System.currentTimeMillis() - 1);
+        l1CacheManager.getCache("user").set("user:3", expired);
+
+        assertEquals(1, CacheSnapshot.write(file, l1CacheManager, serializer, 100));
+    }
+
+    @Test
+    public void missingFileLoadsNothing() throws IOException {
+        assertEquals(0, CacheSnapshot.load(file, l1CacheManager, l2Cache, serializer, 1, 10));
+    }
+
+    private void put(String category, String finalKey, CacheValue cacheValue) {
+        l2Cache.set(finalKey, cacheValue);
+        l1CacheManager.getCache(category).set(finalKey, cacheValue);
+    }
+
+    private static CacheManager createL1CacheManager() {
+        CacheManager cacheManager = new CacheManager(CacheTypeEnum.CAFFEINE, 1000, 600);
+        cacheManager.start();
+        return cacheManager;
+    }
+}
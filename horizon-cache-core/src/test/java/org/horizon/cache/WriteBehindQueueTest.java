@@ -0,0 +1,192 @@
+package org.horizon.cache;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.enums.SerializerTypeEnum;
+import org.horizon.memory.MemoryCache;
+import org.horizon.memory.MemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion WriteBehindQueue的合并写入、容量、失败重试和广播时机，L2使用jvm内的MemoryCache
+ */
+public class WriteBehindQueueTest {
+
+    private String storeName;
+    private FailingMemoryCache l2Cache;
+    //flushListener收到的广播，分类名称 -> 业务key对应的缓存值
+    private List<Map.Entry<String, Map<String, CacheValue>>> flushed;
+
+    @BeforeEach
+    public void setUp() {
+        storeName = "write-behind-test-" + UUID.randomUUID();
+        l2Cache = new FailingMemoryCache(MemoryStore.getStore(storeName, 0));
+        flushed = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MemoryStore.removeStore(storeName);
+    }
+
+    @Test
+    public void latestWriteWins() {
+        WriteBehindQueue queue = createQueue(10, 3);
+        assertTrue(queue.offer("user", "1", "user:1", new CacheValue("v1", 60000)));
+        assertTrue(queue.offer("user", "1", "user:1", new CacheValue("v2", 60000)));
+        assertEquals(1, queue.size());
+        assertEquals("v2", queue.getPending("user:1").getCacheValue().getValue());
+
+        queue.flush();
+
+        assertEquals(0, queue.size());
+        assertNull(queue.getPending("user:1"));
+        assertEquals("v2", l2Cache.get("user:1").getValue());
+        assertEquals(1, flushed.size());
+        assertEquals("user", flushed.get(0).getKey());
+        assertEquals("v2", flushed.get(0).getValue().get("1").getValue());
+    }
+
+    @Test
+    public void deleteAfterSetRemovesFromL2() {
+        l2Cache.set("user:1", new CacheValue("old", 60000));
+        WriteBehindQueue queue = createQueue(10, 3);
+        queue.offer("user", "1", "user:1", new CacheValue("new", 60000));
+        queue.offer("user", "1", "user:1", null);
+
+        queue.flush();
+
+        assertNull(l2Cache.get("user:1"));
+        Map<String, CacheValue> values = flushed.get(0).getValue();
+        assertTrue(values.containsKey("1"));
+        assertNull(values.get("1"));
+    }
+
+    @Test
+    public void offerRejectedWhenFull() {
+        WriteBehindQueue queue = createQueue(2, 3);
+        assertTrue(queue.offer("user", "1", "user:1", new CacheValue("v1", 60000)));
+        assertTrue(queue.offer("user", "2", "user:2", new CacheValue("v2", 60000)));
+        //已在队列中的key覆盖写入不占用新的容量
+        assertTrue(queue.offer("user", "1", "user:1", new CacheValue("v3", 60000)));
+        assertFalse(queue.offer("user", "3", "user:3", new CacheValue("v4", 60000)));
+        assertEquals(2, queue.size());
+
+        queue.flush();
+
+        assertTrue(queue.offer("user", "3", "user:3", new CacheValue("v4", 60000)));
+    }
+
+    @Test
+    public void failedFlushKeepsEntriesAndDoesNotBroadcast() throws InterruptedException {
+        WriteBehindQueue queue = createQueue(10, 3);
+        queue.offer("user", "1", "user:1", new CacheValue("v1", 60000));
+        l2Cache.failing = true;
+
+        queue.flush();
+
+        assertEquals(1, queue.size());
+        assertNotNull(queue.getPending("user:1"));
+        assertNull(l2Cache.get("user:1"));
+        assertTrue(flushed.isEmpty());
+
+        //恢复后等待退避时间再重试
+        l2Cache.failing = false;
+        Thread.sleep(50);
+        queue.flush();
+
+        assertEquals(0, queue.size());
+        assertEquals("v1", l2Cache.get("user:1").getValue());
+        assertEquals(1, flushed.size());
+    }
+
+    @Test
+    public void failedFlushBacksOff() {
+        WriteBehindQueue queue = new WriteBehindQueue(l2Cache, (category, values) -> flushed.add(new AbstractMap.SimpleEntry<>(category, values)),
+                10000, 500, 10, 3);
+        queue.offer("user", "1", "user:1", new CacheValue("v1", 60000));
+        l2Cache.failing = true;
+        queue.flush();
+        l2Cache.failing = false;
+
+        //退避时间内不刷新
+        queue.flush();
+
+        assertEquals(1, queue.size());
+        assertEquals(1, l2Cache.writeCount);
+    }
+
+    @Test
+    public void dropAfterMaxRetries() throws InterruptedException {
+        WriteBehindQueue queue = createQueue(10, 1);
+        queue.offer("user", "1", "user:1", new CacheValue("v1", 60000));
+        l2Cache.failing = true;
+
+        queue.flush();
+        assertEquals(1, queue.size());
+        Thread.sleep(50);
+        queue.flush();
+
+        assertEquals(0, queue.size());
+        assertNull(queue.getPending("user:1"));
+        assertTrue(flushed.isEmpty());
+    }
+
+    @Test
+    public void newWriteDuringFailureResetsRetries() throws InterruptedException {
+        WriteBehindQueue queue = createQueue(10, 1);
+        queue.offer("user", "1", "user:1", new CacheValue("v1", 60000));
+        l2Cache.failing = true;
+        queue.flush();
+
+        queue.offer("user", "1", "user:1", new CacheValue("v2", 60000));
+        Thread.sleep(50);
+        queue.flush();
+
+        //新写入的数据重试次数重新计算，不会被丢弃
+        assertEquals(1, queue.size());
+        assertEquals("v2", queue.getPending("user:1").getCacheValue().getValue());
+    }
+
+    @Test
+    public void stopFlushesRemaining() {
+        WriteBehindQueue queue = createQueue(10, 3);
+        queue.start();
+        queue.offer("user", "1", "user:1", new CacheValue("v1", 60000));
+
+        queue.stop();
+
+        assertEquals(0, queue.size());
+        assertEquals("v1", l2Cache.get("user:1").getValue());
+    }
+
+    private WriteBehindQueue createQueue(int capacity, int maxRetries) {
+        return new WriteBehindQueue(l2Cache, (category, values) -> flushed.add(new AbstractMap.SimpleEntry<>(category, values)),
+                1, 500, capacity, maxRetries);
+    }
+
+    /**
+     * 可以模拟L2写入失败的MemoryCache
+     */
+    private static class FailingMemoryCache extends MemoryCache {
+        private volatile boolean failing;
+        private int writeCount;
+
+        FailingMemoryCache(MemoryStore store) {
+            super(store, SerializerTypeEnum.COMPACT.getSerializer());
+        }
+
+        @Override
+        public boolean writeAll(Map<String, CacheValue> cacheValues, Collection<String> deleteKeys) {
+            writeCount++;
+            return !failing && super.writeAll(cacheValues, deleteKeys);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.horizon.disk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion MappedDiskStore的读写、过期、压缩和淘汰；segment为1024字节，最多2个，每条记录约220字节，每个segment写入4条
+ */
+public class MappedDiskStoreTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final long EXPIRATION = Long.MAX_VALUE;
+
+    private File directory;
+    private MappedDiskStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("horizon-disk-test").toFile();
+        store = new MappedDiskStore(directory.getPath(), 2L * SEGMENT_SIZE, SEGMENT_SIZE, 0.5);
+        store.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.stop();
+        directory.delete();
+    }
+
+    @Test
+    public void putGetTakeRemove() {
+        assertTrue(store.put("a", value(1), EXPIRATION));
+        assertTrue(store.put("b", value(2), EXPIRATION));
+
+        assertArrayEquals(value(1), store.get("a"));
+        assertArrayEquals(value(1), store.get("a"));
+        assertArrayEquals(value(2), store.take("b"));
+        assertNull(store.take("b"));
+        assertNull(store.get("b"));
+
+        store.remove("a");
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void overwriteReturnsLatest() {
+        store.put("a", value(1), EXPIRATION);
+        store.put("a", value(2), EXPIRATION);
+
+        assertArrayEquals(value(2), store.get("a"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void expiredEntriesAreMissesAndPurged() {
+        long past = System.currentTimeMillis() - 1;
+        store.put("a", value(1), past);
+        store.put("b", value(2), past);
+        store.put("c", value(3), EXPIRATION);
+
+        assertNull(store.get("a"));
+        assertNull(store.take("b"));
+        assertEquals(1, store.size());
+
+        store.put("d", value(4), past);
+        assertEquals(1, store.purgeExpired());
+        assertEquals(1, store.size());
+        assertArrayEquals(value(3), store.get("c"));
+    }
+
+    @Test
+    public void oversizeValueRejected() {
+        store.put("a", value(1), EXPIRATION);
+
+        assertFalse(store.put("a", new byte[SEGMENT_SIZE], EXPIRATION));
+        //写入失败时旧数据不能再被读到
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    public void overwriteChurnCompactsInsteadOfEvicting() {
+        //反复覆盖少量key，旧segment中的有效数据很少，空间不足时压缩而不是淘汰
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.put("k" + (i % 2), value(i), EXPIRATION));
+        }
+
+        assertTrue(store.getCompactionCount() > 0);
+        assertEquals(0, store.getEvictionCount());
+        assertArrayEquals(value(98), store.get("k0"));
+        assertArrayEquals(value(99), store.get("k1"));
+    }
+
+    @Test
+    public void compactionKeepsLiveEntries() {
+        store.put("live", value(1), EXPIRATION);
+        for (int i = 0; i < 50; i++) {
+            store.put("churn", value(i), EXPIRATION);
+        }
+
+        assertTrue(store.getCompactionCount() > 0);
+        assertArrayEquals(value(1), store.get("live"));
+        assertArrayEquals(value(49), store.get("churn"));
+    }
+
+    @Test
+    public void removeDuringCompactionIsNotResurrected() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> resurrected = new AtomicReference<>();
+        //其他线程不断覆盖同一个key触发压缩，当前线程写入后立即删除，删除后不能再读到数据
+        Thread churn = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                store.put("churn", value(i), EXPIRATION);
+            }
+        });
+        churn.start();
+        try {
+            for (int i = 0; i < 20000 && resurrected.get() == null; i++) {
+                String key = "r" + (i % 3);
+                store.put(key, value(i), EXPIRATION);
+                store.remove(key);
+                if (store.get(key) != null) {
+                    resurrected.set(key);
+                }
+            }
+        } finally {
+            running.set(false);
+            churn.join();
+        }
+
+        assertNull(resurrected.get());
+        assertTrue(store.getCompactionCount() > 0);
+        store.remove("churn");
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void evictOldestSegmentWhenFullOfLiveData() {
+        //每条记录都有效，无法压缩，写满后淘汰最早的segment
+        for (int i = 0; i < 20; i++) {
+            assertTrue(store.put("k" + i, value(i), EXPIRATION));
+        }
+
+        assertTrue(store.getEvictionCount() > 0);
+        assertNull(store.get("k0"));
+        assertArrayEquals(value(19), store.get("k19"));
+        assertTrue(store.size() <= 8);
+    }
+
+    @Test
+    public void startClearsOldSegments() throws IOException {
+        assertTrue(new File(directory, "stale.seg").createNewFile());
+
+        MappedDiskStore restarted = new MappedDiskStore(directory.getPath(), 2L * SEGMENT_SIZE, SEGMENT_SIZE, 0.5);
+        restarted.start();
+
+        assertFalse(new File(directory, "stale.seg").exists());
+        assertNull(restarted.get("a"));
+        restarted.stop();
+    }
+
+    /**
+     * 200字节的值
+     */
+    private static byte[] value(int seed) {
+        byte[] bytes = new byte[200];
+        Arrays.fill(bytes, (byte) seed);
+        return bytes;
+    }
+}
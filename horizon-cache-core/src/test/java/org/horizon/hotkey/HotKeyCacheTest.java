@@ -0,0 +1,127 @@
+package org.horizon.hotkey;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.caffeine.CaffeineCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion HotKeyCache的热点固定、写入和删除对固定值的影响、定期刷新，以及读取后到达的删除不被固定的旧值覆盖
+ */
+public class HotKeyCacheTest {
+
+    private static final int PIN_THRESHOLD = 5;
+
+    private final CaffeineCache delegate = new CaffeineCache(1000, 600, TimeUnit.SECONDS);
+
+    @Test
+    public void hotKeyPinnedAfterThreshold() {
+        HotKeyCache cache = new HotKeyCache(delegate, 10, PIN_THRESHOLD, key -> null);
+        CacheValue cacheValue = new CacheValue("value", 60000);
+        cache.set("k", cacheValue);
+
+        for (int i = 1; i < PIN_THRESHOLD; i++) {
+            cache.get("k");
+        }
+        assertFalse(cache.getPinnedKeys().contains("k"));
+        cache.get("k");
+        assertTrue(cache.getPinnedKeys().contains("k"));
+
+        //固定后不受L1淘汰影响
+        delegate.delete("k");
+        assertSame(cacheValue, cache.get("k"));
+        assertTrue(cache.exists("k"));
+    }
+
+    @Test
+    public void setUpdatesAndDeleteUnpins() {
+        HotKeyCache cache = new HotKeyCache(delegate, 10, PIN_THRESHOLD, key -> null);
+        cache.set("k", new CacheValue("v1", 60000));
+        pin(cache, "k");
+
+        CacheValue updated = new CacheValue("v2", 60000);
+        cache.setAll(Collections.singletonMap("k", updated));
+        assertSame(updated, cache.get("k"));
+
+        cache.delete("k");
+        assertFalse(cache.getPinnedKeys().contains("k"));
+        assertNull(cache.get("k"));
+
+        cache.set("k", new CacheValue("v3", 60000));
+        pin(cache, "k");
+        cache.deleteAll(Arrays.asList("k"));
+        assertTrue(cache.getPinnedKeys().isEmpty());
+    }
+
+    @Test
+    public void nullMarkerNotPinned() {
+        HotKeyCache cache = new HotKeyCache(delegate, 10, PIN_THRESHOLD, key -> null);
+        cache.set("k", new CacheValue(null, 60000));
+
+        for (int i = 0; i < PIN_THRESHOLD * 2; i++) {
+            cache.get("k");
+        }
+
+        assertTrue(cache.getPinnedKeys().isEmpty());
+    }
+
+    @Test
+    public void deleteAfterReadIsNotOverwrittenByPin() {
+        AtomicReference<HotKeyCache> cacheRef = new AtomicReference<>();
+        AtomicReference<String> deleteOnRead = new AtomicReference<>();
+        //在L1读取之后、固定之前删除该key，模拟并发到达的失效广播
+        CaffeineCache racingDelegate = new CaffeineCache(1000, 600, TimeUnit.SECONDS) {
+            @Override
+            public CacheValue get(String key) {
+                CacheValue cacheValue = super.get(key);
+                if (deleteOnRead.compareAndSet(key, null)) {
+                    cacheRef.get().delete(key);
+                }
+                return cacheValue;
+            }
+        };
+        HotKeyCache cache = new HotKeyCache(racingDelegate, 10, PIN_THRESHOLD, key -> null);
+        cacheRef.set(cache);
+        cache.set("k", new CacheValue("stale", 60000));
+        for (int i = 1; i < PIN_THRESHOLD; i++) {
+            cache.get("k");
+        }
+
+        deleteOnRead.set("k");
+        assertEquals("stale", cache.get("k").getValue());
+
+        assertFalse(cache.getPinnedKeys().contains("k"));
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void refreshReloadsOrUnpins() {
+        AtomicReference<CacheValue> reloaded = new AtomicReference<>(new CacheValue("reloaded", 60000));
+        HotKeyCache cache = new HotKeyCache(delegate, 10, PIN_THRESHOLD, key -> reloaded.get());
+        cache.set("k", new CacheValue("value", 60000));
+        pin(cache, "k");
+
+        cache.refresh();
+        assertEquals("reloaded", cache.get("k").getValue());
+
+        //L2中已不存在的key解除固定
+        reloaded.set(null);
+        cache.refresh();
+        assertFalse(cache.getPinnedKeys().contains("k"));
+    }
+
+    private static void pin(HotKeyCache cache, String key) {
+        for (int i = 0; i < PIN_THRESHOLD && !cache.getPinnedKeys().contains(key); i++) {
+            cache.get(key);
+        }
+        assertTrue(cache.getPinnedKeys().contains(key));
+    }
+}
@@ -0,0 +1,96 @@
+package org.horizon.memory;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.serialize.impl.CompactSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion MemoryCache回源租约的获取、释放和不存在标记，租约key与缓存数据不共用key空间
+ */
+public class MemoryCacheLeaseTest {
+
+    private String storeName;
+    private MemoryCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        storeName = "lease-test-" + UUID.randomUUID();
+        cache = new MemoryCache(MemoryStore.getStore(storeName, 0), new CompactSerializer());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MemoryStore.removeStore(storeName);
+    }
+
+    @Test
+    public void acquireIsExclusiveUntilReleased() {
+        String token = cache.tryAcquireLease("user:1", 60000);
+        assertNotNull(token);
+        assertNull(cache.tryAcquireLease("user:1", 60000));
+
+        //非持有者的凭证不能释放租约
+        cache.releaseLease("user:1", "other");
+        assertNull(cache.tryAcquireLease("user:1", 60000));
+
+        cache.releaseLease("user:1", token);
+        assertNotNull(cache.tryAcquireLease("user:1", 60000));
+    }
+
+    @Test
+    public void leaseExpires() throws InterruptedException {
+        assertNotNull(cache.tryAcquireLease("user:1", 50));
+        Thread.sleep(100);
+        assertNotNull(cache.tryAcquireLease("user:1", 60000));
+    }
+
+    @Test
+    public void releaseAbsentBlocksAcquire() {
+        String token = cache.tryAcquireLease("user:1", 60000);
+        assertFalse(cache.isLeaseAbsent("user:1"));
+
+        //非持有者不能写入不存在标记
+        cache.releaseLeaseAbsent("user:1", "other", 60000);
+        assertFalse(cache.isLeaseAbsent("user:1"));
+
+        cache.releaseLeaseAbsent("user:1", token, 60000);
+        assertTrue(cache.isLeaseAbsent("user:1"));
+        assertNull(cache.tryAcquireLease("user:1", 60000));
+    }
+
+    @Test
+    public void leaseDoesNotCollideWithDataKeys() {
+        //业务key恰好是另一个key加上":lease"时，互不影响
+        cache.set("user:1:lease", new CacheValue("data", 60000));
+        assertNotNull(cache.tryAcquireLease("user:1", 60000));
+        assertEquals("data", cache.get("user:1:lease").getValue());
+
+        String token = cache.tryAcquireLease("user:2", 60000);
+        assertNotNull(token);
+        cache.releaseLeaseAbsent("user:2", token, 60000);
+        assertNull(cache.get("user:2:lease"));
+    }
+
+    @Test
+    public void scanCategoryDoesNotReturnLeases() {
+        cache.set("user:1", new CacheValue("data", 60000));
+        assertNotNull(cache.tryAcquireLease("user:1", 60000));
+        assertNotNull(cache.tryAcquireLease("user:2", 60000));
+
+        List<String> keys = new ArrayList<>();
+        cache.scan("user:*", 100, keys::addAll);
+
+        assertEquals(1, keys.size());
+        assertEquals("user:1", keys.get(0));
+    }
+}
@@ -0,0 +1,84 @@
+package org.horizon.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion LatencyHistogram的分桶和分位数计算：小于8的值精确记录，其余每个2的幂区间分8个桶，相对误差不超过12.5%
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 8; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(0, histogram.getPercentile(0.1));
+        assertEquals(3, histogram.getPercentile(0.5));
+        assertEquals(6, histogram.getPercentile(0.8));
+        assertEquals(7, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void percentileIsBucketUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        //1000位于[960, 1023]桶
+        histogram.record(1000);
+        histogram.record(2000);
+
+        assertEquals(1023, histogram.getPercentile(0.5));
+        //上界不超过最大值
+        assertEquals(2000, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void relativeErrorWithinBucketWidth() {
+        for (long value = 8; value < 1L << 40; value = value * 3 + 1) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            //加入更大的值，避免分位数被最大值截断
+            histogram.record(Long.MAX_VALUE / 2);
+
+            long percentile = histogram.getPercentile(0.5);
+            assertTrue(percentile >= value, "value:" + value + ", percentile:" + percentile);
+            assertTrue(percentile - value <= value / 8, "value:" + value + ", percentile:" + percentile);
+        }
+    }
+
+    @Test
+    public void negativeRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-100);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void countMeanMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(200);
+        histogram.record(600);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(300, histogram.getMean(), 0.0001);
+        assertEquals(600, histogram.getMax());
+    }
+}
@@ -0,0 +1,138 @@
+package org.horizon.negative;
+
+import org.horizon.caffeine.CacheManager;
+import org.horizon.caffeine.CacheValue;
+import org.horizon.caffeine.CaffeineCache;
+import org.horizon.enums.CacheTypeEnum;
+import org.horizon.factory.CacheCategoryConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion NegativeCache的空值标记存放和统计，以及分类空值标记过期时间的继承(-1)和关闭(0)
+ */
+public class NegativeCacheTest {
+
+    private final CaffeineCache delegate = new CaffeineCache(1000, 600, TimeUnit.SECONDS);
+
+    @Test
+    public void markerKeptOutOfDelegate() {
+        NegativeCache cache = new NegativeCache(delegate, 100, 60, TimeUnit.SECONDS);
+        cache.set("k", new CacheValue("value", 60000));
+
+        CacheValue marker = new CacheValue(null, 60000);
+        cache.set("k", marker);
+
+        //写入空值标记时移除L1中的旧值
+        assertNull(delegate.get("k"));
+        assertSame(marker, cache.get("k"));
+        assertFalse(cache.exists("k"));
+        assertEquals(1, cache.getNegativeSize());
+
+        //写入真实数据时移除空值标记
+        cache.set("k", new CacheValue("value2", 60000));
+        assertEquals("value2", cache.get("k").getValue());
+        cache.delete("k");
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void batchOperations() {
+        NegativeCache cache = new NegativeCache(delegate, 100, 60, TimeUnit.SECONDS);
+        Map<String, CacheValue> values = new LinkedHashMap<>();
+        values.put("a", new CacheValue("a", 60000));
+        values.put("b", new CacheValue(null, 60000));
+        cache.setAll(values);
+
+        Map<String, CacheValue> result = cache.getAll(Arrays.asList("a", "b", "c"));
+        assertEquals(2, result.size());
+        assertEquals("a", result.get("a").getValue());
+        assertNull(result.get("b").getValue());
+        assertNull(delegate.get("b"));
+
+        cache.deleteAll(Arrays.asList("a", "b"));
+        assertTrue(cache.getAll(Arrays.asList("a", "b")).isEmpty());
+    }
+
+    @Test
+    public void hitStatistics() {
+        NegativeCache cache = new NegativeCache(delegate, 100, 60, TimeUnit.SECONDS);
+        cache.set("value", new CacheValue("value", 60000));
+        cache.set("marker", new CacheValue(null, 60000));
+
+        cache.get("value");
+        cache.get("marker");
+        cache.get("marker");
+        cache.get("missing");
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getNegativeHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void markerExpires() throws InterruptedException {
+        NegativeCache cache = new NegativeCache(delegate, 100, 50, TimeUnit.MILLISECONDS);
+        cache.set("k", new CacheValue(null, 60000));
+        assertNotNull(cache.get("k"));
+
+        Thread.sleep(100);
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void categoryNegativeTtlInheritsOrDisables() {
+        Map<String, CacheCategoryConfig> configs = new HashMap<>();
+        configs.put("inherit", new CacheCategoryConfig("inherit"));
+        configs.put("disabled", negativeTtlConfig("disabled", 0));
+        configs.put("custom", negativeTtlConfig("custom", 5));
+        CacheManager cacheManager = new CacheManager(CacheTypeEnum.CAFFEINE, 1000, 600);
+        cacheManager.setNegativeTtl(60);
+        cacheManager.setCategoryConfigs(configs);
+        cacheManager.start();
+        try {
+            assertEquals(60, cacheManager.getNegativeTtl("inherit"));
+            assertEquals(60, cacheManager.getNegativeTtl("unconfigured"));
+            assertEquals(0, cacheManager.getNegativeTtl("disabled"));
+            assertEquals(5, cacheManager.getNegativeTtl("custom"));
+
+            assertNotNull(CacheManager.unwrap(cacheManager.getCache("inherit"), NegativeCache.class));
+            assertNotNull(CacheManager.unwrap(cacheManager.getCache("custom"), NegativeCache.class));
+            //关闭后空值标记与真实数据一起存放在L1中
+            assertNull(CacheManager.unwrap(cacheManager.getCache("disabled"), NegativeCache.class));
+        } finally {
+            cacheManager.stop();
+        }
+    }
+
+    @Test
+    public void globalDisabledCategoryCanEnable() {
+        CacheManager cacheManager = new CacheManager(CacheTypeEnum.CAFFEINE, 1000, 600);
+        cacheManager.setNegativeTtl(0);
+        cacheManager.setCategoryConfigs(Collections.singletonMap("custom", negativeTtlConfig("custom", 5)));
+        cacheManager.start();
+        try {
+            assertEquals(0, cacheManager.getNegativeTtl("other"));
+            assertNull(CacheManager.unwrap(cacheManager.getCache("other"), NegativeCache.class));
+            assertNotNull(CacheManager.unwrap(cacheManager.getCache("custom"), NegativeCache.class));
+        } finally {
+            cacheManager.stop();
+        }
+    }
+
+    private static CacheCategoryConfig negativeTtlConfig(String category, long negativeTtl) {
+        CacheCategoryConfig config = new CacheCategoryConfig(category);
+        config.setNegativeTtl(negativeTtl);
+        return config;
+    }
+}
@@ -0,0 +1,122 @@
+package org.horizon.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion OffHeapStore的读写、过期和slab淘汰；slab为100字节，最多3个，每条数据100字节正好写满一个slab
+ */
+public class OffHeapStoreTest {
+
+    private static final int SLAB_SIZE = 100;
+    private static final long EXPIRATION = Long.MAX_VALUE;
+
+    private final OffHeapStore store = new OffHeapStore(3L * SLAB_SIZE, SLAB_SIZE);
+
+    @Test
+    public void putGetRemove() {
+        assertTrue(store.put("a", new byte[]{1, 2, 3}, EXPIRATION));
+        assertTrue(store.put("b", new byte[]{4}, EXPIRATION));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, store.get("a"));
+        assertArrayEquals(new byte[]{4}, store.get("b"));
+        assertEquals(2, store.getHitCount());
+
+        store.remove("a");
+        assertNull(store.get("a"));
+        assertEquals(1, store.getMissCount());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void expiredEntryIsMiss() {
+        store.put("a", new byte[]{1}, System.currentTimeMillis() - 1);
+
+        assertNull(store.get("a"));
+        assertEquals(1, store.getExpiredCount());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void oversizeValueRejected() {
+        store.put("a", new byte[]{1}, EXPIRATION);
+
+        assertFalse(store.put("a", new byte[SLAB_SIZE + 1], EXPIRATION));
+        assertEquals(1, store.getRejectedCount());
+        //写入失败时旧数据不能再被读到
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    public void evictOldestSlabWhenFull() {
+        store.put("a", value(1), EXPIRATION);
+        store.put("b", value(2), EXPIRATION);
+        store.put("c", value(3), EXPIRATION);
+        assertEquals(3L * SLAB_SIZE, store.getAllocatedBytes());
+
+        store.put("d", value(4), EXPIRATION);
+
+        assertEquals(3L * SLAB_SIZE, store.getAllocatedBytes());
+        assertEquals(1, store.getSlabEvictionCount());
+        assertEquals(1, store.getEvictionCount());
+        assertNull(store.get("a"));
+        assertArrayEquals(value(2), store.get("b"));
+        assertArrayEquals(value(4), store.get("d"));
+    }
+
+    @Test
+    public void readSlabGetsSecondChance() {
+        store.put("a", value(1), EXPIRATION);
+        store.put("b", value(2), EXPIRATION);
+        store.put("c", value(3), EXPIRATION);
+        //a所在的slab被读取过，淘汰时移到队尾，改为淘汰b所在的slab
+        store.get("a");
+
+        store.put("d", value(4), EXPIRATION);
+
+        assertArrayEquals(value(1), store.get("a"));
+        assertNull(store.get("b"));
+        assertArrayEquals(value(4), store.get("d"));
+    }
+
+    @Test
+    public void overwrittenKeySurvivesEvictionOfOldSlab() {
+        store.put("a", value(1), EXPIRATION);
+        store.put("b", value(2), EXPIRATION);
+        store.put("a", value(5), EXPIRATION);
+
+        //淘汰a第一次写入的slab，a的新数据在其他slab中保留
+        store.put("c", value(3), EXPIRATION);
+
+        assertArrayEquals(value(5), store.get("a"));
+        assertArrayEquals(value(3), store.get("c"));
+    }
+
+    @Test
+    public void clearReusesSlabs() {
+        store.put("a", value(1), EXPIRATION);
+        store.put("b", value(2), EXPIRATION);
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.get("a"));
+        store.put("c", value(3), EXPIRATION);
+        store.put("d", value(4), EXPIRATION);
+        assertEquals(2L * SLAB_SIZE, store.getAllocatedBytes());
+        assertEquals(0, store.getSlabEvictionCount());
+        assertArrayEquals(value(3), store.get("c"));
+        assertArrayEquals(value(4), store.get("d"));
+    }
+
+    private static byte[] value(int seed) {
+        byte[] bytes = new byte[SLAB_SIZE];
+        Arrays.fill(bytes, (byte) seed);
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package org.horizon.serialize;
+
+import org.horizon.caffeine.CacheValue;
+import org.horizon.enums.SerializerTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CacheValueEnvelope的编解码、只读头部和旧格式兼容
+ */
+public class CacheValueEnvelopeTest {
+
+    @Test
+    public void roundTrip() {
+        for (SerializerTypeEnum type : SerializerTypeEnum.values()) {
+            Serializer serializer = type.getSerializer();
+            CacheValue cacheValue = new CacheValue("value", 60000);
+
+            byte[] bytes = CacheValueEnvelope.encode(serializer, cacheValue);
+            assertTrue(CacheValueEnvelope.isEnvelope(bytes));
+
+            CacheValue decoded = CacheValueEnvelope.decode(serializer, bytes);
+            assertEquals("value", decoded.getValue());
+            assertEquals(cacheValue.getExpirationTime(), decoded.getExpirationTime());
+            assertTrue(decoded.getSurvivalTime() > 0 && decoded.getSurvivalTime() <= 60000);
+        }
+    }
+
+    @Test
+    public void nullValueHasOnlyHeader() {
+        Serializer serializer = SerializerTypeEnum.COMPACT.getSerializer();
+        byte[] bytes = CacheValueEnvelope.encode(serializer, new CacheValue(null, 60000));
+
+        assertEquals(CacheValueEnvelope.HEADER_LENGTH, bytes.length);
+        assertNull(CacheValueEnvelope.decode(serializer, bytes).getValue());
+    }
+
+    @Test
+    public void absentMarkerFlagRoundTrip() {
+        Serializer serializer = SerializerTypeEnum.COMPACT.getSerializer();
+        CacheValue absent = new CacheValue(null, 60000);
+        absent.setAbsent(true);
+
+        assertTrue(CacheValueEnvelope.decode(serializer, CacheValueEnvelope.encode(serializer, absent)).isAbsent());
+        assertFalse(CacheValueEnvelope.decode(serializer, CacheValueEnvelope.encode(serializer, new CacheValue(null, 60000))).isAbsent());
+    }
+
+    @Test
+    public void permanentValueKeepsNegativeSurvivalTime() {
+        Serializer serializer = SerializerTypeEnum.COMPACT.getSerializer();
+        CacheValue decoded = CacheValueEnvelope.decode(serializer, CacheValueEnvelope.encode(serializer, new CacheValue("value", -1)));
+
+        assertEquals(-1, decoded.getSurvivalTime());
+        assertTrue(decoded.getExpirationTime() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void expirationTimeReadFromHeaderOnly() {
+        Serializer serializer = SerializerTypeEnum.COMPACT.getSerializer();
+        CacheValue cacheValue = new CacheValue("value", 60000);
+        byte[] header = Arrays.copyOf(CacheValueEnvelope.encode(serializer, cacheValue), CacheValueEnvelope.HEADER_LENGTH);
+
+        assertTrue(CacheValueEnvelope.isEnvelope(header));
+        assertEquals(cacheValue.getExpirationTime(), CacheValueEnvelope.readExpirationTime(header));
+    }
+
+    @Test
+    public void legacyBytesDecodedBySerializer() {
+        for (SerializerTypeEnum type : SerializerTypeEnum.values()) {
+            Serializer serializer = type.getSerializer();
+            CacheValue cacheValue = new CacheValue("value", 60000);
+
+            //旧版本直接序列化整个CacheValue
+            byte[] legacy = serializer.serialize(cacheValue);
+            assertFalse(CacheValueEnvelope.isEnvelope(legacy));
+
+            CacheValue decoded = CacheValueEnvelope.decode(serializer, legacy);
+            assertEquals("value", decoded.getValue());
+            assertEquals(60000, decoded.getSurvivalTime());
+            assertEquals(cacheValue.getExpirationTime(), decoded.getExpirationTime());
+        }
+    }
+
+    @Test
+    public void unsupportedVersionThrows() {
+        Serializer serializer = SerializerTypeEnum.COMPACT.getSerializer();
+        byte[] bytes = CacheValueEnvelope.encode(serializer, new CacheValue("value", 60000));
+        bytes[1] = (byte) (bytes[1] + 1);
+        assertThrows(RuntimeException.class, () -> CacheValueEnvelope.decode(serializer, bytes));
+    }
+}
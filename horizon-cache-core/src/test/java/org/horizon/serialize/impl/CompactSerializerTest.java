@@ -0,0 +1,123 @@
+package org.horizon.serialize.impl;
+
+import org.horizon.caffeine.CacheValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CompactSerializer内置类型、注册类型和java序列化兜底的编解码
+ */
+public class CompactSerializerTest {
+
+    private final CompactSerializer serializer = new CompactSerializer();
+
+    @Test
+    public void builtInTypesRoundTrip() {
+        Object[] values = {"", "中文value", 0, -1, Integer.MAX_VALUE, Long.MIN_VALUE, 123456789012L, true, false,
+                3.14d, Double.NaN, 1.5f, (short) -7, (byte) 127, 'x', new BigDecimal("12345.6789"),
+                new BigInteger("123456789012345678901234567890"), new Date(1700000000000L)};
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value));
+        }
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void collectionsRoundTrip() {
+        List<Object> list = new ArrayList<>(Arrays.asList("a", 1, null, 2L));
+        Set<String> set = new LinkedHashSet<>(Arrays.asList("x", "y"));
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", list);
+        map.put("set", set);
+        map.put("nested", new HashMap<>(Collections.singletonMap(1, "one")));
+
+        Object decoded = roundTrip(map);
+
+        assertEquals(map, decoded);
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(((Map<?, ?>) decoded).keySet()));
+    }
+
+    @Test
+    public void cacheValueRoundTrip() {
+        CacheValue cacheValue = new CacheValue(new ArrayList<>(Arrays.asList("a", "b")), 60000);
+
+        CacheValue decoded = (CacheValue) roundTrip(cacheValue);
+
+        assertEquals(cacheValue.getValue(), decoded.getValue());
+        assertEquals(cacheValue.getSurvivalTime(), decoded.getSurvivalTime());
+        assertEquals(cacheValue.getExpirationTime(), decoded.getExpirationTime());
+    }
+
+    @Test
+    public void registeredCodecRoundTrip() {
+        serializer.register(Point.class, 1, new PointCodec());
+
+        Point decoded = (Point) roundTrip(new Point(3, 4));
+
+        assertEquals(3, decoded.x);
+        assertEquals(4, decoded.y);
+    }
+
+    @Test
+    public void registerConflictingIdThrows() {
+        serializer.register(Point.class, 1, new PointCodec());
+        assertThrows(IllegalArgumentException.class, () -> serializer.register(Named.class, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> serializer.register(Point.class, -1, new PointCodec()));
+    }
+
+    @Test
+    public void serializableFallsBackToJava() {
+        Named decoded = (Named) roundTrip(new Named("horizon"));
+        assertEquals("horizon", decoded.name);
+    }
+
+    @Test
+    public void unregisteredNonSerializableThrows() {
+        assertThrows(RuntimeException.class, () -> serializer.serialize(new Point(1, 2)));
+    }
+
+    private Object roundTrip(Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static class Point {
+        private final int x;
+        private final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static class PointCodec implements CompactSerializer.Codec<Point> {
+        @Override
+        public void write(CompactSerializer.Output output, Point value) {
+            output.writeVarInt(value.x);
+            output.writeVarInt(value.y);
+        }
+
+        @Override
+        public Point read(CompactSerializer.Input input) {
+            return new Point(input.readVarInt(), input.readVarInt());
+        }
+    }
+
+    private static class Named implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        Named(String name) {
+            this.name = name;
+        }
+    }
+}
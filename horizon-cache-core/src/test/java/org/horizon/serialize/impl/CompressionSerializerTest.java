@@ -0,0 +1,117 @@
+package org.horizon.serialize.impl;
+
+import org.horizon.serialize.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author zhaoxun
+ * @date 2026/10/18
+ * @descriprion CompressionSerializer的压缩往返、未压缩数据首字节与magic相同时的转义和不可压缩数据按原样存储
+ */
+public class CompressionSerializerTest {
+
+    @Test
+    public void compressibleRoundTrip() {
+        CompressionSerializer serializer = new CompressionSerializer(new BytesSerializer(), 64, Deflater.BEST_SPEED);
+        byte[] value = new byte[4096];
+        Arrays.fill(value, (byte) 'a');
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(CompressionSerializer.MAGIC, bytes[0]);
+        assertTrue(bytes.length < value.length / 10, "compressed length: " + bytes.length);
+        assertArrayEquals(value, (byte[]) serializer.deserialize(bytes));
+        assertEquals(1, serializer.getCompressCount());
+        assertEquals(1, serializer.getDecompressCount());
+        assertTrue(serializer.getCompressionRatio() < 0.1);
+    }
+
+    @Test
+    public void belowThresholdStoredRaw() {
+        CompressionSerializer serializer = new CompressionSerializer(new BytesSerializer(), 64, Deflater.BEST_SPEED);
+        byte[] value = {1, 2, 3};
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertArrayEquals(value, bytes);
+        assertArrayEquals(value, (byte[]) serializer.deserialize(bytes));
+        assertEquals(0, serializer.getCompressCount());
+    }
+
+    @Test
+    public void rawDataStartingWithMagicIsEscaped() {
+        CompressionSerializer serializer = new CompressionSerializer(new BytesSerializer(), 64, Deflater.BEST_SPEED);
+        byte[] value = {CompressionSerializer.MAGIC, 1, 2, 3};
+
+        byte[] bytes = serializer.serialize(value);
+
+        //magic和不压缩标记组成两个字节的头部
+        assertEquals(value.length + 2, bytes.length);
+        assertEquals(CompressionSerializer.MAGIC, bytes[0]);
+        assertEquals((byte) 0, bytes[1]);
+        assertArrayEquals(value, (byte[]) serializer.deserialize(bytes));
+    }
+
+    @Test
+    public void incompressibleStoredRaw() {
+        CompressionSerializer serializer = new CompressionSerializer(new BytesSerializer(), 64, Deflater.BEST_SPEED);
+        byte[] value = new byte[4096];
+        new Random(42).nextBytes(value);
+        value[0] = 0;
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertArrayEquals(value, bytes);
+        assertArrayEquals(value, (byte[]) serializer.deserialize(bytes));
+        assertEquals(0, serializer.getCompressCount());
+        assertEquals(1, serializer.getIncompressibleCount());
+    }
+
+    @Test
+    public void incompressibleStartingWithMagicIsEscaped() {
+        CompressionSerializer serializer = new CompressionSerializer(new BytesSerializer(), 64, Deflater.BEST_SPEED);
+        byte[] value = new byte[4096];
+        new Random(7).nextBytes(value);
+        value[0] = CompressionSerializer.MAGIC;
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(value.length + 2, bytes.length);
+        assertArrayEquals(value, (byte[]) serializer.deserialize(bytes));
+        assertEquals(1, serializer.getIncompressibleCount());
+    }
+
+    @Test
+    public void wrapsCompactSerializer() {
+        CompressionSerializer serializer = new CompressionSerializer(new CompactSerializer(), 32, Deflater.DEFAULT_COMPRESSION);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            value.append("horizon-cache-");
+        }
+
+        assertEquals(value.toString(), serializer.deserialize(serializer.serialize(value.toString())));
+        assertEquals("short", serializer.deserialize(serializer.serialize("short")));
+    }
+
+    /**
+     * 直接输出字节数组的序列化，便于控制首字节和可压缩性
+     */
+    private static class BytesSerializer extends Serializer {
+        @Override
+        public <T> byte[] serialize(T obj) {
+            return ((byte[]) obj).clone();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T deserialize(byte[] bytes) {
+            return (T) bytes.clone();
+        }
+    }
+}